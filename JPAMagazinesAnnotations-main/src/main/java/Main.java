@@ -1,4 +1,5 @@
 import controller.*;
+import model.*;
 import org.hibernate.HibernateException;
 import org.hibernate.SessionFactory;
 import org.hibernate.boot.Metadata;
@@ -9,6 +10,7 @@ import view.Menu;
 
 import javax.persistence.EntityManagerFactory;
 import javax.persistence.Persistence;
+import java.nio.file.Paths;
 
 /**
  * Clase Main contiene el método principal (main) que inicia la aplicación y gestiona el flujo del programa.
@@ -67,13 +69,22 @@ public class Main {
         CompuestoController compuestoController = new CompuestoController(entityManagerFactory);
         ElementoController elementoController = new ElementoController(entityManagerFactory);
         CompuestoElementoController compuestoElementoController = new CompuestoElementoController(entityManagerFactory);
+        compuestoElementoController.setElementoIndex(elementoController.getIndex());
+
+        //Carga de todas las tablas respetando sus dependencias
+        LoaderController loaderController = new LoaderController(entityManagerFactory);
+        loaderController.register(Estado.class, estadoController, "/estadosDeElementos.csv");
+        loaderController.register(Serie.class, serieController, "/seriesDeElementos.csv");
+        loaderController.register(Elemento.class, elementoController, "/elementosQuimicos.csv");
+        loaderController.register(Compuesto.class, compuestoController, "/compuestosQuimicos.csv");
+        loaderController.register(CompuestoElemento.class, compuestoElementoController, "/compuestosPorElementos.csv");
 
         Menu menu = new Menu();
         int option;
         option = menu.mainMenu();
 
         // Se ejecuta un bucle mientas la opción seleccionada esté dentro del rango válido
-        while (option > 0 && option < 20) {
+        while (option > 0 && option < 28) {
             // Se utiliza una estructura de control switch para realizar la operación correspondiente según la opción seleccionada
             switch (option) {
                 case 1:
@@ -149,6 +160,28 @@ public class Main {
 
                 case 20:
                     System.exit(0);
+                    break;
+                case 21:
+                    loaderController.loadAll(new BatchOptions(), LoadMode.BATCH);
+                    break;
+                case 22:
+                    loaderController.loadAll(new BatchOptions(), LoadMode.BULK);
+                    break;
+                case 23:
+                    loaderController.loadAll(new BatchOptions(), LoadMode.SYNC);
+                    break;
+                case 24:
+                    loaderController.loadAll(new BatchOptions(), LoadMode.RESUME);
+                    break;
+                case 25:
+                    loaderController.loadAll(new BatchOptions(), LoadMode.PIPELINE);
+                    break;
+                case 26:
+                    loaderController.exportAll(Paths.get("exportacion"), new ExportOptions());
+                    break;
+                case 27:
+                    compuestoElementoController.selectPorComposicion();
+                    break;
 
                 default:
                     System.out.println("Introduce una de las opciones anteriores");
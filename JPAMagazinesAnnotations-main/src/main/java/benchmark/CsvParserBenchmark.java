@@ -0,0 +1,199 @@
+package benchmark;
+
+import com.opencsv.CSVReader;
+import controller.CsvRecord;
+import controller.CsvSchema;
+import controller.CsvSchema.ColumnType;
+import controller.MappedCsvReader;
+import controller.RecordSource;
+import controller.TypedCsvReader;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * La clase CsvParserBenchmark compara la lectura de un archivo CSV de elementos con OpenCSV, con el lector
+ * tipado {@link TypedCsvReader} y con el lector proyectado en memoria {@link MappedCsvReader}, aplicando
+ * en todos los casos las mismas conversiones que la carga de la tabla.
+ * Para cada lector muestra los registros por segundo y los bytes reservados por registro.
+ *
+ * Uso: {@code CsvParserBenchmark [archivo.csv | repeticiones]}. Sin argumentos, el archivo de elementos
+ * incluido en el proyecto se repite 2000 veces en un archivo temporal.
+ */
+public class CsvParserBenchmark {
+
+    /**
+     * Esquema del archivo de elementos, igual que el de {@code ElementoController}.
+     */
+    static final CsvSchema ELEMENTOS = new CsvSchema(
+            ColumnType.INT, ColumnType.TEXT, ColumnType.TEXT, ColumnType.DECIMAL, ColumnType.INT, ColumnType.INT,
+            ColumnType.TEXT, ColumnType.DECIMAL, ColumnType.DECIMAL, ColumnType.DECIMAL, ColumnType.DECIMAL,
+            ColumnType.DECIMAL, ColumnType.INT, ColumnType.DECIMAL, ColumnType.DECIMAL, ColumnType.DECIMAL,
+            ColumnType.DECIMAL, ColumnType.DECIMAL, ColumnType.DECIMAL, ColumnType.INT);
+
+    /**
+     * Lectores que se comparan.
+     */
+    private enum Reader {
+        OpenCSV, TypedCsvReader, MappedCsvReader
+    }
+
+    /**
+     * Número de pasadas de calentamiento antes de medir.
+     */
+    private static final int WARMUP = 3;
+
+    /**
+     * Número de pasadas medidas.
+     */
+    private static final int RUNS = 5;
+
+    /**
+     * Suma de control de los valores leídos, para que el compilador no elimine las conversiones.
+     */
+    private static long checksum;
+
+    public static void main(String[] args) throws Exception {
+        Path file;
+        boolean temporary = false;
+
+        if (args.length > 0 && !args[0].matches("\\d+")) {
+            file = Paths.get(args[0]);
+        } else {
+            int repetitions = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+            file = repeatResource("/elementosQuimicos.csv", repetitions);
+            temporary = true;
+        }
+
+        try {
+            System.out.println("Archivo: " + file + " (" + Files.size(file) + " bytes)");
+            for (int i = 0; i < WARMUP; i++) {
+                for (Reader reader : Reader.values()) {
+                    read(reader, file);
+                }
+            }
+            for (Reader reader : Reader.values()) {
+                measure(reader, file);
+            }
+        } finally {
+            if (temporary) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    /**
+     * Mide varias pasadas de un lector y muestra el resultado.
+     */
+    private static void measure(Reader reader, Path file) throws Exception {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        long records = 0;
+
+        long bytesBefore = threads.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        for (int i = 0; i < RUNS; i++) {
+            records += read(reader, file);
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(thread) - bytesBefore;
+
+        System.out.printf("%-15s %,12.0f registros/s %,10.1f bytes/registro%n",
+                reader, records * 1e9 / elapsed, (double) allocated / records);
+    }
+
+    /**
+     * Lee el archivo con el lector proporcionado.
+     */
+    private static long read(Reader reader, Path file) throws Exception {
+        switch (reader) {
+            case OpenCSV:
+                return readOpenCsv(file);
+            case TypedCsvReader:
+                return readTyped(new TypedCsvReader(Files.newInputStream(file), ELEMENTOS));
+            default:
+                return readTyped(new MappedCsvReader(file, ELEMENTOS));
+        }
+    }
+
+    /**
+     * Lee el archivo con OpenCSV y convierte cada campo a partir de los String.
+     */
+    private static long readOpenCsv(Path file) throws Exception {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+             CSVReader csv = new CSVReader(reader)) {
+            long count = 0;
+            String[] fields;
+            while ((fields = csv.readNext()) != null) {
+                consume(CsvRecord.of(fields, ++count));
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Lee todos los registros de un lector tipado.
+     */
+    private static long readTyped(RecordSource reader) throws Exception {
+        try (RecordSource source = reader) {
+            long count = 0;
+            CsvRecord record;
+            while ((record = source.next()) != null) {
+                consume(record);
+                count++;
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Obtiene los valores de un registro igual que {@code ElementoController.addInTable}.
+     */
+    private static void consume(CsvRecord record) {
+        long sum = 0;
+        for (int i = 0; i < ELEMENTOS.size(); i++) {
+            switch (ELEMENTOS.type(i)) {
+                case INT:
+                    sum += record.getInt(i);
+                    break;
+                case DECIMAL:
+                    sum += record.isEmpty(i) ? 0 : record.getDecimal(i).scale();
+                    break;
+                default:
+                    sum += record.getText(i).length();
+            }
+        }
+        checksum += sum;
+    }
+
+    /**
+     * Crea un archivo temporal con el contenido de un recurso repetido varias veces.
+     */
+    private static Path repeatResource(String resource, int repetitions) throws IOException {
+        byte[] content;
+        try (InputStream in = CsvParserBenchmark.class.getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IOException("No se encuentra el recurso: " + resource);
+            }
+            content = in.readAllBytes();
+        }
+
+        Path file = Files.createTempFile("benchmark", ".csv");
+        try (OutputStream out = Files.newOutputStream(file)) {
+            for (int i = 0; i < repetitions; i++) {
+                out.write(content);
+                if (content.length > 0 && content[content.length - 1] != '\n') {
+                    out.write('\n');
+                }
+            }
+        }
+        return file;
+    }
+}
@@ -0,0 +1,182 @@
+package benchmark;
+
+import controller.CsvRecord;
+import controller.TypedCsvReader;
+import model.Elemento;
+
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * La clase ElementoFootprintBenchmark mide la memoria que ocupa cada {@link Elemento} cargado,
+ * comparando la representación actual, con las propiedades decimales en millonésimas, con la anterior,
+ * con un {@link BigDecimal} por propiedad.
+ * Se crean muchos elementos a partir del archivo de elementos incluido en el proyecto y se mide cuánto crece
+ * el heap tras el recolector de basura. Los textos se comparten entre todos los elementos para que solo se
+ * mida el propio objeto y sus decimales.
+ *
+ * Uso: {@code ElementoFootprintBenchmark [elementos]}, por defecto 200000.
+ */
+public class ElementoFootprintBenchmark {
+
+    /**
+     * Elementos creados en la medida en curso, para que el recolector no los libere antes de medir.
+     */
+    private static Object[] retained;
+
+    public static void main(String[] args) throws Exception {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        List<CsvRecord> records = readElementos();
+
+        // Pasada de calentamiento para que las clases estén cargadas antes de medir.
+        measure(records, 1000, false);
+        measure(records, 1000, true);
+
+        double before = measure(records, count, false);
+        double after = measure(records, count, true);
+        System.out.printf("Elementos: %,d%n", count);
+        System.out.printf("%-28s %8.1f bytes/elemento%n", "BigDecimal por propiedad", before);
+        System.out.printf("%-28s %8.1f bytes/elemento%n", "Millonésimas en long", after);
+        System.out.printf("%-28s %8.1f %%%n", "Reducción", 100 * (before - after) / before);
+    }
+
+    /**
+     * Crea los elementos con una de las dos representaciones y devuelve los bytes de heap por elemento.
+     */
+    private static double measure(List<CsvRecord> records, int count, boolean compact) {
+        String[][] texts = new String[records.size()][];
+        for (int i = 0; i < records.size(); i++) {
+            CsvRecord record = records.get(i);
+            texts[i] = new String[] {record.getText(1), record.getText(2), record.getText(6)};
+        }
+
+        long start = usedHeap();
+        retained = new Object[count];
+        for (int i = 0; i < count; i++) {
+            int row = i % records.size();
+            retained[i] = compact ? compact(records.get(row), texts[row]) : legacy(records.get(row), texts[row]);
+        }
+        long end = usedHeap();
+        // El arreglo de referencias es igual en las dos representaciones y no se cuenta.
+        long array = 16 + 4L * count;
+        retained = null;
+        return (double) (end - start - array) / count;
+    }
+
+    /**
+     * Crea un elemento con la representación actual.
+     */
+    static Elemento compact(CsvRecord data, String[] texts) {
+        Elemento elemento = new Elemento();
+        elemento.setIdElemento(data.getInt(0));
+        elemento.setNombre(texts[0]);
+        elemento.setSimbolo(texts[1]);
+        elemento.setPeso(data.getDecimal(3));
+        elemento.setEnergia(texts[2]);
+        elemento.setEN(data.getDecimal(7));
+        elemento.setFusion(data.getDecimal(8));
+        elemento.setEbullicion(data.getDecimal(9));
+        elemento.setEA(data.getDecimal(10));
+        elemento.setIonizacion(data.getDecimal(11));
+        elemento.setRadio(data.getInt(12));
+        elemento.setDureza(data.getDecimal(13));
+        elemento.setModulo(data.getDecimal(14));
+        elemento.setDensidad(data.getDecimal(15));
+        elemento.setCond(data.getDecimal(16));
+        elemento.setCalor(data.getDecimal(17));
+        elemento.setAbundancia(data.getDecimal(18));
+        elemento.setDto(data.getInt(19));
+        return elemento;
+    }
+
+    /**
+     * Crea un elemento con la representación anterior, con los decimales con seis cifras
+     * como los devuelve la base de datos.
+     */
+    private static LegacyElemento legacy(CsvRecord data, String[] texts) {
+        LegacyElemento elemento = new LegacyElemento();
+        elemento.idElemento = data.getInt(0);
+        elemento.nombre = texts[0];
+        elemento.simbolo = texts[1];
+        elemento.peso = decimal(data, 3);
+        elemento.energia = texts[2];
+        elemento.EN = decimal(data, 7);
+        elemento.fusion = decimal(data, 8);
+        elemento.ebullicion = decimal(data, 9);
+        elemento.EA = decimal(data, 10);
+        elemento.ionizacion = decimal(data, 11);
+        elemento.radio = data.getInt(12);
+        elemento.dureza = decimal(data, 13);
+        elemento.modulo = decimal(data, 14);
+        elemento.densidad = decimal(data, 15);
+        elemento.Cond = decimal(data, 16);
+        elemento.calor = decimal(data, 17);
+        elemento.abundancia = decimal(data, 18);
+        elemento.dto = data.getInt(19);
+        return elemento;
+    }
+
+    private static BigDecimal decimal(CsvRecord data, int column) {
+        BigDecimal value = data.getDecimal(column);
+        return value == null ? null : value.setScale(6);
+    }
+
+    /**
+     * Obtiene la memoria ocupada del heap tras pasar el recolector de basura.
+     */
+    static long usedHeap() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    /**
+     * Lee todos los registros del archivo de elementos incluido en el proyecto.
+     */
+    static List<CsvRecord> readElementos() throws Exception {
+        List<CsvRecord> records = new ArrayList<>();
+        try (InputStream in = ElementoFootprintBenchmark.class.getResourceAsStream("/elementosQuimicos.csv");
+             TypedCsvReader reader = new TypedCsvReader(in, CsvParserBenchmark.ELEMENTOS)) {
+            CsvRecord record;
+            while ((record = reader.next()) != null) {
+                records.add(record.detach());
+            }
+        }
+        return records;
+    }
+
+    /**
+     * Mismos campos que tenía {@link Elemento} antes de guardar las propiedades decimales en millonésimas.
+     */
+    @SuppressWarnings("unused")
+    private static class LegacyElemento {
+        int idElemento;
+        String nombre;
+        String simbolo;
+        BigDecimal peso;
+        Object idSerie;
+        Object idEstado;
+        String energia;
+        BigDecimal EN;
+        BigDecimal fusion;
+        BigDecimal ebullicion;
+        BigDecimal EA;
+        BigDecimal ionizacion;
+        int radio;
+        BigDecimal dureza;
+        BigDecimal modulo;
+        BigDecimal densidad;
+        BigDecimal Cond;
+        BigDecimal calor;
+        BigDecimal abundancia;
+        int dto;
+        Set<Object> compuestos;
+    }
+}
@@ -0,0 +1,299 @@
+package benchmark;
+
+import model.CompuestoElemento;
+import model.CompuestoElementoRow;
+import model.Elemento;
+import model.ElementoRow;
+import org.hibernate.annotations.QueryHints;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+import javax.persistence.TypedQuery;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * La clase ProjectionBenchmark compara los listados de las tablas CompuestoElemento y elementos leídos como entidades,
+ * como se hacía antes, con los mismos listados leídos como proyecciones ({@link CompuestoElementoRow} y
+ * {@link ElementoRow}), que no crean entidades ni las guardan en el contexto de persistencia.
+ * Cada tabla se recorre entera por páginas a partir de la última clave, igual que los listados, leyendo de cada fila
+ * las mismas columnas que se muestran. Para cada forma de leer se mide:
+ * <ul>
+ *     <li>el tiempo de recorrer la tabla, la mediana de varias repeticiones;</li>
+ *     <li>los bytes que se reservan en el heap por fila al recorrerla, con el contador de cada hilo de la JVM;</li>
+ *     <li>los bytes que quedan ocupados por fila mientras los EntityManager tienen abiertas consultas con un número
+ *     de filas dado, medidos tras el recolector de basura.</li>
+ * </ul>
+ * Se utiliza la unidad de persistencia de la aplicación con las tablas ya cargadas, por ejemplo con los archivos de
+ * {@link SyntheticDataGenerator}. Las propiedades de conexión se pueden cambiar con propiedades del sistema
+ * ({@code -Djavax.persistence.jdbc.url=...}); todas las que empiezan por {@code javax.persistence.} o
+ * {@code hibernate.} se pasan a la unidad de persistencia.
+ *
+ * Uso: {@code ProjectionBenchmark [repeticiones] [filas retenidas]}, por defecto 5 y 100000.
+ */
+public class ProjectionBenchmark {
+
+    /**
+     * Número de filas de cada página, como en {@code ListOptions} pero mayor para que pese menos cada consulta.
+     */
+    private static final int PAGE_SIZE = 1000;
+
+    /**
+     * Resultado de la medida en curso, para que el recolector no lo libere antes de medir.
+     */
+    private static Object retained;
+
+    public static void main(String[] args) {
+        int repetitions = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        int retainedRows = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+        EntityManagerFactory entityManagerFactory = Persistence.createEntityManagerFactory("JPAElementos", overrides());
+
+        try {
+            compare(entityManagerFactory, repetitions, retainedRows,
+                    new Variant<>("Entidad CompuestoElemento", CompuestoElemento.class,
+                            "SELECT x FROM CompuestoElemento x LEFT JOIN FETCH x.idCompuesto LEFT JOIN FETCH x.idElemento",
+                            "id", CompuestoElemento::getId, ProjectionBenchmark::checksum),
+                    new Variant<>("CompuestoElementoRow", CompuestoElementoRow.class, CompuestoElementoRow.SELECT,
+                            "id", CompuestoElementoRow::id, ProjectionBenchmark::checksum));
+            compare(entityManagerFactory, repetitions, retainedRows,
+                    new Variant<>("Entidad Elemento", Elemento.class,
+                            "SELECT x FROM Elemento x LEFT JOIN FETCH x.idSerie LEFT JOIN FETCH x.idEstado",
+                            "idElemento", e -> (int) e.getIdElemento(), ProjectionBenchmark::checksum),
+                    new Variant<>("ElementoRow", ElementoRow.class, ElementoRow.SELECT,
+                            "idElemento", ElementoRow::idElemento, ProjectionBenchmark::checksum));
+        } finally {
+            entityManagerFactory.close();
+        }
+    }
+
+    /**
+     * Mide las dos formas de leer una tabla y muestra el resultado.
+     */
+    private static void compare(EntityManagerFactory entityManagerFactory, int repetitions, int retainedRows,
+                                Variant<?> entity, Variant<?> projection) {
+        // Pasada de calentamiento para que las consultas y el código estén compilados antes de medir.
+        Scan entityScan = scan(entityManagerFactory, entity);
+        Scan projectionScan = scan(entityManagerFactory, projection);
+        if (entityScan.rows != projectionScan.rows || entityScan.checksum != projectionScan.checksum) {
+            throw new IllegalStateException("Las dos consultas no devuelven las mismas filas");
+        }
+
+        Result before = measure(entityManagerFactory, entity, repetitions, retainedRows);
+        Result after = measure(entityManagerFactory, projection, repetitions, retainedRows);
+        System.out.printf("Filas: %,d%n", entityScan.rows);
+        System.out.printf("%-26s %12s %18s %18s%n", "", "ms/recorrido", "bytes reservados", "bytes retenidos");
+        print(entity.name, before);
+        print(projection.name, after);
+        System.out.printf("%-26s %11.1fx %17.1fx %17.1fx%n%n", "Mejora", before.millis / after.millis,
+                before.allocated / after.allocated, before.retained / after.retained);
+    }
+
+    /**
+     * Recorre la tabla varias veces y mide una consulta grande con una forma de leer.
+     */
+    private static Result measure(EntityManagerFactory entityManagerFactory, Variant<?> variant, int repetitions,
+                                  int retainedRows) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        double[] millis = new double[repetitions];
+        long allocated = 0;
+        long rows = 0;
+
+        for (int i = 0; i < repetitions; i++) {
+            long bytes = threads.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+            Scan scan = scan(entityManagerFactory, variant);
+            millis[i] = (System.nanoTime() - start) / 1e6;
+            allocated += threads.getCurrentThreadAllocatedBytes() - bytes;
+            rows += scan.rows;
+        }
+        Arrays.sort(millis);
+        return new Result(millis[repetitions / 2], (double) allocated / rows, retained(entityManagerFactory, variant, retainedRows));
+    }
+
+    /**
+     * Recorre la tabla entera por páginas, vaciando el contexto de persistencia tras cada una como los listados.
+     */
+    private static <T> Scan scan(EntityManagerFactory entityManagerFactory, Variant<T> variant) {
+        EntityManager em = entityManagerFactory.createEntityManager();
+        long rows = 0;
+        long checksum = 0;
+        Object lastId = null;
+        List<T> page;
+
+        try {
+            do {
+                TypedQuery<T> query = em.createQuery(variant.select
+                                + (lastId == null ? "" : " WHERE x." + variant.idAttribute + " > :ultimo")
+                                + " ORDER BY x." + variant.idAttribute, variant.rowType)
+                        .setHint(QueryHints.READ_ONLY, true)
+                        .setMaxResults(PAGE_SIZE);
+                if (lastId != null) {
+                    query.setParameter("ultimo", lastId);
+                }
+                page = query.getResultList();
+                for (T row : page) {
+                    checksum = checksum * 31 + variant.checksum.applyAsLong(row);
+                }
+                rows += page.size();
+                if (!page.isEmpty()) {
+                    lastId = variant.idOf.apply(page.get(page.size() - 1));
+                }
+                em.clear();
+            } while (page.size() == PAGE_SIZE);
+        } finally {
+            em.close();
+        }
+        return new Scan(rows, checksum);
+    }
+
+    /**
+     * Obtiene los bytes por fila que quedan ocupados mientras los EntityManager tienen abierta una consulta
+     * de hasta {@code retainedRows} filas: las filas y, con entidades, todo lo que guarda el contexto de persistencia.
+     * Si la tabla tiene menos filas, se repite la consulta con otros EntityManager hasta retener ese número de filas,
+     * para que la medida no dependa del ruido del recolector.
+     */
+    private static double retained(EntityManagerFactory entityManagerFactory, Variant<?> variant, int retainedRows) {
+        List<EntityManager> managers = new ArrayList<>();
+        List<List<?>> results = new ArrayList<>();
+        long rows = 0;
+
+        try {
+            long start = ElementoFootprintBenchmark.usedHeap();
+            while (rows < retainedRows) {
+                EntityManager em = entityManagerFactory.createEntityManager();
+                managers.add(em);
+                List<?> result = em.createQuery(variant.select + " ORDER BY x." + variant.idAttribute, variant.rowType)
+                        .setHint(QueryHints.READ_ONLY, true)
+                        .setMaxResults((int) (retainedRows - rows))
+                        .getResultList();
+                if (result.isEmpty()) {
+                    break;
+                }
+                results.add(result);
+                rows += result.size();
+            }
+            retained = results;
+            long end = ElementoFootprintBenchmark.usedHeap();
+            retained = null;
+            return (double) (end - start) / Math.max(1, rows);
+        } finally {
+            managers.forEach(EntityManager::close);
+        }
+    }
+
+    /**
+     * Obtiene las propiedades del sistema que se pasan a la unidad de persistencia.
+     */
+    private static Map<String, Object> overrides() {
+        Map<String, Object> properties = new HashMap<>();
+        for (String name : System.getProperties().stringPropertyNames()) {
+            if (name.startsWith("javax.persistence.") || name.startsWith("hibernate.")) {
+                properties.put(name, System.getProperty(name));
+            }
+        }
+        return properties;
+    }
+
+    /**
+     * Combina las columnas del listado de una relación compuesto-elemento.
+     */
+    private static long checksum(CompuestoElemento row) {
+        return Objects.hash(row.getId(), row.getIdCompuesto().getIdCompuesto(), row.getNombreC(),
+                row.getIdElemento().getIdElemento(), row.getSimbolo(), row.getSubindice());
+    }
+
+    private static long checksum(CompuestoElementoRow row) {
+        return Objects.hash(row.id(), (long) row.idCompuesto(), row.nombreC(), (long) row.idElemento(), row.simbolo(),
+                row.subindice());
+    }
+
+    /**
+     * Combina las columnas del listado de un elemento; los decimales se comparan sin ceros a la derecha.
+     */
+    private static long checksum(Elemento row) {
+        return Objects.hash(row.getIdElemento(), row.getNombre(), row.getSimbolo(), decimal(row.getPeso()),
+                row.getIdSerie().getIdSerie(), row.getIdEstado().getIdEstado(), row.getEnergia(), decimal(row.getEN()),
+                decimal(row.getFusion()), decimal(row.getEbullicion()), decimal(row.getEA()),
+                decimal(row.getIonizacion()), row.getRadio(), decimal(row.getDureza()), decimal(row.getModulo()),
+                decimal(row.getDensidad()), decimal(row.getCond()), decimal(row.getCalor()),
+                decimal(row.getAbundancia()), row.getDto());
+    }
+
+    private static long checksum(ElementoRow row) {
+        return Objects.hash((long) row.idElemento(), row.nombre(), row.simbolo(), decimal(row.peso()),
+                (long) row.idSerie(), (long) row.idEstado(), row.energia(), decimal(row.EN()), decimal(row.fusion()),
+                decimal(row.ebullicion()), decimal(row.EA()), decimal(row.ionizacion()), row.radio(),
+                decimal(row.dureza()), decimal(row.modulo()), decimal(row.densidad()), decimal(row.cond()),
+                decimal(row.calor()), decimal(row.abundancia()), row.dto());
+    }
+
+    private static BigDecimal decimal(BigDecimal value) {
+        return value == null ? null : value.stripTrailingZeros();
+    }
+
+    /**
+     * Muestra el resultado de una forma de leer.
+     */
+    private static void print(String name, Result result) {
+        System.out.printf("%-26s %,12.1f %,18.1f %,18.1f%n", name, result.millis, result.allocated, result.retained);
+    }
+
+    /**
+     * Forma de leer una tabla: la consulta, su clave primaria y cómo combinar las columnas del listado de cada fila.
+     */
+    private static final class Variant<T> {
+        private final String name;
+        private final Class<T> rowType;
+        private final String select;
+        private final String idAttribute;
+        private final Function<T, ?> idOf;
+        private final ToLongFunction<T> checksum;
+
+        Variant(String name, Class<T> rowType, String select, String idAttribute, Function<T, ?> idOf,
+                ToLongFunction<T> checksum) {
+            this.name = name;
+            this.rowType = rowType;
+            this.select = select;
+            this.idAttribute = idAttribute;
+            this.idOf = idOf;
+            this.checksum = checksum;
+        }
+    }
+
+    /**
+     * Filas recorridas y combinación de sus columnas, para comprobar que las dos consultas devuelven lo mismo.
+     */
+    private static final class Scan {
+        private final long rows;
+        private final long checksum;
+
+        Scan(long rows, long checksum) {
+            this.rows = rows;
+            this.checksum = checksum;
+        }
+    }
+
+    /**
+     * Resultado de una forma de leer: mediana de milisegundos por recorrido y bytes por fila.
+     */
+    private static final class Result {
+        private final double millis;
+        private final double allocated;
+        private final double retained;
+
+        Result(double millis, double allocated, double retained) {
+            this.millis = millis;
+            this.allocated = allocated;
+            this.retained = retained;
+        }
+    }
+}
@@ -0,0 +1,409 @@
+package benchmark;
+
+import com.opencsv.CSVReader;
+import com.opencsv.CSVWriter;
+import com.opencsv.exceptions.CsvException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.stream.Stream;
+
+/**
+ * La clase SyntheticDataGenerator genera archivos CSV de elementos, compuestos y relaciones entre ellos con el
+ * mismo formato que los incluidos en el proyecto pero con el tamaño que se quiera, para probar las cargas y las
+ * consultas con volúmenes reales.
+ * Las distribuciones se obtienen de los archivos del proyecto: la proporción de campos vacíos de cada columna,
+ * el rango de cada columna numérica, la frecuencia con que aparece cada elemento en los compuestos, el número de
+ * elementos por compuesto y los subíndices. Con la misma semilla se generan siempre los mismos archivos.
+ * Los registros se escriben a medida que se generan, de modo que el tamaño de los archivos no depende de la memoria;
+ * solo se guardan en memoria los símbolos y pesos de los elementos.
+ *
+ * Uso: {@code SyntheticDataGenerator [directorio] [compuestos] [elementos] [semilla]}.
+ */
+public class SyntheticDataGenerator {
+
+    /**
+     * Número de compuestos por defecto.
+     */
+    public static final long DEFAULT_COMPUESTOS = 1_000_000;
+
+    /**
+     * Número de elementos por defecto, los mismos que en el archivo del proyecto.
+     */
+    public static final int DEFAULT_ELEMENTOS = 118;
+
+    /**
+     * Archivos de series y estados, que se copian sin cambios para que el directorio pueda cargarse entero.
+     */
+    private static final String[] COPIED = {"seriesDeElementos.csv", "estadosDeElementos.csv"};
+
+    /**
+     * Columnas del archivo de elementos que se generan a partir de las originales; las tres primeras
+     * (identificador, nombre y símbolo) se generan aparte.
+     */
+    private static final int FIRST_GENERATED_COLUMN = 3;
+
+    /**
+     * Semilla de los números aleatorios.
+     */
+    private final long seed;
+
+    /**
+     * Número de elementos que se generan.
+     */
+    private int elementos = DEFAULT_ELEMENTOS;
+
+    /**
+     * Número de compuestos que se generan.
+     */
+    private long compuestos = DEFAULT_COMPUESTOS;
+
+    /**
+     * Registros del archivo de elementos del proyecto.
+     */
+    private final List<String[]> elementosOriginales;
+
+    /**
+     * Registros del archivo de compuestos del proyecto.
+     */
+    private final List<String[]> compuestosOriginales;
+
+    /**
+     * Registros del archivo de relaciones del proyecto.
+     */
+    private final List<String[]> relacionesOriginales;
+
+    /**
+     * Crea un generador con la semilla proporcionada a partir de los archivos del proyecto.
+     *
+     * @param seed Semilla de los números aleatorios.
+     * @throws IOException Si no se pueden leer los archivos del proyecto.
+     */
+    public SyntheticDataGenerator(long seed) throws IOException {
+        this.seed = seed;
+        this.elementosOriginales = readResource("/elementosQuimicos.csv");
+        this.compuestosOriginales = readResource("/compuestosQuimicos.csv");
+        this.relacionesOriginales = readResource("/compuestosPorElementos.csv");
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path directory = Paths.get(args.length > 0 ? args[0] : "datos-sinteticos");
+        SyntheticDataGenerator generator = new SyntheticDataGenerator(args.length > 3 ? Long.parseLong(args[3]) : 42);
+        if (args.length > 1) {
+            generator.setCompuestos(Long.parseLong(args[1]));
+        }
+        if (args.length > 2) {
+            generator.setElementos(Integer.parseInt(args[2]));
+        }
+
+        long start = System.nanoTime();
+        generator.generate(directory);
+        System.out.printf("Archivos generados en %s en %d ms%n", directory.toAbsolutePath(),
+                (System.nanoTime() - start) / 1_000_000);
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files.sorted()::iterator) {
+                System.out.printf("%-30s %,15d bytes%n", file.getFileName(), Files.size(file));
+            }
+        }
+    }
+
+    /**
+     * Obtiene el número de elementos que se generan.
+     *
+     * @return El número de elementos.
+     */
+    public int getElementos() {
+        return elementos;
+    }
+
+    /**
+     * Establece el número de elementos que se generan. Los {@value #DEFAULT_ELEMENTOS} primeros tienen el nombre
+     * y el símbolo de los elementos reales; el resto, un nombre y un símbolo inventados que no coinciden con ellos.
+     *
+     * @param elementos El número de elementos.
+     * @throws IllegalArgumentException Si el valor no es positivo.
+     */
+    public void setElementos(int elementos) {
+        if (elementos < 1) {
+            throw new IllegalArgumentException("El número de elementos debe ser positivo: " + elementos);
+        }
+        this.elementos = elementos;
+    }
+
+    /**
+     * Obtiene el número de compuestos que se generan.
+     *
+     * @return El número de compuestos.
+     */
+    public long getCompuestos() {
+        return compuestos;
+    }
+
+    /**
+     * Establece el número de compuestos que se generan.
+     *
+     * @param compuestos El número de compuestos.
+     * @throws IllegalArgumentException Si el valor es negativo.
+     */
+    public void setCompuestos(long compuestos) {
+        if (compuestos < 0) {
+            throw new IllegalArgumentException("El número de compuestos no puede ser negativo: " + compuestos);
+        }
+        this.compuestos = compuestos;
+    }
+
+    /**
+     * Genera los archivos de elementos, compuestos y relaciones en el directorio proporcionado, con los mismos
+     * nombres que en el proyecto, y copia en él los de series y estados.
+     *
+     * @param directory Directorio de salida; se crea si no existe y se sobrescriben los archivos que ya estén.
+     * @throws IOException Si no se pueden escribir los archivos.
+     */
+    public void generate(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        SplittableRandom random = new SplittableRandom(seed);
+
+        String[] simbolos = new String[elementos + 1];
+        double[] pesos = new double[elementos + 1];
+        try (CSVWriter writer = newWriter(directory.resolve("elementosQuimicos.csv"))) {
+            generateElementos(writer, random.split(), simbolos, pesos);
+        }
+        try (CSVWriter compuestosWriter = newWriter(directory.resolve("compuestosQuimicos.csv"));
+             CSVWriter relacionesWriter = newWriter(directory.resolve("compuestosPorElementos.csv"))) {
+            generateCompuestos(compuestosWriter, relacionesWriter, random.split(), simbolos, pesos);
+        }
+        for (String name : COPIED) {
+            try (InputStream in = resource("/" + name)) {
+                Files.copy(in, directory.resolve(name), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+    }
+
+    /**
+     * Escribe los elementos y guarda el símbolo y el peso de cada uno para generar los compuestos.
+     * Cada columna está vacía con la misma probabilidad que en el archivo original; las numéricas toman un valor
+     * al azar dentro de su rango original y el resto, el valor de un elemento original al azar.
+     */
+    private void generateElementos(CSVWriter writer, SplittableRandom random, String[] simbolos, double[] pesos) {
+        int columns = elementosOriginales.get(0).length;
+        ColumnProfile[] profiles = new ColumnProfile[columns];
+        for (int c = FIRST_GENERATED_COLUMN; c < columns; c++) {
+            profiles[c] = new ColumnProfile(elementosOriginales, c);
+        }
+
+        String[] line = new String[columns];
+        for (int id = 1; id <= elementos; id++) {
+            String[] original = id <= elementosOriginales.size() ? elementosOriginales.get(id - 1) : null;
+            line[0] = Integer.toString(id);
+            line[1] = original != null ? original[1] : "Elemento " + id;
+            // Los símbolos inventados tienen al menos tres caracteres, por lo que no coinciden con ningún símbolo real.
+            line[2] = original != null ? original[2] : "X" + Integer.toString(id, 36);
+            for (int c = FIRST_GENERATED_COLUMN; c < columns; c++) {
+                line[c] = profiles[c].next(random, elementosOriginales);
+            }
+            simbolos[id] = line[2];
+            pesos[id] = line[3].isEmpty() ? 0 : Double.parseDouble(line[3]);
+            writer.writeNext(line, false);
+        }
+    }
+
+    /**
+     * Escribe los compuestos y sus relaciones con los elementos a la vez, de modo que la fórmula de cada compuesto
+     * coincide con sus relaciones. Los elementos de cada compuesto se eligen con la frecuencia con que aparecen
+     * en las relaciones originales.
+     */
+    private void generateCompuestos(CSVWriter compuestosWriter, CSVWriter relacionesWriter, SplittableRandom random,
+                                    String[] simbolos, double[] pesos) {
+        Map<String, Integer> elementosPorCompuesto = new HashMap<>();
+        int[] frecuencias = new int[elementos + 1];
+        String[] subindices = new String[relacionesOriginales.size()];
+        for (int i = 0; i < relacionesOriginales.size(); i++) {
+            String[] relacion = relacionesOriginales.get(i);
+            elementosPorCompuesto.merge(relacion[0], 1, Integer::sum);
+            int elemento = Integer.parseInt(relacion[2]);
+            if (elemento <= elementos) {
+                frecuencias[elemento]++;
+            }
+            subindices[i] = relacion[4];
+        }
+        int[] tamanos = elementosPorCompuesto.values().stream().mapToInt(Integer::intValue).toArray();
+        double conRelaciones = (double) elementosPorCompuesto.size() / compuestosOriginales.size();
+        ColumnProfile masaSinRelaciones = new ColumnProfile(compuestosOriginales, 3);
+        ColumnProfile drc = new ColumnProfile(compuestosOriginales, 4);
+
+        // Frecuencias acumuladas, sumando 1 a cada elemento para que también aparezcan los que no tienen relaciones.
+        long[] acumuladas = new long[elementos + 1];
+        for (int id = 1; id <= elementos; id++) {
+            acumuladas[id] = acumuladas[id - 1] + frecuencias[id] + 1;
+        }
+
+        String[] compuesto = new String[5];
+        String[] relacion = new String[5];
+        StringBuilder formula = new StringBuilder();
+        for (long id = 1; id <= compuestos; id++) {
+            String nombre = "Compuesto " + id;
+            int size = random.nextDouble() < conRelaciones ? Math.min(tamanos[random.nextInt(tamanos.length)], elementos) : 0;
+            int[] elegidos = chooseElementos(random, acumuladas, size);
+            formula.setLength(0);
+            double masa = 0;
+
+            relacion[0] = Long.toString(id);
+            relacion[1] = nombre;
+            for (int elemento : elegidos) {
+                // Los subíndices vacíos, que también aparecen en el archivo original, cuentan como 1.
+                String subindice = subindices[random.nextInt(subindices.length)];
+                int cantidad = subindice.isEmpty() ? 1 : Integer.parseInt(subindice);
+                formula.append(simbolos[elemento]);
+                if (cantidad != 1) {
+                    formula.append(cantidad);
+                }
+                masa += pesos[elemento] * cantidad;
+
+                relacion[2] = Integer.toString(elemento);
+                relacion[3] = simbolos[elemento];
+                relacion[4] = subindice;
+                relacionesWriter.writeNext(relacion, false);
+            }
+
+            compuesto[0] = Long.toString(id);
+            compuesto[1] = nombre;
+            compuesto[2] = formula.length() > 0 ? formula.toString() : simbolos[1 + random.nextInt(elementos)];
+            compuesto[3] = size > 0 ? String.format(Locale.ROOT, "%.3f", masa) : masaSinRelaciones.next(random, compuestosOriginales);
+            compuesto[4] = drc.next(random, compuestosOriginales);
+            compuestosWriter.writeNext(compuesto, false);
+        }
+    }
+
+    /**
+     * Elige elementos distintos al azar con la frecuencia indicada por las frecuencias acumuladas.
+     */
+    private static int[] chooseElementos(SplittableRandom random, long[] acumuladas, int size) {
+        int[] elegidos = new int[size];
+        long total = acumuladas[acumuladas.length - 1];
+
+        for (int i = 0; i < size; i++) {
+            int elemento;
+            do {
+                long value = random.nextLong(total);
+                int position = Arrays.binarySearch(acumuladas, value + 1);
+                elemento = position >= 0 ? position : -position - 1;
+            } while (contains(elegidos, i, elemento));
+            elegidos[i] = elemento;
+        }
+        return elegidos;
+    }
+
+    private static boolean contains(int[] values, int length, int value) {
+        for (int i = 0; i < length; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Crea un escritor CSV en UTF-8 que solo pone comillas a los campos que las necesitan, como los archivos originales.
+     */
+    private static CSVWriter newWriter(Path file) throws IOException {
+        Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+        return new CSVWriter(writer, CSVWriter.DEFAULT_SEPARATOR, CSVWriter.DEFAULT_QUOTE_CHARACTER,
+                CSVWriter.DEFAULT_QUOTE_CHARACTER, "\n");
+    }
+
+    private static InputStream resource(String name) throws IOException {
+        InputStream in = SyntheticDataGenerator.class.getResourceAsStream(name);
+        if (in == null) {
+            throw new IOException("No se encuentra el recurso: " + name);
+        }
+        return in;
+    }
+
+    private static List<String[]> readResource(String name) throws IOException {
+        try (CSVReader reader = new CSVReader(new BufferedReader(new InputStreamReader(resource(name), StandardCharsets.UTF_8)))) {
+            return new ArrayList<>(reader.readAll());
+        } catch (CsvException e) {
+            throw new IOException("El recurso " + name + " no es un CSV válido", e);
+        }
+    }
+
+    /**
+     * Características de una columna de un archivo original: la proporción de valores vacíos y, si todos sus
+     * valores son números, su rango y su número de decimales.
+     */
+    private static class ColumnProfile {
+        final int column;
+        final double emptyRatio;
+        final boolean numeric;
+        final double min;
+        final double max;
+        final int decimals;
+
+        ColumnProfile(List<String[]> rows, int column) {
+            int empty = 0;
+            boolean isNumeric = true;
+            double lowest = Double.POSITIVE_INFINITY;
+            double highest = Double.NEGATIVE_INFINITY;
+            int maxDecimals = 0;
+
+            for (String[] row : rows) {
+                String value = row[column];
+                if (value.isEmpty()) {
+                    empty++;
+                    continue;
+                }
+                try {
+                    double number = Double.parseDouble(value);
+                    lowest = Math.min(lowest, number);
+                    highest = Math.max(highest, number);
+                    int point = value.indexOf('.');
+                    maxDecimals = Math.max(maxDecimals, point < 0 ? 0 : value.length() - point - 1);
+                } catch (NumberFormatException e) {
+                    isNumeric = false;
+                }
+            }
+            this.column = column;
+            this.emptyRatio = (double) empty / rows.size();
+            this.numeric = isNumeric && lowest <= highest;
+            this.min = lowest;
+            this.max = highest;
+            // Las cargas guardan tres decimales, así que no tiene sentido generar más.
+            this.decimals = Math.min(maxDecimals, 3);
+        }
+
+        /**
+         * Genera un valor de la columna.
+         */
+        String next(SplittableRandom random, List<String[]> rows) {
+            if (random.nextDouble() < emptyRatio) {
+                return "";
+            }
+            if (!numeric) {
+                String value;
+                do {
+                    value = rows.get(random.nextInt(rows.size()))[column];
+                } while (value.isEmpty());
+                return value;
+            }
+            if (decimals == 0) {
+                return Long.toString((long) min + random.nextLong((long) max - (long) min + 1));
+            }
+            return String.format(Locale.ROOT, "%." + decimals + "f", min + random.nextDouble() * (max - min));
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package benchmark;
+
+import controller.CsvRecord;
+import model.Elemento;
+import model.Estado;
+import model.Serie;
+import view.TableRenderer;
+import view.TableRenderer.Column;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+
+/**
+ * La clase TableRendererBenchmark compara el listado de la tabla elementos escrito fila a fila con {@code printf}
+ * sobre un {@link PrintStream} que vacía cada línea, como {@code System.out}, con el mismo listado escrito con
+ * {@link TableRenderer}. Como referencia, mide también el tiempo de copiar el archivo resultante, que es el
+ * límite que impone la escritura.
+ * Los elementos se crean a partir del archivo de elementos incluido en el proyecto y el listado se escribe
+ * en archivos temporales.
+ *
+ * Uso: {@code TableRendererBenchmark [filas]}, por defecto 200000; con printf un millón de filas tarda varios minutos.
+ */
+public class TableRendererBenchmark {
+
+    /**
+     * Formato de cada fila, el que utilizaba {@code ElementoController} antes de {@link TableRenderer}.
+     */
+    private static final String FORMAT = "%-22d %-22s %-22s %-22.4f %-22d %-22d %-22s %-22.4f %-22.4f %-22.4f %-22.4f "
+            + "%-22.4f %-22d %-22.4f %-22.4f %-22.4f %-22.4f %-22.4f %-22.4f %-22d%n";
+
+    /**
+     * Columnas de la tabla, las mismas que las del listado de {@code ElementoController}.
+     */
+    private static final Column[] COLUMNS = {
+            new Column("id_elemento", 22), new Column("Nombre", 22), new Column("Símbolo", 22),
+            new Column("Peso", 22, 4), new Column("id_Serie", 22), new Column("id_Estado", 22),
+            new Column("Energía", 22), new Column("EN", 22, 4), new Column("Fusión", 22, 4),
+            new Column("Ebullición", 22, 4), new Column("EA", 22, 4), new Column("Ionización", 22, 4),
+            new Column("Radio", 22), new Column("Dureza", 22, 4), new Column("Módulo", 22, 4),
+            new Column("Densidad", 22, 4), new Column("Cond", 22, 4), new Column("Calor", 22, 4),
+            new Column("Abundancia", 22, 4), new Column("Dto", 22)
+    };
+
+    public static void main(String[] args) throws Exception {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        Elemento[] elementos = createElementos();
+        Path printf = Files.createTempFile("printf", ".txt");
+        Path renderer = Files.createTempFile("renderer", ".txt");
+        Path copy = Files.createTempFile("copia", ".txt");
+
+        try {
+            // Pasada de calentamiento para que el compilador optimice los dos métodos antes de medir.
+            writePrintf(printf, elementos, 50_000);
+            writeRenderer(renderer, elementos, 50_000);
+
+            long printfNanos = time(() -> writePrintf(printf, elementos, rows));
+            long rendererNanos = time(() -> writeRenderer(renderer, elementos, rows));
+            long copyNanos = time(() -> Files.copy(renderer, copy, StandardCopyOption.REPLACE_EXISTING));
+
+            long bytes = Files.size(renderer);
+            System.out.printf("Filas: %,d (%,d bytes)%n", rows, bytes);
+            print("printf", rows, bytes, printfNanos);
+            print("TableRenderer", rows, bytes, rendererNanos);
+            print("Copia del archivo", rows, bytes, copyNanos);
+        } finally {
+            Files.deleteIfExists(printf);
+            Files.deleteIfExists(renderer);
+            Files.deleteIfExists(copy);
+        }
+    }
+
+    /**
+     * Escribe el listado con printf, vaciando cada línea como {@code System.out}.
+     */
+    private static void writePrintf(Path file, Elemento[] elementos, int rows) throws IOException {
+        try (PrintStream out = new PrintStream(new FileOutputStream(file.toFile()), true)) {
+            for (int i = 0; i < rows; i++) {
+                Elemento e = elementos[i % elementos.length];
+                out.printf(FORMAT, e.getIdElemento(), e.getNombre(), e.getSimbolo(), e.getPeso(),
+                        e.getIdSerie().getIdSerie(), e.getIdEstado().getIdEstado(), e.getEnergia(), e.getEN(),
+                        e.getFusion(), e.getEbullicion(), e.getEA(), e.getIonizacion(), e.getRadio(), e.getDureza(),
+                        e.getModulo(), e.getDensidad(), e.getCond(), e.getCalor(), e.getAbundancia(), e.getDto());
+            }
+        }
+    }
+
+    /**
+     * Escribe el listado con {@link TableRenderer}.
+     */
+    private static void writeRenderer(Path file, Elemento[] elementos, int rows) throws IOException {
+        try (TableRenderer table = new TableRenderer(file, COLUMNS)) {
+            for (int i = 0; i < rows; i++) {
+                Elemento e = elementos[i % elementos.length];
+                table.integer(e.getIdElemento()).text(e.getNombre()).text(e.getSimbolo()).decimal(e.getPeso())
+                        .integer(e.getIdSerie().getIdSerie()).integer(e.getIdEstado().getIdEstado())
+                        .text(e.getEnergia()).decimal(e.getEN()).decimal(e.getFusion()).decimal(e.getEbullicion())
+                        .decimal(e.getEA()).decimal(e.getIonizacion()).integer(e.getRadio()).decimal(e.getDureza())
+                        .decimal(e.getModulo()).decimal(e.getDensidad()).decimal(e.getCond()).decimal(e.getCalor())
+                        .decimal(e.getAbundancia()).integer(e.getDto())
+                        .endRow();
+            }
+        }
+    }
+
+    /**
+     * Crea un elemento por cada fila del archivo de elementos incluido en el proyecto.
+     */
+    private static Elemento[] createElementos() throws Exception {
+        List<CsvRecord> records = ElementoFootprintBenchmark.readElementos();
+        Elemento[] elementos = new Elemento[records.size()];
+        for (int i = 0; i < elementos.length; i++) {
+            CsvRecord record = records.get(i);
+            elementos[i] = ElementoFootprintBenchmark.compact(record,
+                    new String[] {record.getText(1), record.getText(2), record.getText(6)});
+            elementos[i].setIdSerie(new Serie(record.getInt(4), null));
+            elementos[i].setIdEstado(new Estado(record.getInt(5), null));
+        }
+        return elementos;
+    }
+
+    /**
+     * Muestra el resultado de una medida.
+     */
+    private static void print(String name, int rows, long bytes, long nanos) {
+        System.out.printf("%-18s %,10d ms %,12.0f filas/s %,8.1f MB/s%n",
+                name, nanos / 1_000_000, rows * 1e9 / nanos, bytes * 1e3 / nanos);
+    }
+
+    /**
+     * Mide el tiempo de una tarea.
+     */
+    private static long time(Task task) throws IOException {
+        long start = System.nanoTime();
+        task.run();
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Tarea medida.
+     */
+    private interface Task {
+        void run() throws IOException;
+    }
+}
@@ -0,0 +1,345 @@
+package controller;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * La clase BatchOptions agrupa los parámetros de la carga por lotes de un archivo CSV.
+ * Se utiliza en {@link SuperController#readCsv(String, BatchOptions)} para indicar cada cuántos registros
+ * se envía un lote JDBC a la base de datos y cada cuántos registros se confirma la transacción.
+ */
+public class BatchOptions {
+
+    /**
+     * Tamaño de lote JDBC por defecto.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 50;
+
+    /**
+     * Número de registros por transacción por defecto.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 5000;
+
+    /**
+     * Número de reintentos por defecto de un bloque fallido en la carga en paralelo.
+     */
+    public static final int DEFAULT_MAX_RETRIES = 2;
+
+    /**
+     * Número de lotes por defecto que caben en cada cola de la carga por etapas.
+     */
+    public static final int DEFAULT_QUEUE_CAPACITY = 16;
+
+    /**
+     * Segundos por defecto entre cada informe de progreso de una carga.
+     */
+    public static final int DEFAULT_REPORT_INTERVAL = 10;
+
+    /**
+     * Directorio por defecto de los archivos de cuarentena.
+     */
+    public static final String DEFAULT_QUARANTINE_DIR = "rechazos";
+
+    /**
+     * Número de sentencias INSERT que Hibernate agrupa en un mismo lote JDBC.
+     * También indica cada cuántos registros se hace flush() y clear() del contexto de persistencia.
+     */
+    private int batchSize;
+
+    /**
+     * Número de registros que se confirman en cada transacción.
+     */
+    private int chunkSize;
+
+    /**
+     * Número de hilos que cargan bloques a la vez en la carga en paralelo.
+     */
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Número de veces que se reintenta un bloque fallido en la carga en paralelo.
+     */
+    private int maxRetries = DEFAULT_MAX_RETRIES;
+
+    /**
+     * Número de lotes que caben en cada cola entre las etapas de la carga por etapas.
+     */
+    private int queueCapacity = DEFAULT_QUEUE_CAPACITY;
+
+    /**
+     * Ejecutor de las tareas de la carga por etapas, o null para utilizar uno propio.
+     */
+    private ExecutorService pipelineExecutor;
+
+    /**
+     * Indica si el archivo se lee con el lector tipado {@link TypedCsvReader} en lugar de OpenCSV.
+     */
+    private boolean typedParser;
+
+    /**
+     * Indica si el archivo se lee proyectándolo en memoria con {@link MappedCsvReader}.
+     */
+    private boolean memoryMapped;
+
+    /**
+     * Directorio en el que se guardan los registros rechazados de cada tabla.
+     */
+    private Path quarantineDir = Paths.get(DEFAULT_QUARANTINE_DIR);
+
+    /**
+     * Segundos entre cada informe de progreso de la carga, o 0 para no mostrarlo.
+     */
+    private int reportInterval = DEFAULT_REPORT_INTERVAL;
+
+    /**
+     * Crea unas opciones de carga con los valores por defecto.
+     */
+    public BatchOptions() {
+        this(DEFAULT_BATCH_SIZE, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Crea unas opciones de carga con los valores proporcionados.
+     *
+     * @param batchSize Número de INSERT por lote JDBC.
+     * @param chunkSize Número de registros por transacción.
+     * @throws IllegalArgumentException Si alguno de los valores no es positivo.
+     */
+    public BatchOptions(int batchSize, int chunkSize) {
+        setBatchSize(batchSize);
+        setChunkSize(chunkSize);
+    }
+
+    /**
+     * Obtiene el número de INSERT por lote JDBC.
+     *
+     * @return El tamaño de lote JDBC.
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Establece el número de INSERT por lote JDBC.
+     *
+     * @param batchSize El nuevo tamaño de lote JDBC.
+     * @throws IllegalArgumentException Si el valor no es positivo.
+     */
+    public void setBatchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("El tamaño de lote debe ser positivo: " + batchSize);
+        }
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Obtiene el número de registros por transacción.
+     *
+     * @return El número de registros por transacción.
+     */
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * Establece el número de registros por transacción.
+     *
+     * @param chunkSize El nuevo número de registros por transacción.
+     * @throws IllegalArgumentException Si el valor no es positivo.
+     */
+    public void setChunkSize(int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("El tamaño de bloque debe ser positivo: " + chunkSize);
+        }
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Obtiene el número de hilos de la carga en paralelo.
+     *
+     * @return El número de hilos.
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Establece el número de hilos de la carga en paralelo.
+     *
+     * @param parallelism El nuevo número de hilos.
+     * @throws IllegalArgumentException Si el valor no es positivo.
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("El número de hilos debe ser positivo: " + parallelism);
+        }
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Obtiene el número de reintentos de un bloque fallido.
+     *
+     * @return El número de reintentos.
+     */
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    /**
+     * Establece el número de reintentos de un bloque fallido.
+     *
+     * @param maxRetries El nuevo número de reintentos.
+     * @throws IllegalArgumentException Si el valor es negativo.
+     */
+    public void setMaxRetries(int maxRetries) {
+        if (maxRetries < 0) {
+            throw new IllegalArgumentException("El número de reintentos no puede ser negativo: " + maxRetries);
+        }
+        this.maxRetries = maxRetries;
+    }
+
+    /**
+     * Obtiene el número de lotes que caben en cada cola de la carga por etapas.
+     *
+     * @return La capacidad de las colas.
+     */
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    /**
+     * Establece el número de lotes que caben en cada cola de la carga por etapas.
+     * Cuando una cola se llena, la etapa anterior espera a que la siguiente la vacíe.
+     *
+     * @param queueCapacity La nueva capacidad de las colas.
+     * @throws IllegalArgumentException Si el valor no es positivo.
+     */
+    public void setQueueCapacity(int queueCapacity) {
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("La capacidad de las colas debe ser positiva: " + queueCapacity);
+        }
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * Obtiene el ejecutor de las tareas de la carga por etapas.
+     *
+     * @return El ejecutor, o null si la carga crea uno propio.
+     */
+    public ExecutorService getPipelineExecutor() {
+        return pipelineExecutor;
+    }
+
+    /**
+     * Establece el ejecutor de las tareas de la carga por etapas.
+     * Debe poder ejecutar a la vez el doble de tareas que {@link #getParallelism()}, porque las etapas se esperan
+     * unas a otras: con menos hilos la carga se quedaría bloqueada, así que falla al empezar con una
+     * IllegalArgumentException. Un pool fijo de {@code 2 * parallelism} hilos basta para una carga; si se comparte
+     * entre cargas simultáneas, como las de {@link LoaderController#loadAll}, necesita esos hilos para cada una,
+     * lo que la carga no puede comprobar. La carga no lo cierra.
+     * Si es null, la carga utiliza hilos virtuales cuando la versión de Java los admite y un pool fijo en otro caso.
+     *
+     * @param pipelineExecutor El ejecutor, o null.
+     */
+    public void setPipelineExecutor(ExecutorService pipelineExecutor) {
+        this.pipelineExecutor = pipelineExecutor;
+    }
+
+    /**
+     * Indica si el archivo se lee con el lector tipado.
+     *
+     * @return `true` si se utiliza {@link TypedCsvReader}, `false` si se utiliza OpenCSV.
+     */
+    public boolean isTypedParser() {
+        return typedParser;
+    }
+
+    /**
+     * Establece si el archivo se lee con el lector tipado.
+     *
+     * @param typedParser `true` para utilizar {@link TypedCsvReader}, `false` para utilizar OpenCSV.
+     */
+    public void setTypedParser(boolean typedParser) {
+        this.typedParser = typedParser;
+    }
+
+    /**
+     * Indica si el archivo se lee proyectándolo en memoria.
+     *
+     * @return `true` si se utiliza {@link MappedCsvReader}, `false` en caso contrario.
+     */
+    public boolean isMemoryMapped() {
+        return memoryMapped;
+    }
+
+    /**
+     * Establece si el archivo se lee proyectándolo en memoria.
+     * Solo se aplica a archivos del sistema de archivos y utiliza siempre el esquema de la tabla,
+     * como el lector tipado; si el archivo está dentro de un JAR se lee con {@link TypedCsvReader}.
+     *
+     * @param memoryMapped `true` para utilizar {@link MappedCsvReader}.
+     */
+    public void setMemoryMapped(boolean memoryMapped) {
+        this.memoryMapped = memoryMapped;
+    }
+
+    /**
+     * Obtiene el directorio en el que se guardan los registros rechazados.
+     *
+     * @return El directorio de la cuarentena.
+     */
+    public Path getQuarantineDir() {
+        return quarantineDir;
+    }
+
+    /**
+     * Establece el directorio en el que se guardan los registros rechazados.
+     *
+     * @param quarantineDir Directorio de la cuarentena.
+     * @throws IllegalArgumentException Si el directorio es null.
+     */
+    public void setQuarantineDir(Path quarantineDir) {
+        if (quarantineDir == null) {
+            throw new IllegalArgumentException("El directorio de la cuarentena no puede ser null");
+        }
+        this.quarantineDir = quarantineDir;
+    }
+
+    /**
+     * Obtiene los segundos entre cada informe de progreso de la carga.
+     *
+     * @return El intervalo en segundos, o 0 si no se muestra el progreso.
+     */
+    public int getReportInterval() {
+        return reportInterval;
+    }
+
+    /**
+     * Establece los segundos entre cada informe de progreso de la carga.
+     * El resumen final de las métricas se muestra siempre.
+     *
+     * @param reportInterval El intervalo en segundos, o 0 para no mostrar el progreso.
+     * @throws IllegalArgumentException Si el valor es negativo.
+     */
+    public void setReportInterval(int reportInterval) {
+        if (reportInterval < 0) {
+            throw new IllegalArgumentException("El intervalo de los informes no puede ser negativo: " + reportInterval);
+        }
+        this.reportInterval = reportInterval;
+    }
+
+    /**
+     * Devuelve una representación en cadena de las opciones de carga.
+     *
+     * @return Una cadena que representa las opciones de carga.
+     */
+    @Override
+    public String toString() {
+        return "BatchOptions [ batchSize: " + batchSize + ", chunkSize: " + chunkSize + ", parallelism: " + parallelism +
+                ", maxRetries: " + maxRetries + ", queueCapacity: " + queueCapacity +
+                ", typedParser: " + typedParser +
+                ", memoryMapped: " + memoryMapped +
+                ", quarantineDir: " + quarantineDir + ", reportInterval: " + reportInterval + " ]";
+    }
+}
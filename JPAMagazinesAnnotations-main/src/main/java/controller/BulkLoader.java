@@ -0,0 +1,179 @@
+package controller;
+
+import com.opencsv.exceptions.CsvException;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+import org.postgresql.core.BaseConnection;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * La clase BulkLoader vuelca los registros de un archivo CSV en una tabla sin pasar por el ORM.
+ * En PostgreSQL utiliza {@code COPY ... FROM STDIN} a través del {@link CopyManager} del driver;
+ * en cualquier otra base de datos recurre a sentencias INSERT agrupadas en lotes JDBC.
+ * Las filas se obtienen de {@link SuperController#convert(CsvRecord)}, que aplica las mismas conversiones
+ * que la carga registro a registro.
+ */
+class BulkLoader {
+
+    /**
+     * Número de bytes que se acumulan antes de enviarlos al COPY.
+     */
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Controlador de la tabla que se está cargando.
+     */
+    private final SuperController controller;
+
+    /**
+     * Número de INSERT por lote cuando no se puede utilizar COPY.
+     */
+    private final int batchSize;
+
+    /**
+     * Crea un cargador masivo para la tabla del controlador proporcionado.
+     *
+     * @param controller Controlador de la tabla que se va a cargar.
+     * @param batchSize  Número de INSERT por lote en el modo alternativo.
+     */
+    BulkLoader(SuperController controller, int batchSize) {
+        this.controller = controller;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Carga todos los registros del lector en la tabla utilizando la conexión proporcionada.
+     * La conexión debe tener una transacción activa; este método no la confirma.
+     *
+     * @param connection Conexión JDBC a la base de datos.
+     * @param source     Origen de los registros a cargar.
+     * @return El número de filas cargadas.
+     * @throws SQLException Si se produce un error en la base de datos.
+     * @throws IOException  Si se produce un error al leer el archivo.
+     * @throws CsvException Si un registro del archivo no es válido.
+     */
+    long load(Connection connection, RecordSource source) throws SQLException, IOException, CsvException {
+        if (connection.isWrapperFor(BaseConnection.class)) {
+            return copy(connection.unwrap(BaseConnection.class), source);
+        }
+        return insert(connection, source);
+    }
+
+    /**
+     * Envía los registros a PostgreSQL con {@code COPY ... FROM STDIN (FORMAT csv)}.
+     */
+    private long copy(BaseConnection connection, RecordSource source) throws SQLException, IOException, CsvException {
+        String sql = "COPY " + controller.tableName + " (" + String.join(", ", controller.bulkColumns()) + ") FROM STDIN WITH (FORMAT csv)";
+        CopyIn copyIn = new CopyManager(connection).copyIn(sql);
+        StringBuilder buffer = new StringBuilder(COPY_BUFFER_SIZE + 1024);
+        long count = 0;
+
+        try {
+            CsvRecord record;
+            while ((record = controller.nextRecord(source)) != null) {
+                Object[] row = controller.convert(record);
+                if (row == null) {
+                    continue;
+                }
+                appendCsvLine(buffer, row);
+                count++;
+
+                if (buffer.length() >= COPY_BUFFER_SIZE) {
+                    writeToCopy(copyIn, buffer);
+                }
+            }
+            writeToCopy(copyIn, buffer);
+            copyIn.endCopy();
+        } finally {
+            if (copyIn.isActive()) {
+                copyIn.cancelCopy();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Inserta los registros con sentencias INSERT agrupadas en lotes JDBC.
+     */
+    private long insert(Connection connection, RecordSource source) throws SQLException, IOException, CsvException {
+        String[] columns = controller.bulkColumns();
+        String sql = "INSERT INTO " + controller.tableName + " (" + String.join(", ", columns) + ") VALUES ("
+                + "?, ".repeat(columns.length - 1) + "?)";
+        long count = 0;
+
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            CsvRecord record;
+            while ((record = controller.nextRecord(source)) != null) {
+                Object[] row = controller.convert(record);
+                if (row == null) {
+                    continue;
+                }
+                for (int i = 0; i < row.length; i++) {
+                    statement.setObject(i + 1, row[i]);
+                }
+                statement.addBatch();
+                count++;
+
+                if (count % batchSize == 0) {
+                    statement.executeBatch();
+                }
+            }
+            statement.executeBatch();
+        }
+        return count;
+    }
+
+    /**
+     * Envía el contenido acumulado al COPY y vacía el buffer.
+     */
+    private static void writeToCopy(CopyIn copyIn, StringBuilder buffer) throws SQLException {
+        if (buffer.length() > 0) {
+            byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+            copyIn.writeToCopy(bytes, 0, bytes.length);
+            buffer.setLength(0);
+        }
+    }
+
+    /**
+     * Añade una fila al buffer en formato CSV de PostgreSQL.
+     * Los valores nulos se escriben como un campo vacío sin comillas y los textos siempre entre comillas,
+     * para distinguir una cadena vacía de un valor nulo.
+     */
+    static void appendCsvLine(StringBuilder buffer, Object[] row) {
+        for (int i = 0; i < row.length; i++) {
+            if (i > 0) {
+                buffer.append(',');
+            }
+            Object value = row[i];
+            if (value instanceof String) {
+                appendQuoted(buffer, (String) value);
+            } else if (value instanceof BigDecimal) {
+                buffer.append(((BigDecimal) value).toPlainString());
+            } else if (value != null) {
+                buffer.append(value);
+            }
+        }
+        buffer.append('\n');
+    }
+
+    /**
+     * Añade un texto entre comillas dobles, duplicando las comillas que contenga.
+     */
+    private static void appendQuoted(StringBuilder buffer, String value) {
+        buffer.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                buffer.append('"');
+            }
+            buffer.append(c);
+        }
+        buffer.append('"');
+    }
+}
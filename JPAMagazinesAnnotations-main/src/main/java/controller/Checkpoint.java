@@ -0,0 +1,166 @@
+package controller;
+
+import javax.persistence.EntityManager;
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * La clase Checkpoint guarda el progreso de la carga por bloques de una tabla en la tabla de control
+ * {@value #TABLE}, con una fila por tabla cargada.
+ * El progreso se escribe en la misma transacción que confirma cada bloque, de modo que siempre coincide
+ * con los registros que realmente están en la tabla: si la carga se interrumpe, puede reanudarse
+ * a partir del último bloque confirmado sin repetir ni perder registros.
+ */
+class Checkpoint {
+
+    /**
+     * Nombre de la tabla de control.
+     */
+    static final String TABLE = "cargasCsv";
+
+    /**
+     * Tabla que se está cargando.
+     */
+    final String tableName;
+
+    /**
+     * Ruta del archivo CSV que se está cargando.
+     */
+    final String csvPath;
+
+    /**
+     * Número de registros del archivo ya confirmados.
+     */
+    long records;
+
+    /**
+     * Posición en bytes del archivo del siguiente registro por cargar, o -1 si el lector no la conoce.
+     */
+    long position = -1;
+
+    /**
+     * Número de bloques confirmados.
+     */
+    int chunks;
+
+    /**
+     * Indica si la carga terminó.
+     */
+    boolean completed;
+
+    /**
+     * Crea el progreso de una carga que todavía no ha confirmado ningún bloque.
+     *
+     * @param tableName Tabla que se carga.
+     * @param csvPath   Ruta del archivo CSV.
+     */
+    Checkpoint(String tableName, String csvPath) {
+        this.tableName = tableName;
+        this.csvPath = csvPath;
+    }
+
+    /**
+     * Crea la tabla de control si todavía no existe, en su propia transacción.
+     *
+     * @param em EntityManager sin transacción activa.
+     */
+    static void createTable(EntityManager em) {
+        em.getTransaction().begin();
+        try {
+            em.createNativeQuery("CREATE TABLE IF NOT EXISTS " + TABLE + " (\n" +
+                    "    tabla VARCHAR(64) PRIMARY KEY,\n" +
+                    "    csv VARCHAR(1024) NOT NULL,\n" +
+                    "    registros BIGINT NOT NULL,\n" +
+                    "    posicion BIGINT NOT NULL,\n" +
+                    "    bloques INT NOT NULL,\n" +
+                    "    completada BOOLEAN NOT NULL,\n" +
+                    "    actualizada TIMESTAMP NOT NULL\n" +
+                    ")").executeUpdate();
+            em.getTransaction().commit();
+        } finally {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+        }
+    }
+
+    /**
+     * Lee el progreso guardado de la carga de una tabla.
+     *
+     * @param em        EntityManager con el que se consulta.
+     * @param tableName Tabla cargada.
+     * @return El progreso guardado, o null si la tabla no se ha cargado por bloques.
+     */
+    static Checkpoint load(EntityManager em, String tableName) {
+        List<?> rows = em.createNativeQuery("SELECT csv, registros, posicion, bloques, completada FROM " + TABLE +
+                        " WHERE tabla = ?1")
+                .setParameter(1, tableName)
+                .getResultList();
+
+        if (rows.isEmpty()) {
+            return null;
+        }
+        Object[] row = (Object[]) rows.get(0);
+        Checkpoint checkpoint = new Checkpoint(tableName, (String) row[0]);
+        checkpoint.records = ((Number) row[1]).longValue();
+        checkpoint.position = ((Number) row[2]).longValue();
+        checkpoint.chunks = ((Number) row[3]).intValue();
+        checkpoint.completed = (Boolean) row[4];
+        return checkpoint;
+    }
+
+    /**
+     * Elimina el progreso guardado de la carga de una tabla, en su propia transacción.
+     * Se utiliza al eliminar la tabla, para que una carga posterior no se reanude sobre una tabla nueva.
+     *
+     * @param em        EntityManager sin transacción activa.
+     * @param tableName Tabla cargada.
+     */
+    static void delete(EntityManager em, String tableName) {
+        createTable(em);
+        em.getTransaction().begin();
+        try {
+            em.createNativeQuery("DELETE FROM " + TABLE + " WHERE tabla = ?1")
+                    .setParameter(1, tableName)
+                    .executeUpdate();
+            em.getTransaction().commit();
+        } finally {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+        }
+    }
+
+    /**
+     * Guarda el progreso dentro de la transacción activa del EntityManager,
+     * para que se confirme junto con el bloque al que corresponde.
+     *
+     * @param em EntityManager con la transacción del bloque activa.
+     */
+    void save(EntityManager em) {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        int updated = em.createNativeQuery("UPDATE " + TABLE + " SET csv = ?1, registros = ?2, posicion = ?3, " +
+                        "bloques = ?4, completada = ?5, actualizada = ?6 WHERE tabla = ?7")
+                .setParameter(1, csvPath)
+                .setParameter(2, records)
+                .setParameter(3, position)
+                .setParameter(4, chunks)
+                .setParameter(5, completed)
+                .setParameter(6, now)
+                .setParameter(7, tableName)
+                .executeUpdate();
+
+        if (updated == 0) {
+            em.createNativeQuery("INSERT INTO " + TABLE + " (tabla, csv, registros, posicion, bloques, completada, actualizada) " +
+                            "VALUES (?1, ?2, ?3, ?4, ?5, ?6, ?7)")
+                    .setParameter(1, tableName)
+                    .setParameter(2, csvPath)
+                    .setParameter(3, records)
+                    .setParameter(4, position)
+                    .setParameter(5, chunks)
+                    .setParameter(6, completed)
+                    .setParameter(7, now)
+                    .executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,340 @@
+package controller;
+
+import org.hibernate.Session;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * La clase CompositionIndex resuelve en memoria las búsquedas de compuestos por composición
+ * ({@link CompositionQuery}) a partir de la tabla de compuestos y la tabla intermedia CompuestoElemento.
+ * Cada compuesto tiene un conjunto de bits con un bit por id de elemento (los 118 elementos caben en dos long)
+ * y cada elemento una lista ordenada de los compuestos que lo contienen con el número de átomos de cada uno.
+ * Una búsqueda recorre la lista más corta de los elementos obligatorios o, si no hay ninguno, todos los compuestos,
+ * también los que no tienen filas en la tabla intermedia, y comprueba cada candidato comparando su conjunto de bits
+ * palabra a palabra con la máscara de los elementos obligatorios y la de los excluidos; los subíndices mínimos
+ * se comprueban al final en las listas de cada elemento.
+ * El índice se construye leyendo una sola vez las tablas ordenadas por compuesto la primera vez que se utiliza
+ * y se vuelve a construir, también cuando se utiliza, después de {@link #invalidate()}.
+ */
+class CompositionIndex {
+
+    private static final int[] NONE = new int[0];
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final String tableName;
+
+    /**
+     * Contenido actual del índice, o null si debe construirse antes de la siguiente búsqueda.
+     */
+    private volatile Snapshot snapshot;
+
+    /**
+     * Crea un índice vacío que se construirá en la primera búsqueda.
+     *
+     * @param entityManagerFactory EntityManagerFactory para la gestión de entidades.
+     * @param tableName            Nombre de la tabla intermedia.
+     */
+    CompositionIndex(EntityManagerFactory entityManagerFactory, String tableName) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.tableName = tableName;
+    }
+
+    /**
+     * Marca el índice como desactualizado; se volverá a construir en la siguiente búsqueda.
+     */
+    void invalidate() {
+        snapshot = null;
+    }
+
+    /**
+     * Obtiene el número de compuestos del índice.
+     *
+     * @return El número de compuestos, tengan o no filas en la tabla intermedia.
+     */
+    int size() {
+        return snapshot().ids.length;
+    }
+
+    /**
+     * Busca los compuestos que cumplen todas las condiciones de la búsqueda.
+     *
+     * @param query Condiciones de la búsqueda.
+     * @return Los ids de los compuestos encontrados, en orden creciente y como máximo {@link CompositionQuery#getLimit()}.
+     */
+    int[] find(CompositionQuery query) {
+        Snapshot s = snapshot();
+        long[] required = new long[s.words];
+        long[] excluded = new long[s.words];
+        int[] shortest = null;
+
+        for (int idElemento : query.getRequired()) {
+            int[] posting = idElemento < s.postings.length ? s.postings[idElemento] : NONE;
+            if (posting.length == 0) {
+                return NONE;
+            }
+            if (shortest == null || posting.length < shortest.length) {
+                shortest = posting;
+            }
+            required[idElemento >>> 6] |= 1L << idElemento;
+        }
+        for (int idElemento : query.getExcluded()) {
+            // Un elemento que no está en ningún compuesto no excluye nada.
+            if (idElemento < s.postings.length) {
+                excluded[idElemento >>> 6] |= 1L << idElemento;
+            }
+        }
+
+        int candidates = shortest == null ? s.ids.length : shortest.length;
+        int[] found = new int[Math.min(query.getLimit(), candidates)];
+        int count = 0;
+        for (int i = 0; i < candidates && count < found.length; i++) {
+            int position = shortest == null ? i : shortest[i];
+            if (matches(s, position, required, excluded) && hasMinimums(s, position, query.getMinimums())) {
+                found[count++] = s.ids[position];
+            }
+        }
+        return Arrays.copyOf(found, count);
+    }
+
+    /**
+     * Obtiene el nombre de un compuesto, tal como está en la tabla intermedia o, si no tiene filas en ella,
+     * en la tabla de compuestos.
+     *
+     * @param idCompuesto Id del compuesto.
+     * @return El nombre, o null si el compuesto no está en el índice.
+     */
+    String name(int idCompuesto) {
+        Snapshot s = snapshot();
+        int position = Arrays.binarySearch(s.ids, idCompuesto);
+        return position >= 0 ? s.names[position] : null;
+    }
+
+    /**
+     * Compara el conjunto de bits del compuesto con las máscaras, una palabra de 64 elementos cada vez.
+     */
+    private static boolean matches(Snapshot s, int position, long[] required, long[] excluded) {
+        int offset = position * s.words;
+        for (int w = 0; w < s.words; w++) {
+            long bits = s.bits[offset + w];
+            if ((bits & required[w]) != required[w] || (bits & excluded[w]) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Comprueba los subíndices mínimos buscando el compuesto en la lista de cada elemento.
+     */
+    private static boolean hasMinimums(Snapshot s, int position, Map<Integer, Integer> minimums) {
+        for (Map.Entry<Integer, Integer> minimum : minimums.entrySet()) {
+            int idElemento = minimum.getKey();
+            int k = Arrays.binarySearch(s.postings[idElemento], position);
+            if (k < 0 || s.counts[idElemento][k] < minimum.getValue()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Obtiene el contenido actual del índice, construyéndolo si es necesario.
+     */
+    private Snapshot snapshot() {
+        Snapshot s = snapshot;
+        if (s == null) {
+            synchronized (this) {
+                s = snapshot;
+                if (s == null) {
+                    s = load();
+                    snapshot = s;
+                }
+            }
+        }
+        return s;
+    }
+
+    /**
+     * Lee la tabla de compuestos y la tabla intermedia, las dos ordenadas por compuesto. PostgreSQL solo lee
+     * con un cursor, sin traer las tablas enteras de una vez, si la conexión no está en autocommit.
+     */
+    private Snapshot load() {
+        EntityManager em = entityManagerFactory.createEntityManager();
+
+        try {
+            em.getTransaction().begin();
+            return em.unwrap(Session.class).doReturningWork(this::load);
+        } finally {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            em.close();
+        }
+    }
+
+    private Snapshot load(Connection connection) throws SQLException {
+        int maxElemento;
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT MAX(elemento_id) FROM " + tableName)) {
+            resultSet.next();
+            maxElemento = resultSet.getInt(1);
+        }
+
+        Builder builder = new Builder(maxElemento);
+        String compounds = "SELECT idCompuesto, nombre FROM compuestos ORDER BY idCompuesto";
+        String rows = "SELECT compuesto_id, nombreCompuesto, elemento_id, subindice FROM " + tableName
+                + " WHERE compuesto_id IS NOT NULL AND elemento_id IS NOT NULL ORDER BY compuesto_id";
+        try (PreparedStatement compoundStatement = connection.prepareStatement(compounds);
+             PreparedStatement rowStatement = connection.prepareStatement(rows)) {
+            compoundStatement.setFetchSize(ExportOptions.DEFAULT_FETCH_SIZE);
+            rowStatement.setFetchSize(ExportOptions.DEFAULT_FETCH_SIZE);
+            try (ResultSet compound = compoundStatement.executeQuery();
+                 ResultSet row = rowStatement.executeQuery()) {
+                // Las dos lecturas van ordenadas por compuesto y se mezclan como en un merge join: las filas de un
+                // compuesto se añaden antes que el propio compuesto, que solo se añade si no tiene ninguna.
+                boolean hasCompound = compound.next();
+                boolean hasRow = row.next();
+                while (hasCompound || hasRow) {
+                    if (hasRow && (!hasCompound || row.getInt(1) <= compound.getInt(1))) {
+                        builder.add(row.getInt(1), row.getString(2), row.getInt(3), row.getInt(4));
+                        hasRow = row.next();
+                    } else {
+                        builder.add(compound.getInt(1), compound.getString(2));
+                        hasCompound = compound.next();
+                    }
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Contenido del índice en un momento dado; no se modifica una vez creado.
+     */
+    private static final class Snapshot {
+
+        /**
+         * Número de palabras de 64 bits del conjunto de elementos de cada compuesto.
+         */
+        private final int words;
+
+        /**
+         * Id de cada compuesto, en orden creciente; las listas de los elementos guardan posiciones de este arreglo.
+         */
+        private final int[] ids;
+
+        /**
+         * Nombre de cada compuesto, en el mismo orden.
+         */
+        private final String[] names;
+
+        /**
+         * Conjuntos de elementos de todos los compuestos seguidos, {@link #words} palabras por compuesto;
+         * el elemento con id {@code e} es el bit {@code e % 64} de la palabra {@code e / 64}.
+         */
+        private final long[] bits;
+
+        /**
+         * Posiciones de los compuestos que contienen cada elemento, por id de elemento y en orden creciente.
+         */
+        private final int[][] postings;
+
+        /**
+         * Número de átomos de cada elemento en los compuestos de {@link #postings}, en el mismo orden.
+         */
+        private final int[][] counts;
+
+        Snapshot(int words, int[] ids, String[] names, long[] bits, int[][] postings, int[][] counts) {
+            this.words = words;
+            this.ids = ids;
+            this.names = names;
+            this.bits = bits;
+            this.postings = postings;
+            this.counts = counts;
+        }
+    }
+
+    /**
+     * Construye el índice a partir de los compuestos y las filas de la tabla intermedia,
+     * que deben llegar ordenados por compuesto.
+     */
+    private static final class Builder {
+
+        private final int words;
+        private int[] ids = new int[1024];
+        private String[] names = new String[1024];
+        private long[] bits;
+        private int size;
+
+        private final int[][] postings;
+        private final int[][] counts;
+        private final int[] lengths;
+
+        Builder(int maxElemento) {
+            this.words = Math.max(2, (maxElemento >>> 6) + 1);
+            this.bits = new long[ids.length * words];
+            this.postings = new int[maxElemento + 1][];
+            this.counts = new int[maxElemento + 1][];
+            this.lengths = new int[maxElemento + 1];
+        }
+
+        /**
+         * Añade un compuesto, si no es el último añadido, sin ningún elemento.
+         */
+        void add(int idCompuesto, String name) {
+            if (size == 0 || ids[size - 1] != idCompuesto) {
+                if (size == ids.length) {
+                    ids = Arrays.copyOf(ids, size * 2);
+                    names = Arrays.copyOf(names, size * 2);
+                    bits = Arrays.copyOf(bits, size * 2 * words);
+                }
+                ids[size] = idCompuesto;
+                names[size] = name;
+                size++;
+            }
+        }
+
+        /**
+         * Añade un elemento al compuesto, añadiendo antes el compuesto si no es el último añadido.
+         */
+        void add(int idCompuesto, String name, int idElemento, int subindice) {
+            add(idCompuesto, name);
+            int position = size - 1;
+            bits[position * words + (idElemento >>> 6)] |= 1L << idElemento;
+
+            // Un elemento repetido en el mismo compuesto suma sus átomos en la entrada que ya tiene.
+            int length = lengths[idElemento];
+            if (length > 0 && postings[idElemento][length - 1] == position) {
+                counts[idElemento][length - 1] += subindice;
+                return;
+            }
+            if (postings[idElemento] == null) {
+                postings[idElemento] = new int[16];
+                counts[idElemento] = new int[16];
+            } else if (length == postings[idElemento].length) {
+                postings[idElemento] = Arrays.copyOf(postings[idElemento], length * 2);
+                counts[idElemento] = Arrays.copyOf(counts[idElemento], length * 2);
+            }
+            postings[idElemento][length] = position;
+            counts[idElemento][length] = subindice;
+            lengths[idElemento] = length + 1;
+        }
+
+        Snapshot build() {
+            for (int e = 0; e < postings.length; e++) {
+                postings[e] = postings[e] == null ? NONE : Arrays.copyOf(postings[e], lengths[e]);
+                counts[e] = counts[e] == null ? NONE : Arrays.copyOf(counts[e], lengths[e]);
+            }
+            return new Snapshot(words, Arrays.copyOf(ids, size), Arrays.copyOf(names, size),
+                    Arrays.copyOf(bits, size * words), postings, counts);
+        }
+    }
+}
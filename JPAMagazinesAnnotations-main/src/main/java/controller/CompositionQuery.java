@@ -0,0 +1,150 @@
+package controller;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * La clase CompositionQuery describe una búsqueda de compuestos por su composición: los elementos que deben
+ * contener, los que no deben contener y el subíndice mínimo de algunos de ellos, por ejemplo
+ * "compuestos con C, H y O", "con Fe pero sin S" o "con al menos 2 átomos de O".
+ * Los elementos se indican por su id; las condiciones se combinan todas a la vez.
+ * La búsqueda se resuelve en memoria con {@link CompuestoElementoController#findCompuestos(CompositionQuery)}.
+ */
+public class CompositionQuery {
+
+    /**
+     * Número máximo de compuestos que se devuelven por defecto.
+     */
+    public static final int DEFAULT_LIMIT = 100;
+
+    /**
+     * Elementos que deben estar en el compuesto.
+     */
+    private final Set<Integer> required = new TreeSet<>();
+
+    /**
+     * Elementos que no deben estar en el compuesto.
+     */
+    private final Set<Integer> excluded = new TreeSet<>();
+
+    /**
+     * Subíndice mínimo de cada elemento con esa condición.
+     */
+    private final Map<Integer, Integer> minimums = new TreeMap<>();
+
+    /**
+     * Número máximo de compuestos que se devuelven.
+     */
+    private int limit = DEFAULT_LIMIT;
+
+    /**
+     * Crea una búsqueda sin condiciones, que devuelve todos los compuestos hasta el límite.
+     */
+    public CompositionQuery() {
+    }
+
+    /**
+     * Añade elementos que deben estar en el compuesto.
+     *
+     * @param idElementos Ids de los elementos.
+     * @return Esta búsqueda, para encadenar las condiciones.
+     * @throws IllegalArgumentException Si algún id no es positivo.
+     */
+    public CompositionQuery contains(int... idElementos) {
+        for (int idElemento : idElementos) {
+            required.add(checkId(idElemento));
+        }
+        return this;
+    }
+
+    /**
+     * Añade elementos que no deben estar en el compuesto.
+     *
+     * @param idElementos Ids de los elementos.
+     * @return Esta búsqueda, para encadenar las condiciones.
+     * @throws IllegalArgumentException Si algún id no es positivo.
+     */
+    public CompositionQuery excludes(int... idElementos) {
+        for (int idElemento : idElementos) {
+            excluded.add(checkId(idElemento));
+        }
+        return this;
+    }
+
+    /**
+     * Exige que el compuesto tenga al menos un número de átomos de un elemento, sumando los subíndices
+     * de todas sus filas en la tabla intermedia. El elemento pasa también a ser obligatorio.
+     *
+     * @param idElemento Id del elemento.
+     * @param subindice  Subíndice mínimo.
+     * @return Esta búsqueda, para encadenar las condiciones.
+     * @throws IllegalArgumentException Si el id o el subíndice no son positivos.
+     */
+    public CompositionQuery atLeast(int idElemento, int subindice) {
+        if (subindice < 1) {
+            throw new IllegalArgumentException("El subíndice mínimo debe ser positivo: " + subindice);
+        }
+        required.add(checkId(idElemento));
+        minimums.merge(idElemento, subindice, Math::max);
+        return this;
+    }
+
+    /**
+     * Obtiene los elementos que deben estar en el compuesto.
+     *
+     * @return Los ids de los elementos, en orden creciente.
+     */
+    public Set<Integer> getRequired() {
+        return Collections.unmodifiableSet(required);
+    }
+
+    /**
+     * Obtiene los elementos que no deben estar en el compuesto.
+     *
+     * @return Los ids de los elementos, en orden creciente.
+     */
+    public Set<Integer> getExcluded() {
+        return Collections.unmodifiableSet(excluded);
+    }
+
+    /**
+     * Obtiene el subíndice mínimo de cada elemento con esa condición.
+     *
+     * @return El subíndice mínimo por id de elemento.
+     */
+    public Map<Integer, Integer> getMinimums() {
+        return Collections.unmodifiableMap(minimums);
+    }
+
+    /**
+     * Obtiene el número máximo de compuestos que se devuelven.
+     *
+     * @return El límite de resultados.
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Establece el número máximo de compuestos que se devuelven.
+     *
+     * @param limit El nuevo límite de resultados.
+     * @throws IllegalArgumentException Si el valor no es positivo.
+     */
+    public void setLimit(int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("El límite de resultados debe ser positivo: " + limit);
+        }
+        this.limit = limit;
+    }
+
+    private static int checkId(int idElemento) {
+        if (idElemento < 1) {
+            throw new IllegalArgumentException("Id de elemento no válido: " + idElemento);
+        }
+        return idElemento;
+    }
+}
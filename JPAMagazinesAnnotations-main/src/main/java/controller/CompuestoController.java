@@ -1,10 +1,16 @@
 package controller;
 
 import model.Compuesto;
+import model.CompuestoRow;
+import controller.CsvSchema.ColumnType;
+import view.TableRenderer;
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Scanner;
+import java.util.stream.Collectors;
 
 /**
  * Controlador para la gestión de la entidad Compuesto.
@@ -14,6 +20,25 @@ import java.util.Scanner;
 public class CompuestoController extends SuperController{
     private Scanner scanner;
 
+    /**
+     * Columnas del listado de la tabla de compuestos.
+     */
+    private static final TableRenderer.Column[] COLUMNS = {
+            new TableRenderer.Column("id_compuesto", 22), new TableRenderer.Column("nombre", 35),
+            new TableRenderer.Column("fórmula", 22), new TableRenderer.Column("masa", 22),
+            new TableRenderer.Column("DRC", 22)
+    };
+
+    /**
+     * Número de fórmulas disponibles que se muestran antes de pedir la fórmula a buscar.
+     */
+    public static final int FORMULA_PAGE_SIZE = 20;
+
+    /**
+     * Índice de los compuestos por fórmula en orden de Hill.
+     */
+    private FormulaIndex formulas;
+
     /**
      * Crea una nueva instancia de CompuestoController sin inicializar los parámetros.
      */
@@ -28,10 +53,12 @@ public class CompuestoController extends SuperController{
     public CompuestoController(EntityManagerFactory entityManagerFactory) {
         super(entityManagerFactory, "compuestos");
         scanner = new Scanner(System.in);
+        formulas = new FormulaIndex(entityManagerFactory);
     }
 
     /**
      * Método para crear la tabla de compuestos si no existe.
+     * Si la tabla ya existe pero es anterior a la columna {@code formulaHill}, le añade la columna y su índice.
      */
     public void createCompuestos() {
         EntityManager em = entityManagerFactory.createEntityManager();
@@ -39,92 +66,183 @@ public class CompuestoController extends SuperController{
         em.getTransaction().begin();
         if (doesTableExist("compuestos")) {
             System.out.println("La tabla 'compuestos' ya existe");
+            if (!doesColumnExist(em, "compuestos", FormulaIndex.KEY_COLUMN)) {
+                em.createNativeQuery(FormulaIndex.addKeyColumn()).executeUpdate();
+                em.createNativeQuery(FormulaIndex.createKeyIndex()).executeUpdate();
+                System.out.println("Columna '" + FormulaIndex.KEY_COLUMN + "' añadida a la tabla 'compuestos'");
+            }
         } else {
             String nativeQuery = "CREATE TABLE compuestos (\n" +
                     "    idCompuesto INT PRIMARY KEY,\n" +
                     "    nombre VARCHAR(255),\n" +
                     "    formula VARCHAR(255),\n" +
                     "    masa VARCHAR(255),\n" +
-                    "    drc VARCHAR(255)\n" +
+                    "    drc VARCHAR(255),\n" +
+                    "    " + FormulaIndex.KEY_COLUMN + " VARCHAR(255)\n" +
                     ");";
             em.createNativeQuery(nativeQuery).executeUpdate();
-            em.getTransaction().commit();
+            em.createNativeQuery(FormulaIndex.createKeyIndex()).executeUpdate();
             System.out.println("Tabla 'compuestos' creada correctamente");
         }
+        em.getTransaction().commit();
         em.close();
     }
 
 
     /**
      * Método para agregar un compuesto a la base de datos.
-     * @param data Arreglo de datos del compuesto.
+     * @param data Registro CSV con los datos del compuesto.
+     * @param em   EntityManager con la transacción activa.
+     * @return Siempre `true`.
      */
     @Override
-    void addInTable(String[] data) {
-        EntityManager em = entityManagerFactory.createEntityManager();
-
+    boolean addInTable(CsvRecord data, EntityManager em) {
         Compuesto compuesto = new Compuesto();
-        compuesto.setIdCompuesto(Integer.parseInt(data[0]));
-        compuesto.setNombre(data[1]);
-        compuesto.setFormula(data[2]);
-        compuesto.setMasa(data[3]);
-        compuesto.setDRC(data[4]);
+        compuesto.setIdCompuesto(data.getRequiredInt(0));
+        compuesto.setNombre(data.getText(1));
+        compuesto.setFormula(data.getText(2));
+        compuesto.setFormulaHill(FormulaIndex.key(compuesto.getFormula()));
+        compuesto.setMasa(data.getText(3));
+        compuesto.setDRC(data.getText(4));
 
-        em.getTransaction().begin();
         em.persist(compuesto);
-        em.getTransaction().commit();
-        em.close();
+        return true;
+    }
+
+    /**
+     * Devuelve el tipo de cada columna del archivo CSV del Compuesto.
+     *
+     * @return Esquema de las columnas del archivo CSV.
+     */
+    @Override
+    CsvSchema schema() {
+        return new CsvSchema(ColumnType.INT, ColumnType.TEXT, ColumnType.TEXT, ColumnType.TEXT, ColumnType.TEXT);
+    }
+
+    /**
+     * Devuelve las columnas de la tabla 'compuestos' que se rellenan en la carga masiva.
+     *
+     * @return Nombres de las columnas.
+     */
+    @Override
+    String[] bulkColumns() {
+        return new String[] {"idCompuesto", "nombre", "formula", "masa", "drc", FormulaIndex.KEY_COLUMN};
+    }
+
+    /**
+     * Devuelve las columnas del archivo CSV de compuestos, sin la fórmula en orden de Hill, que se calcula al cargar.
+     *
+     * @return Nombres de las columnas exportadas.
+     */
+    @Override
+    String[] exportColumns() {
+        return new String[] {"idCompuesto", "nombre", "formula", "masa", "drc"};
+    }
+
+    /**
+     * Convierte un registro del CSV en una fila de la tabla 'compuestos'.
+     *
+     * @param data Registro CSV con los datos del compuesto.
+     * @return Valores de la fila.
+     */
+    @Override
+    Object[] toRow(CsvRecord data) {
+        String formula = data.getText(2);
+        return new Object[] {data.getRequiredInt(0), data.getText(1), formula, data.getText(3), data.getText(4),
+                FormulaIndex.key(formula)};
     }
 
     /**
      * Método para listar todos los compuestos en la base de datos.
      */
     public void listCompuestos() {
-        EntityManager em = entityManagerFactory.createEntityManager();
-        try {
-            List<Compuesto> result = em.createQuery("FROM Compuesto", Compuesto.class)
-                    .getResultList();
+        listCompuestos(new ListOptions());
+    }
 
-            printData(result);
+    /**
+     * Lista todos los compuestos de la base de datos.
+     * La tabla se recorre por orden de id sin cargarla entera en memoria, por páginas o como un flujo
+     * según las opciones (ver {@link EntityLister}), leyendo solo las columnas del listado ({@link CompuestoRow}).
+     *
+     * @param options Opciones del listado.
+     */
+    public void listCompuestos(ListOptions options) {
+        try (TableRenderer table = openTable(options, COLUMNS)) {
+            table.header();
+            new EntityLister<>(entityManagerFactory, Compuesto.class, CompuestoRow.class, CompuestoRow.SELECT,
+                    CompuestoRow::idCompuesto, options).forEach(compuesto -> printRow(table, compuesto));
         } catch (Exception e) {
             e.printStackTrace();
-        } finally {
-            if (em != null && em.isOpen()) {
-                em.close();
-            }
         }
     }
 
     /**
      * Método para seleccionar y mostrar compuestos según su fórmula química.
+     * Se muestran las primeras {@link #FORMULA_PAGE_SIZE} fórmulas disponibles y se buscan los compuestos
+     * con la fórmula indicada, escrita en cualquier orden (ver {@link #findByFormula(String)}).
      */
     public void selectFormula() {
-        EntityManager em = entityManagerFactory.createEntityManager();
-        em.getTransaction().begin();
+        try {
+            int total = formulas.size();
+            System.out.println("FÓRMULAS DISPONIBLES (" + total + "): ");
 
-        List<String> formulas = em.createQuery("SELECT c.formula FROM Compuesto c", String.class).getResultList();
-        System.out.println("FÓRMULAS DISPONIBLES: ");
+            for (String formula : formulas.formulas(0, FORMULA_PAGE_SIZE)) {
+                System.out.println(formula);
+            }
+            if (total > FORMULA_PAGE_SIZE) {
+                System.out.println("... y " + (total - FORMULA_PAGE_SIZE) + " más");
+            }
 
-        for(String formula : formulas) {
-            System.out.println(formula);
-        }
+            System.out.println("Ingrese una fórmula química: ");
+            String formula = scanner.nextLine();
+            System.out.println("Buscando...\n");
 
-        System.out.println("Ingrese una fórmula química: ");
-        String formula = scanner.nextLine();
-        System.out.println("Buscando...\n");
+            List<CompuestoRow> result = findByFormula(formula);
 
-        List<Compuesto> result = em.createQuery("SELECT c FROM Compuesto c WHERE c.formula = :formula", Compuesto.class)
-                .setParameter("formula", formula)
-                .getResultList();
+            if (!result.isEmpty()) {
+                printData(result);
+            } else {
+                System.out.println("No se encontraron coincidencias. Intente con otra fórmula");
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
 
-        if (!result.isEmpty()) {
-            printData(result);
-        } else {
-            System.out.println("No se encontraron coincidencias. Intente con otra fórmula");
+    /**
+     * Busca los compuestos con una fórmula química escrita en cualquier orden: {@code OH2} encuentra
+     * los compuestos con fórmula {@code H2O}. Los ids se obtienen de un índice en memoria por fórmula en orden
+     * de Hill (ver {@link FormulaIndex}) y las columnas de los compuestos se leen por clave primaria,
+     * sin cargar las entidades.
+     *
+     * @param formula Fórmula química.
+     * @return Los compuestos encontrados, por orden de id.
+     */
+    public List<CompuestoRow> findByFormula(String formula) {
+        List<Integer> ids = Arrays.stream(formulas.find(formula)).boxed().collect(Collectors.toList());
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
         }
 
-        em.getTransaction().commit();
-        em.close();
+        EntityManager em = entityManagerFactory.createEntityManager();
+        try {
+            return em.createQuery(CompuestoRow.SELECT + " WHERE x.idCompuesto IN :ids ORDER BY x.idCompuesto",
+                            CompuestoRow.class)
+                    .setParameter("ids", ids)
+                    .getResultList();
+        } finally {
+            em.close();
+        }
+    }
+
+    /**
+     * Descarta el índice de fórmulas tras una carga o la eliminación de la tabla.
+     */
+    @Override
+    void tableChanged() {
+        if (formulas != null) {
+            formulas.invalidate();
+        }
     }
 
     /**
@@ -148,6 +266,7 @@ public class CompuestoController extends SuperController{
 
         try {
             em.getTransaction().commit();
+            tableChanged();
         } catch (Exception e) {
             e.printStackTrace();
         }
@@ -157,16 +276,26 @@ public class CompuestoController extends SuperController{
 
     /**
      * Método privado para imprimir los datos de los compuestos.
-     * @param result Lista de compuestos a imprimir.
+     * @param result Lista de filas de compuestos a imprimir.
      */
-    private void printData(List<Compuesto> result) {
-        //Imprimir encabezados
-        System.out.printf("%-22s %-35s %22s %-22s %-22s%n", "id_compuesto", "nombre", "fórmula", "masa", "DRC" );
-
-        for (Compuesto compuesto : result) {
-            System.out.printf("%-22d %-35s %-22s %-22s %-22s%n",
-                    compuesto.getIdCompuesto(), compuesto.getNombre(), compuesto.getFormula(), compuesto.getMasa(), compuesto.getDRC());
+    private void printData(List<CompuestoRow> result) {
+        try (TableRenderer table = new TableRenderer(COLUMNS)) {
+            table.header();
+            for (CompuestoRow compuesto : result) {
+                printRow(table, compuesto);
+            }
         }
     }
 
+    /**
+     * Imprime una fila de la tabla de compuestos.
+     * @param table Tabla en la que se escribe.
+     * @param compuesto Fila del compuesto a imprimir.
+     */
+    private void printRow(TableRenderer table, CompuestoRow compuesto) {
+        table.integer(compuesto.idCompuesto()).text(compuesto.nombre()).text(compuesto.formula())
+                .text(compuesto.masa()).text(compuesto.DRC())
+                .endRow();
+    }
+
 }
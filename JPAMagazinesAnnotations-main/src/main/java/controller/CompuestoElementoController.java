@@ -2,10 +2,13 @@ package controller;
 
 import model.Compuesto;
 import model.CompuestoElemento;
+import model.CompuestoElementoRow;
 import model.Elemento;
+import controller.CsvSchema.ColumnType;
+import view.TableRenderer;
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
-import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
 import java.util.Scanner;
 
@@ -17,6 +20,42 @@ import java.util.Scanner;
 public class CompuestoElementoController extends SuperController{
     private Scanner scanner;
 
+    /**
+     * Columnas del listado de la tabla CompuestoElemento.
+     */
+    private static final TableRenderer.Column[] COLUMNS = {
+            new TableRenderer.Column("id", 22), new TableRenderer.Column("id_compuesto", 22),
+            new TableRenderer.Column("nombre compuesto", 35), new TableRenderer.Column("id_elemento", 22),
+            new TableRenderer.Column("símbolo elemento", 22), new TableRenderer.Column("subíndice", 22)
+    };
+
+    /**
+     * Columnas del listado de compuestos encontrados por composición.
+     */
+    private static final TableRenderer.Column[] COMPOSITION_COLUMNS = {
+            new TableRenderer.Column("id_compuesto", 22), new TableRenderer.Column("nombre compuesto", 35)
+    };
+
+    /**
+     * Identificadores de los compuestos existentes, leídos una sola vez al empezar la carga.
+     */
+    private BitSet compuestosExistentes = new BitSet();
+
+    /**
+     * Identificadores de los elementos existentes, leídos una sola vez al empezar la carga.
+     */
+    private BitSet elementosExistentes = new BitSet();
+
+    /**
+     * Elementos en memoria para resolver los elementos por id sin consultar la base de datos.
+     */
+    private ElementoIndex elementos;
+
+    /**
+     * Índice en memoria de los elementos de cada compuesto para las búsquedas por composición.
+     */
+    private CompositionIndex composiciones;
+
     /**
      * Crea una nueva instancia de CompuestoElementoController sin inicializar los parámetros.
      */
@@ -31,6 +70,18 @@ public class CompuestoElementoController extends SuperController{
     public CompuestoElementoController(EntityManagerFactory entityManagerFactory) {
         super(entityManagerFactory, "CompuestoElemento");
         scanner = new Scanner(System.in);
+        elementos = new ElementoIndex(entityManagerFactory);
+        composiciones = new CompositionIndex(entityManagerFactory, "CompuestoElemento");
+    }
+
+    /**
+     * Establece el índice de elementos con el que se resuelven los elementos por id, normalmente el de
+     * {@link ElementoController#getIndex()} para que se invalide con las escrituras en la tabla elementos.
+     *
+     * @param elementos El índice de elementos.
+     */
+    public void setElementoIndex(ElementoIndex elementos) {
+        this.elementos = elementos;
     }
 
     /**
@@ -60,58 +111,159 @@ public class CompuestoElementoController extends SuperController{
         em.close();
     }
 
+    /**
+     * Lee una sola vez los identificadores de los compuestos y los elementos existentes
+     * para validar las relaciones de la carga en memoria.
+     */
+    @Override
+    void prepareLoad() {
+        compuestosExistentes = loadIds(Compuesto.class, "idCompuesto");
+        elementosExistentes = loadIds(Elemento.class, "idElemento");
+    }
+
     /**
      * Método para agregar datos a la tabla CompuestoElemento.
-     * Se realiza la búsqueda de los id asociados, en caso de no encontrarse se notifica al usuario
-     * y no se realiza la inserción.
+     * Los id asociados se comprueban en memoria con los identificadores leídos en {@link #prepareLoad()};
+     * en caso de no encontrarse el registro se pone en cuarentena y no se realiza la inserción.
+     * El compuesto y el elemento se asignan con referencias que no consultan la base de datos.
      *
-     * @param data Arreglo de datos a ser agregados a la tabla.
+     * @param data Registro CSV a ser agregado a la tabla.
+     * @param em   EntityManager con la transacción activa.
+     * @return `true` si la relación se ha agregado, `false` si se ha puesto en cuarentena.
      */
     @Override
-    void addInTable(String[] data) {
-        EntityManager em = entityManagerFactory.createEntityManager();
-
-        int idCompuesto = Integer.parseInt(data[0]);
-        int idElemento = Integer.parseInt(data[2]);
-        Compuesto compuesto = em.find(Compuesto.class, idCompuesto);
-        Elemento elemento = em.find(Elemento.class, idElemento);
+    boolean addInTable(CsvRecord data, EntityManager em) {
+        int idCompuesto = data.getRequiredInt(0);
+        int idElemento = data.getRequiredInt(2);
 
-        if (compuesto != null && elemento != null) {
+        if (existeRelacion(idCompuesto, idElemento)) {
             CompuestoElemento compuestoElemento = new CompuestoElemento();
 
-            compuestoElemento.setIdCompuesto(compuesto);
-            compuestoElemento.setNombreC(data[1]);
-            compuestoElemento.setIdElemento(elemento);
-            compuestoElemento.setSimbolo(data[3]);
-            compuestoElemento.setSubindice(parseInteger(data[4]));
+            compuestoElemento.setIdCompuesto(em.getReference(Compuesto.class, idCompuesto));
+            compuestoElemento.setNombreC(data.getText(1));
+            compuestoElemento.setIdElemento(em.getReference(Elemento.class, idElemento));
+            compuestoElemento.setSimbolo(data.getText(3));
+            compuestoElemento.setSubindice(data.getInt(4));
 
-            em.getTransaction().begin();
             em.persist(compuestoElemento);
-            em.getTransaction().commit();
-            em.close();
-
+            return true;
         } else {
-            System.out.println("No es posible agregar "+ Arrays.toString(data) + " , verifique que la realción exista");
+            rechazarRelacion(data, idCompuesto, idElemento);
+            return false;
+        }
+    }
+
+    /**
+     * Pone en cuarentena un registro cuya relación no existe, indicando si falta el compuesto o el elemento.
+     */
+    private void rechazarRelacion(CsvRecord data, int idCompuesto, int idElemento) {
+        boolean existeCompuesto = idCompuesto >= 0 && compuestosExistentes.get(idCompuesto);
+        String detalle = existeCompuesto ? "No existe el elemento " + idElemento : "No existe el compuesto " + idCompuesto;
+        quarantine.add(data, Quarantine.Reason.MISSING_REFERENCE, detalle);
+    }
+
+    /**
+     * Indica si existen el compuesto y el elemento de una relación.
+     */
+    private boolean existeRelacion(int idCompuesto, int idElemento) {
+        return idCompuesto >= 0 && idElemento >= 0
+                && compuestosExistentes.get(idCompuesto) && elementosExistentes.get(idElemento);
+    }
+
+    /**
+     * Devuelve el tipo de cada columna del archivo CSV de la relación CompuestoElemento.
+     *
+     * @return Esquema de las columnas del archivo CSV.
+     */
+    @Override
+    CsvSchema schema() {
+        return new CsvSchema(ColumnType.INT, ColumnType.TEXT, ColumnType.INT, ColumnType.TEXT, ColumnType.INT);
+    }
+
+    /**
+     * Devuelve las columnas de la tabla 'CompuestoElemento' que se rellenan en la carga masiva.
+     * El identificador lo genera la propia base de datos.
+     *
+     * @return Nombres de las columnas.
+     */
+    @Override
+    String[] bulkColumns() {
+        return new String[] {"compuesto_id", "nombreCompuesto", "elemento_id", "simboloElemento", "subindice"};
+    }
+
+    /**
+     * La clave primaria de la tabla es el identificador generado, que no forma parte de las columnas del CSV.
+     *
+     * @return `id`.
+     */
+    @Override
+    String primaryKeyColumn() {
+        return "id";
+    }
+
+    /**
+     * Devuelve las columnas que identifican una relación al sincronizar la tabla: el compuesto y el elemento.
+     *
+     * @return Posiciones de las columnas clave.
+     */
+    @Override
+    int[] keyColumns() {
+        return new int[] {0, 2};
+    }
+
+    /**
+     * La clave primaria de la tabla es un identificador generado, por lo que la sincronización
+     * no puede utilizar {@code ON CONFLICT} y decide entre UPDATE e INSERT.
+     *
+     * @return `false`.
+     */
+    @Override
+    boolean keyIsPrimaryKey() {
+        return false;
+    }
+
+    /**
+     * Convierte un registro del CSV en una fila de la tabla 'CompuestoElemento'.
+     * Igual que en {@link #addInTable(CsvRecord, EntityManager)}, si el compuesto o el elemento no existen
+     * el registro se pone en cuarentena y se descarta.
+     *
+     * @param data Registro CSV a cargar.
+     * @return Valores de la fila, o null si la relación no existe.
+     */
+    @Override
+    Object[] toRow(CsvRecord data) {
+        int idCompuesto = data.getRequiredInt(0);
+        int idElemento = data.getRequiredInt(2);
+
+        if (!existeRelacion(idCompuesto, idElemento)) {
+            rechazarRelacion(data, idCompuesto, idElemento);
+            return null;
         }
+        return new Object[] {idCompuesto, data.getText(1), idElemento, data.getText(3), data.getInt(4)};
     }
 
     /**
      * Método para listar los datos de la tabla CompuestoElemento.
      */
     public void listCompuestoElemento() {
-        EntityManager em = entityManagerFactory.createEntityManager();
-
-        try {
-            List<CompuestoElemento> result = em.createQuery("FROM CompuestoElemento", CompuestoElemento.class)
-                    .getResultList();
+        listCompuestoElemento(new ListOptions());
+    }
 
-            printData(result);
+    /**
+     * Lista los datos de la tabla CompuestoElemento.
+     * La tabla se recorre por orden de id sin cargarla entera en memoria, por páginas o como un flujo
+     * según las opciones (ver {@link EntityLister}), leyendo solo la tabla intermedia ({@link CompuestoElementoRow}).
+     *
+     * @param options Opciones del listado.
+     */
+    public void listCompuestoElemento(ListOptions options) {
+        try (TableRenderer table = openTable(options, COLUMNS)) {
+            table.header();
+            new EntityLister<>(entityManagerFactory, CompuestoElemento.class, CompuestoElementoRow.class,
+                    CompuestoElementoRow.SELECT, CompuestoElementoRow::id, options)
+                    .forEach(compuestoElemento -> printRow(table, compuestoElemento));
         } catch (Exception e) {
             e.printStackTrace();
-        } finally {
-            if (em != null && em.isOpen()) {
-                em.close();
-            }
         }
     }
 
@@ -123,36 +275,137 @@ public class CompuestoElementoController extends SuperController{
         int idElemento = scanner.nextInt();
         System.out.println("Buscando...\n");
 
-        EntityManager em = entityManagerFactory.createEntityManager();
-
-        Elemento elemento = em.find(Elemento.class, idElemento);
+        Elemento elemento = elementos.findById(idElemento);
 
         if (elemento != null) {
-            em.getTransaction().begin();
+            EntityManager em = entityManagerFactory.createEntityManager();
 
-            List<CompuestoElemento> result =  em.createQuery("SELECT ce FROM CompuestoElemento ce WHERE ce.idElemento = :idElemento", CompuestoElemento.class)
-                    .setParameter("idElemento", elemento)
+            List<CompuestoElementoRow> result = em.createQuery(CompuestoElementoRow.SELECT
+                            + " WHERE x.idElemento.idElemento = :idElemento ORDER BY x.id", CompuestoElementoRow.class)
+                    .setParameter("idElemento", idElemento)
                     .getResultList();
 
-                printData(result);
+            printData(result);
+            em.close();
         } else {
             System.out.println("No se encontraron coincidencias. Intente con otro id");
         }
-        em.close();
     }
 
     /**
-     * Método privado para imprimir los datos de la tabla CompuestoElemento.
+     * Método para seleccionar compuestos por los elementos que contienen.
+     * Se solicitan al usuario los símbolos de los elementos que deben estar en el compuesto, con un subíndice
+     * mínimo opcional ({@code O>=2}), y los de los elementos que no deben estar; se muestran los compuestos
+     * que cumplen todas las condiciones.
+     */
+    public void selectPorComposicion() {
+        System.out.println("Elementos que debe contener, separados por comas (por ejemplo C,H,O>=2): ");
+        String contiene = scanner.nextLine();
+        System.out.println("Elementos que no debe contener, separados por comas (vacío para ninguno): ");
+        String excluye = scanner.nextLine();
+        System.out.println("Buscando...\n");
+
+        try {
+            CompositionQuery query = new CompositionQuery();
+            for (String condicion : contiene.split(",")) {
+                String[] partes = condicion.split(">=");
+                if (partes[0].isBlank()) {
+                    continue;
+                }
+                int idElemento = idPorSimbolo(partes[0]);
+                if (partes.length > 1) {
+                    query.atLeast(idElemento, Integer.parseInt(partes[1].trim()));
+                } else {
+                    query.contains(idElemento);
+                }
+            }
+            for (String simbolo : excluye.split(",")) {
+                if (!simbolo.isBlank()) {
+                    query.excludes(idPorSimbolo(simbolo));
+                }
+            }
+
+            int[] result = findCompuestos(query);
+            if (result.length == 0) {
+                System.out.println("No se encontraron compuestos con esa composición");
+                return;
+            }
+            try (TableRenderer table = new TableRenderer(COMPOSITION_COLUMNS)) {
+                table.header();
+                for (int idCompuesto : result) {
+                    table.integer(idCompuesto).text(composiciones.name(idCompuesto)).endRow();
+                }
+            }
+            if (result.length == query.getLimit()) {
+                System.out.println("Se muestran los primeros " + query.getLimit() + " compuestos");
+            }
+        } catch (IllegalArgumentException e) {
+            System.out.println(e.getMessage());
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Busca los compuestos que cumplen todas las condiciones de una búsqueda por composición.
+     * La búsqueda se resuelve en memoria, sin consultar la base de datos, con un conjunto de bits
+     * de los elementos de cada compuesto y una lista de compuestos por elemento (ver {@link CompositionIndex}).
      *
-     * @param result Lista de objetos CompuestoElemento a imprimir.
+     * @param query Condiciones de la búsqueda.
+     * @return Los ids de los compuestos encontrados, en orden creciente.
      */
-    private void printData(List<CompuestoElemento> result) {
-        System.out.printf("%-22s %-22s %-35s %-22s %-22s %-22s%n", "id", "id_compuesto", "nombre compuesto", "id_elemento", "símbolo elemento", "subíndice");
+    public int[] findCompuestos(CompositionQuery query) {
+        return composiciones.find(query);
+    }
 
-        for (CompuestoElemento compuestoElemento : result) {
-            System.out.printf("%-22d %-22d %-35s %-22d %-22s %-22d%n",
-                    compuestoElemento.getId(), compuestoElemento.getIdCompuesto().getIdCompuesto(), compuestoElemento.getNombreC(), compuestoElemento.getIdElemento().getIdElemento(), compuestoElemento.getSimbolo(), compuestoElemento.getSubindice());
+    /**
+     * Descarta el índice de composiciones tras una carga o la eliminación de la tabla.
+     */
+    @Override
+    void tableChanged() {
+        if (composiciones != null) {
+            composiciones.invalidate();
         }
     }
 
+    /**
+     * Obtiene el id de un elemento a partir de su símbolo.
+     *
+     * @throws IllegalArgumentException Si no hay ningún elemento con ese símbolo.
+     */
+    private int idPorSimbolo(String simbolo) {
+        Elemento elemento = elementos.findBySymbol(simbolo.trim());
+        if (elemento == null) {
+            throw new IllegalArgumentException("No existe ningún elemento con el símbolo " + simbolo.trim());
+        }
+        return (int) elemento.getIdElemento();
+    }
+
+    /**
+     * Método privado para imprimir los datos de la tabla CompuestoElemento.
+     *
+     * @param result Lista de filas de CompuestoElemento a imprimir.
+     */
+    private void printData(List<CompuestoElementoRow> result) {
+        try (TableRenderer table = new TableRenderer(COLUMNS)) {
+            table.header();
+            for (CompuestoElementoRow compuestoElemento : result) {
+                printRow(table, compuestoElemento);
+            }
+        }
+    }
+
+    /**
+     * Imprime una fila de la tabla CompuestoElemento.
+     *
+     * @param table Tabla en la que se escribe.
+     * @param compuestoElemento Fila de la relación a imprimir.
+     */
+    private void printRow(TableRenderer table, CompuestoElementoRow compuestoElemento) {
+        table.integer(compuestoElemento.id()).integer(compuestoElemento.idCompuesto())
+                .text(compuestoElemento.nombreC()).integer(compuestoElemento.idElemento())
+                .text(compuestoElemento.simbolo()).integer(compuestoElemento.subindice())
+                .endRow();
+    }
+
 }
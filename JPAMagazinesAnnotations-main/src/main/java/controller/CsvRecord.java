@@ -0,0 +1,100 @@
+package controller;
+
+import java.math.BigDecimal;
+
+/**
+ * La interfaz CsvRecord representa un registro leído de un archivo CSV con acceso tipado a sus columnas.
+ * Las conversiones siguen las mismas reglas que {@link SuperController#parseInteger(String)} y
+ * {@link SuperController#parseBigDecimal(String)}, de modo que los controladores obtienen los mismos valores
+ * tanto si el registro procede de OpenCSV como del lector tipado {@link TypedCsvReader}.
+ */
+public interface CsvRecord {
+
+    /**
+     * Obtiene el número de columnas del registro.
+     *
+     * @return El número de columnas.
+     */
+    int size();
+
+    /**
+     * Obtiene la posición del registro en el archivo, empezando por 1.
+     *
+     * @return El número de registro.
+     */
+    long getRecordNumber();
+
+    /**
+     * Indica si una columna está vacía.
+     *
+     * @param column Posición de la columna, empezando por 0.
+     * @return `true` si la columna está vacía, `false` si no.
+     */
+    boolean isEmpty(int column);
+
+    /**
+     * Obtiene el valor entero de una columna. Si la columna está vacía o no es un entero válido, devuelve 0.
+     *
+     * @param column Posición de la columna, empezando por 0.
+     * @return El valor entero de la columna.
+     */
+    int getInt(int column);
+
+    /**
+     * Obtiene el valor entero de una columna que debe contener un entero válido.
+     *
+     * @param column Posición de la columna, empezando por 0.
+     * @return El valor entero de la columna.
+     * @throws NumberFormatException Si la columna está vacía o no es un entero válido.
+     */
+    int getRequiredInt(int column);
+
+    /**
+     * Obtiene el valor decimal de una columna con tres decimales, redondeando hacia arriba a partir de la mitad.
+     *
+     * @param column Posición de la columna, empezando por 0.
+     * @return El valor decimal de la columna, o null si está vacía.
+     * @throws NumberFormatException Si la columna no es un número válido.
+     */
+    BigDecimal getDecimal(int column);
+
+    /**
+     * Obtiene el texto de una columna tal y como aparece en el archivo, sin las comillas.
+     *
+     * @param column Posición de la columna, empezando por 0.
+     * @return El texto de la columna.
+     */
+    String getText(int column);
+
+    /**
+     * Devuelve un registro con el mismo contenido que sigue siendo válido después de leer el siguiente registro.
+     * Los lectores que reutilizan el mismo objeto para cada registro devuelven una copia.
+     *
+     * @return Un registro independiente del lector.
+     */
+    CsvRecord detach();
+
+    /**
+     * Obtiene el texto de todas las columnas del registro.
+     *
+     * @return Arreglo con el texto de cada columna.
+     */
+    default String[] toArray() {
+        String[] fields = new String[size()];
+        for (int i = 0; i < fields.length; i++) {
+            fields[i] = getText(i);
+        }
+        return fields;
+    }
+
+    /**
+     * Crea un registro a partir de los campos leídos por OpenCSV.
+     *
+     * @param fields       Campos del registro.
+     * @param recordNumber Posición del registro en el archivo, empezando por 1.
+     * @return El registro.
+     */
+    static CsvRecord of(String[] fields, long recordNumber) {
+        return new StringRecord(fields, recordNumber);
+    }
+}
@@ -0,0 +1,86 @@
+package controller;
+
+import java.util.Arrays;
+
+/**
+ * La clase CsvSchema describe el tipo de cada columna de un archivo CSV para el lector tipado {@link TypedCsvReader}.
+ * Las columnas numéricas se convierten directamente desde los bytes del archivo, sin crear un String por campo.
+ */
+public final class CsvSchema {
+
+    /**
+     * Número máximo de columnas de un esquema.
+     */
+    public static final int MAX_COLUMNS = 64;
+
+    /**
+     * Número de decimales con los que se guardan las columnas decimales, igual que en
+     * {@link SuperController#parseBigDecimal(String)}.
+     */
+    public static final int DECIMAL_SCALE = 3;
+
+    /**
+     * Tipos de columna admitidos.
+     */
+    public enum ColumnType {
+        /**
+         * Número entero de 32 bits.
+         */
+        INT,
+        /**
+         * Número decimal con {@link #DECIMAL_SCALE} decimales.
+         */
+        DECIMAL,
+        /**
+         * Texto libre.
+         */
+        TEXT
+    }
+
+    /**
+     * Tipo de cada columna.
+     */
+    private final ColumnType[] types;
+
+    /**
+     * Crea un esquema con los tipos de columna proporcionados.
+     *
+     * @param types Tipo de cada columna, en orden.
+     * @throws IllegalArgumentException Si no hay columnas o hay más de {@link #MAX_COLUMNS}.
+     */
+    public CsvSchema(ColumnType... types) {
+        if (types.length == 0 || types.length > MAX_COLUMNS) {
+            throw new IllegalArgumentException("Número de columnas no válido: " + types.length);
+        }
+        this.types = types.clone();
+    }
+
+    /**
+     * Obtiene el número de columnas del esquema.
+     *
+     * @return El número de columnas.
+     */
+    public int size() {
+        return types.length;
+    }
+
+    /**
+     * Obtiene el tipo de una columna.
+     *
+     * @param column Posición de la columna, empezando por 0.
+     * @return El tipo de la columna.
+     */
+    public ColumnType type(int column) {
+        return types[column];
+    }
+
+    /**
+     * Devuelve una representación en cadena del esquema.
+     *
+     * @return Una cadena con los tipos de las columnas.
+     */
+    @Override
+    public String toString() {
+        return "CsvSchema " + Arrays.toString(types);
+    }
+}
@@ -1,12 +1,17 @@
 package controller;
 
 import model.Elemento;
+import model.ElementoRow;
 import model.Estado;
 import model.Serie;
+import controller.CsvSchema.ColumnType;
+import view.TableRenderer;
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Scanner;
+import java.util.stream.Collectors;
 
 /**
  * Controlador para la gestión de la entidad Elemento.
@@ -16,6 +21,47 @@ import java.util.Scanner;
 public class ElementoController extends SuperController {
     private Scanner scanner;
 
+    /**
+     * Columnas del listado de la tabla elementos.
+     */
+    private static final TableRenderer.Column[] COLUMNS = {
+            new TableRenderer.Column("id_elemento", 22), new TableRenderer.Column("Nombre", 22),
+            new TableRenderer.Column("Símbolo", 22), new TableRenderer.Column("Peso", 22, 4),
+            new TableRenderer.Column("id_Serie", 22), new TableRenderer.Column("id_Estado", 22),
+            new TableRenderer.Column("Energía", 22), new TableRenderer.Column("EN", 22, 4),
+            new TableRenderer.Column("Fusión", 22, 4), new TableRenderer.Column("Ebullición", 22, 4),
+            new TableRenderer.Column("EA", 22, 4), new TableRenderer.Column("Ionización", 22, 4),
+            new TableRenderer.Column("Radio", 22), new TableRenderer.Column("Dureza", 22, 4),
+            new TableRenderer.Column("Módulo", 22, 4), new TableRenderer.Column("Densidad", 22, 4),
+            new TableRenderer.Column("Cond", 22, 4), new TableRenderer.Column("Calor", 22, 4),
+            new TableRenderer.Column("Abundancia", 22, 4), new TableRenderer.Column("Dto", 22)
+    };
+
+    /**
+     * Referencias a las series existentes durante la carga; las series desconocidas se resuelven a la serie 10.
+     */
+    private ReferenceLookup<Serie> series;
+
+    /**
+     * Referencias a los estados existentes durante la carga; los estados desconocidos se resuelven al estado 5.
+     */
+    private ReferenceLookup<Estado> estados;
+
+    /**
+     * Número máximo de elementos que se muestran al buscar por nombre.
+     */
+    public static final int SEARCH_LIMIT = 50;
+
+    /**
+     * Búsqueda de elementos por nombre.
+     */
+    private NameSearch nombres;
+
+    /**
+     * Elementos en memoria para las búsquedas por id, símbolo, prefijo y parecido.
+     */
+    private ElementoIndex indice;
+
     /**
      * Crea una nueva instancia de ElementoController sin inicializar los parámetros.
      */
@@ -30,10 +76,12 @@ public class ElementoController extends SuperController {
     public ElementoController(EntityManagerFactory entityManagerFactory) {
         super(entityManagerFactory, "elementos");
         scanner = new Scanner(System.in);
+        nombres = new NameSearch(entityManagerFactory, "elementos", "idElemento", "nombre");
+        indice = new ElementoIndex(entityManagerFactory);
     }
 
     /**
-     * Método para crear la tabla de elementos si no existe.
+     * Método para crear la tabla de elementos si no existe, junto con el índice de la búsqueda por nombre.
      */
     public void createElementos() {
         EntityManager em = entityManagerFactory.createEntityManager();
@@ -72,111 +120,228 @@ public class ElementoController extends SuperController {
             System.out.println("Tabla 'elementos' creada correctamente");
         }
         em.close();
+        nombres.createDatabaseIndex();
+    }
+
+    /**
+     * Lee una sola vez las series y los estados existentes para resolver las referencias de la carga en memoria.
+     */
+    @Override
+    void prepareLoad() {
+        EntityManager em = entityManagerFactory.createEntityManager();
+
+        try {
+            series = ReferenceLookup.load(em, Serie.class, "idSerie", 10);
+            estados = ReferenceLookup.load(em, Estado.class, "idEstado", 5);
+        } finally {
+            em.close();
+        }
+    }
+
+    /**
+     * Descarta el índice de elementos en memoria tras una carga o la eliminación de la tabla
+     * y vuelve a comprobar el índice de la búsqueda por nombre.
+     */
+    @Override
+    void tableChanged() {
+        if (indice != null) {
+            indice.invalidate();
+        }
+        if (nombres != null) {
+            nombres.invalidate();
+        }
+    }
+
+    /**
+     * Obtiene el índice en memoria de los elementos, que se invalida con cada escritura de este controlador.
+     *
+     * @return El índice de elementos.
+     */
+    public ElementoIndex getIndex() {
+        return indice;
     }
 
     /**
      * Método para agregar un nuevo elemento a la tabla de elementos en la base de datos.
      * Los datos del elemento se pasan como un arreglo de Strings.
-     * Se realiza una búsqueda de la serie y el estado del elemento en la base de datos.
-     * Si no se encuentran, se asignan valores predeterminados.
+     * La serie y el estado del elemento se resuelven en memoria con las referencias leídas en {@link #prepareLoad()},
+     * sin consultar la base de datos. Si no existen, se asignan la serie 10 y el estado 5
+     * y el registro se anota en la cuarentena.
      *
-     * @param data Arreglo de Strings que contiene los datos del elemento.
+     * @param data Registro CSV que contiene los datos del elemento.
+     * @param em   EntityManager con la transacción activa.
+     * @return Siempre `true`: el elemento se agrega aunque su serie o su estado no existan.
      */
     @Override
-    void addInTable(String[] data) {
-        EntityManager em = entityManagerFactory.createEntityManager();
-
+    boolean addInTable(CsvRecord data, EntityManager em) {
         Elemento elemento = new Elemento();
 
-        elemento.setIdElemento(parseInteger(data[0]));
-        elemento.setNombre(data[1]);
-        elemento.setSimbolo(data[2]);
-        elemento.setPeso(parseBigDecimal(data[3]));
+        elemento.setIdElemento(data.getInt(0));
+        elemento.setNombre(data.getText(1));
+        elemento.setSimbolo(data.getText(2));
+        elemento.setPeso(data.getDecimal(3));
+        comprobarReferencias(data);
+        elemento.setIdSerie(series.resolve(data.getInt(4), em));
+        elemento.setIdEstado(estados.resolve(data.getInt(5), em));
+        elemento.setEnergia(data.getText(6));
+        elemento.setEN(data.getDecimal(7));
+        elemento.setFusion(data.getDecimal(8));
+        elemento.setEbullicion(data.getDecimal(9));
+        elemento.setEA(data.getDecimal(10));
+        elemento.setIonizacion(data.getDecimal(11));
+        elemento.setRadio(data.getInt(12));
+        elemento.setDureza(data.getDecimal(13));
+        elemento.setModulo(data.getDecimal(14));
+        elemento.setDensidad(data.getDecimal(15));
+        elemento.setCond(data.getDecimal(16));
+        elemento.setCalor(data.getDecimal(17));
+        elemento.setAbundancia(data.getDecimal(18));
+        elemento.setDto(data.getInt(19));
 
-        int idSerie = parseInteger(data[4]);
-        Serie serie = em.find(Serie.class, idSerie);
-        if (serie == null) {
-            serie = em.find(Serie.class, 10);
-        }
-        elemento.setIdSerie(serie);
+        em.persist(elemento);
+        return true;
+    }
 
-        int idEstado = parseInteger(data[5]);
-        Estado estado = em.find(Estado.class, idEstado);
-        if (estado == null) {
-            estado = em.find(Estado.class, 5);
-        }
-        elemento.setIdEstado(estado);
-
-        elemento.setEnergia(data[6]);
-        elemento.setEN(parseBigDecimal(data[7]));
-        elemento.setFusion(parseBigDecimal(data[8]));
-        elemento.setEbullicion(parseBigDecimal(data[9]));
-        elemento.setEA(parseBigDecimal(data[10]));
-        elemento.setIonizacion(parseBigDecimal(data[11]));
-        elemento.setRadio(parseInteger(data[12]));
-        elemento.setDureza(parseBigDecimal(data[13]));
-        elemento.setModulo(parseBigDecimal(data[14]));
-        elemento.setDensidad(parseBigDecimal(data[15]));
-        elemento.setCond(parseBigDecimal(data[16]));
-        elemento.setCalor(parseBigDecimal(data[17]));
-        elemento.setAbundancia(parseBigDecimal(data[18]));
-        elemento.setDto(parseInteger(data[19]));
+    /**
+     * Devuelve el tipo de cada columna del archivo CSV del Elemento.
+     *
+     * @return Esquema de las columnas del archivo CSV.
+     */
+    @Override
+    CsvSchema schema() {
+        return new CsvSchema(
+                ColumnType.INT, ColumnType.TEXT, ColumnType.TEXT, ColumnType.DECIMAL, ColumnType.INT, ColumnType.INT, ColumnType.TEXT, ColumnType.DECIMAL, ColumnType.DECIMAL, ColumnType.DECIMAL, ColumnType.DECIMAL, ColumnType.DECIMAL,
+                ColumnType.INT, ColumnType.DECIMAL, ColumnType.DECIMAL, ColumnType.DECIMAL, ColumnType.DECIMAL, ColumnType.DECIMAL, ColumnType.DECIMAL, ColumnType.INT);
+    }
 
-        em.getTransaction().begin();
-        em.persist(elemento);
-        em.getTransaction().commit();
-        em.close();
+    /**
+     * Devuelve las columnas de la tabla 'elementos' que se rellenan en la carga masiva.
+     *
+     * @return Nombres de las columnas.
+     */
+    @Override
+    String[] bulkColumns() {
+        return new String[] {"idElemento", "nombre", "simbolo", "peso", "idSerie", "idEstado", "energia", "en", "fusion",
+                "ebullicion", "ea", "ionizacion", "radio", "dureza", "modulo", "densidad", "cond", "calor", "abundancia", "dto"};
+    }
+
+    /**
+     * Convierte un registro del CSV en una fila de la tabla 'elementos'.
+     * Igual que en {@link #addInTable(CsvRecord, EntityManager)}, si la serie o el estado no existen
+     * se asignan la serie 10 y el estado 5, o null si estos tampoco existen, y el registro se anota en la cuarentena.
+     *
+     * @param data Registro CSV que contiene los datos del elemento.
+     * @return Valores de la fila.
+     */
+    @Override
+    Object[] toRow(CsvRecord data) {
+        comprobarReferencias(data);
+        return new Object[] {
+                data.getInt(0), data.getText(1), data.getText(2), data.getDecimal(3),
+                series.resolveId(data.getInt(4)),
+                estados.resolveId(data.getInt(5)),
+                data.getText(6), data.getDecimal(7), data.getDecimal(8), data.getDecimal(9),
+                data.getDecimal(10), data.getDecimal(11), data.getInt(12), data.getDecimal(13),
+                data.getDecimal(14), data.getDecimal(15), data.getDecimal(16), data.getDecimal(17),
+                data.getDecimal(18), data.getInt(19)
+        };
+    }
 
+    /**
+     * Anota en la cuarentena los registros cuya serie o estado no existen y se sustituyen por los de defecto.
+     */
+    private void comprobarReferencias(CsvRecord data) {
+        int idSerie = data.getInt(4);
+        int idEstado = data.getInt(5);
+        String detalle = "";
+
+        if (!series.contains(idSerie)) {
+            detalle = "No existe la serie " + idSerie + "; se asigna la serie " + series.resolveId(idSerie);
+        }
+        if (!estados.contains(idEstado)) {
+            detalle += (detalle.isEmpty() ? "" : ". ") + "No existe el estado " + idEstado
+                    + "; se asigna el estado " + estados.resolveId(idEstado);
+        }
+        if (!detalle.isEmpty()) {
+            quarantine.add(data, Quarantine.Reason.DEFAULTED_REFERENCE, detalle);
+        }
     }
 
     /**
      * Método para listar los datos de la tabla elementos.
      */
     public void listElementos() {
-        EntityManager em = entityManagerFactory.createEntityManager();
-
-        try {
-            List<Elemento> result = em.createQuery("FROM Elemento", Elemento.class)
-                    .getResultList();
+        listElementos(new ListOptions());
+    }
 
-            printData(result);
+    /**
+     * Lista los datos de la tabla elementos.
+     * La tabla se recorre por orden de id sin cargarla entera en memoria, por páginas o como un flujo
+     * según las opciones (ver {@link EntityLister}), leyendo solo las columnas del listado ({@link ElementoRow}).
+     *
+     * @param options Opciones del listado.
+     */
+    public void listElementos(ListOptions options) {
+        try (TableRenderer table = openTable(options, COLUMNS)) {
+            table.header();
+            new EntityLister<>(entityManagerFactory, Elemento.class, ElementoRow.class, ElementoRow.SELECT,
+                    ElementoRow::idElemento, options).forEach(elemento -> printRow(table, elemento));
         } catch (Exception e) {
             e.printStackTrace();
-        } finally {
-            if (em != null && em.isOpen()) {
-                em.close();
-            }
         }
     }
 
     /**
      * Método para buscar elementos en la base de datos por su nombre.
      * Se solicita al usuario que ingrese el texto a buscar.
-     * Se realiza una consulta utilizando LIKE en la base de datos y se imprime el resultado.
+     * Se buscan los elementos cuyo nombre contiene el texto, sin distinguir mayúsculas ni acentos,
+     * y se imprimen los primeros {@link #SEARCH_LIMIT}.
      */
     public void selectText() {
         System.out.println("Ingresa el texto: ");
         String texto = scanner.nextLine();
         System.out.println("Buscando...\n");
 
-        EntityManager em = entityManagerFactory.createEntityManager();
-        em.getTransaction().begin();
-
         try {
-            List<Elemento> result = em.createQuery("SELECT e FROM Elemento e WHERE e.nombre LIKE :texto", Elemento.class)
-                    .setParameter("texto", "%" + texto + "%")
-                    .getResultList();
+            List<Elemento> result = searchByName(texto, SEARCH_LIMIT);
 
             if (!result.isEmpty()) {
-                printData(result);
+                printData(result.stream().map(ElementoRow::new).collect(Collectors.toList()));
+                if (result.size() == SEARCH_LIMIT) {
+                    System.out.println("Se muestran las primeras " + SEARCH_LIMIT + " coincidencias");
+                }
             } else {
                 System.out.println("No se encontraron coincidencias. Intente con otro texto");
+                List<Elemento> similares = indice.findSimilar(texto, texto.length() <= 4 ? 1 : 2, 5);
+                if (!similares.isEmpty()) {
+                    System.out.println("Elementos con un nombre parecido: " + similares.stream()
+                            .map(Elemento::getNombre).collect(Collectors.joining(", ")));
+                }
             }
-        }  finally {
-            em.getTransaction().commit();
-            em.close();
+        } catch (Exception e) {
+            e.printStackTrace();
         }
+    }
 
+    /**
+     * Busca los elementos cuyo nombre contiene un texto, sin distinguir mayúsculas ni acentos.
+     * En PostgreSQL la búsqueda utiliza un índice de trigramas y en otras bases de datos un índice en memoria
+     * (ver {@link NameSearch}); en ambos casos no se recorre la tabla con {@code LIKE '%texto%'}.
+     *
+     * @param texto  Texto a buscar.
+     * @param limite Número máximo de elementos que se devuelven.
+     * @return Los elementos encontrados, por orden de id, con su serie y su estado; se obtienen de
+     * {@link #getIndex()} y no deben modificarse.
+     */
+    public List<Elemento> searchByName(String texto, int limite) {
+        List<Elemento> result = new ArrayList<>();
+        for (int id : nombres.search(texto, limite)) {
+            Elemento elemento = indice.findById(id);
+            if (elemento != null) {
+                result.add(elemento);
+            }
+        }
+        return result;
     }
 
     /**
@@ -217,12 +382,13 @@ public class ElementoController extends SuperController {
                 em.merge(elemento);
             }
 
-            List<Elemento> resultList = em.createQuery("SELECT e FROM Elemento e WHERE e.dto = :year", Elemento.class)
+            List<ElementoRow> resultList = em.createQuery(ElementoRow.SELECT + " WHERE x.dto = :year", ElementoRow.class)
                     .setParameter("year", year)
                     .getResultList();
 
             printData(resultList);
             em.getTransaction().commit();
+            tableChanged();
 
         }
         em.close();
@@ -254,6 +420,7 @@ public class ElementoController extends SuperController {
 
             try {
                 em.getTransaction().commit();
+                tableChanged();
             } catch (Exception e) {
                 e.printStackTrace();
             }
@@ -265,19 +432,32 @@ public class ElementoController extends SuperController {
     /**
      * Método privado para imprimir los datos de la tabla elementos.
      *
-     * @param result Lista de objetos CompuestoElemento a imprimir.
+     * @param result Lista de filas de elementos a imprimir.
      */
-    private void printData (List<Elemento> result) {
-        // Imprimir encabezado de la tabla
-        System.out.printf("%-22s %-22s %-22s %-22s %-22s %-22s %-22s %-22s %-22s %-22s %-22s %-22s %-22s %-22s %-22s %-22s %-22s %-22s %-22s %-22s%n",
-                "id_elemento", "Nombre", "Símbolo", "Peso", "id_Serie", "id_Estado", "Energía", "EN", "Fusión", "Ebullición", "EA", "Ionización", "Radio", "Dureza", "Módulo", "Densidad", "Cond", "Calor", "Abundancia", "Dto");
-
-        for (Elemento elemento : result) {
-            // Imprimir cada fila de la tabla
-            System.out.printf("%-22d %-22s %-22s %-22.4f %-22d %-22d %-22s %-22.4f %-22.4f %-22.4f %-22.4f %-22.4f %-22d %-22.4f %-22.4f %-22.4f %-22.4f %-22.4f %-22.4f %-22d%n",
-                    elemento.getIdElemento(), elemento.getNombre(), elemento.getSimbolo(), elemento.getPeso(), elemento.getIdSerie().getIdSerie(), elemento.getIdEstado().getIdEstado(), elemento.getEnergia(), elemento.getEN(), elemento.getFusion(),
-                    elemento.getEbullicion(), elemento.getEA(), elemento.getIonizacion(), elemento.getRadio(), elemento.getDureza(), elemento.getDureza(), elemento.getModulo(), elemento.getCond(), elemento.getCalor(), elemento.getAbundancia(), elemento.getDto());
+    private void printData (List<ElementoRow> result) {
+        try (TableRenderer table = new TableRenderer(COLUMNS)) {
+            table.header();
+            for (ElementoRow elemento : result) {
+                printRow(table, elemento);
+            }
         }
     }
 
+    /**
+     * Imprime una fila de la tabla elementos.
+     *
+     * @param table Tabla en la que se escribe.
+     * @param elemento Fila del elemento a imprimir.
+     */
+    private void printRow(TableRenderer table, ElementoRow elemento) {
+        table.integer(elemento.idElemento()).text(elemento.nombre()).text(elemento.simbolo())
+                .decimal(elemento.peso()).integer(elemento.idSerie()).integer(elemento.idEstado()).text(elemento.energia())
+                .decimal(elemento.EN()).decimal(elemento.fusion()).decimal(elemento.ebullicion())
+                .decimal(elemento.EA()).decimal(elemento.ionizacion()).integer(elemento.radio())
+                .decimal(elemento.dureza()).decimal(elemento.modulo()).decimal(elemento.densidad())
+                .decimal(elemento.cond()).decimal(elemento.calor()).decimal(elemento.abundancia())
+                .integer(elemento.dto())
+                .endRow();
+    }
+
 }
@@ -0,0 +1,344 @@
+package controller;
+
+import model.Elemento;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * La clase ElementoIndex mantiene en memoria los elementos de la tabla elementos para buscarlos por id, por símbolo,
+ * por prefijo del nombre o del símbolo y por parecido, sin consultar la base de datos.
+ * Los nombres y los símbolos se comparan sin distinguir mayúsculas ni acentos (ver {@link NameSearch#normalize(String)})
+ * y se guardan en dos árboles de prefijos (tries); la búsqueda por parecido recorre esos árboles calculando la distancia
+ * de edición (Levenshtein) con el texto buscado y descarta cada rama en cuanto supera la distancia máxima.
+ * El índice se construye con una única consulta la primera vez que se utiliza y se vuelve a construir, también
+ * cuando se utiliza, después de {@link #invalidate()}; {@code ElementoController} lo invalida tras cada escritura.
+ * Los elementos devueltos están desligados del contexto de persistencia, tienen cargados la serie y el estado
+ * y se comparten entre todas las búsquedas, por lo que no deben modificarse.
+ */
+public class ElementoIndex {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Contenido actual del índice, o null si debe construirse antes de la siguiente búsqueda.
+     */
+    private volatile Snapshot snapshot;
+
+    /**
+     * Crea un índice vacío que se construirá en la primera búsqueda.
+     *
+     * @param entityManagerFactory EntityManagerFactory para la gestión de entidades.
+     */
+    public ElementoIndex(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    /**
+     * Vuelve a construir el índice a partir de la tabla elementos.
+     */
+    public void refresh() {
+        snapshot = load();
+    }
+
+    /**
+     * Marca el índice como desactualizado; se volverá a construir en la siguiente búsqueda.
+     */
+    public void invalidate() {
+        snapshot = null;
+    }
+
+    /**
+     * Obtiene el número de elementos del índice.
+     *
+     * @return El número de elementos.
+     */
+    public int size() {
+        return snapshot().elementos.length;
+    }
+
+    /**
+     * Busca un elemento por su id. Si no está en el índice se busca en la base de datos y, si existe,
+     * el índice se marca como desactualizado.
+     *
+     * @param idElemento Id del elemento.
+     * @return El elemento, o null si no existe.
+     */
+    public Elemento findById(int idElemento) {
+        Snapshot s = snapshot();
+        int position = Arrays.binarySearch(s.ids, idElemento);
+        if (position >= 0) {
+            return s.elementos[position];
+        }
+
+        EntityManager em = entityManagerFactory.createEntityManager();
+        try {
+            Elemento elemento = em.find(Elemento.class, idElemento,
+                    Map.of("javax.persistence.fetchgraph", em.getEntityGraph(Elemento.GRAPH_SERIE_ESTADO)));
+            if (elemento != null) {
+                invalidate();
+            }
+            return elemento;
+        } finally {
+            em.close();
+        }
+    }
+
+    /**
+     * Busca un elemento por su símbolo, sin distinguir mayúsculas ni acentos.
+     *
+     * @param simbolo Símbolo del elemento.
+     * @return El elemento, o null si no hay ninguno con ese símbolo.
+     */
+    public Elemento findBySymbol(String simbolo) {
+        Snapshot s = snapshot();
+        Integer position = s.bySymbol.get(NameSearch.normalize(simbolo));
+        return position == null ? null : s.elementos[position];
+    }
+
+    /**
+     * Busca los elementos cuyo nombre o símbolo empieza por un texto, sin distinguir mayúsculas ni acentos.
+     *
+     * @param prefix Principio del nombre o del símbolo.
+     * @param limit  Número máximo de elementos que se devuelven.
+     * @return Los elementos encontrados, por orden de id.
+     */
+    public List<Elemento> findByPrefix(String prefix, int limit) {
+        Snapshot s = snapshot();
+        String key = NameSearch.normalize(prefix);
+        boolean[] found = new boolean[s.elementos.length];
+        s.names.collectPrefix(key, found);
+        s.symbols.collectPrefix(key, found);
+
+        List<Elemento> result = new ArrayList<>();
+        for (int i = 0; i < found.length && result.size() < limit; i++) {
+            if (found[i]) {
+                result.add(s.elementos[i]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Busca los elementos cuyo nombre o símbolo se parece a un texto, es decir, que se obtienen de él con como máximo
+     * {@code maxDistance} inserciones, eliminaciones o sustituciones de caracteres, sin distinguir mayúsculas ni acentos.
+     *
+     * @param text        Texto buscado.
+     * @param maxDistance Distancia de edición máxima.
+     * @param limit       Número máximo de elementos que se devuelven.
+     * @return Los elementos encontrados, de más a menos parecido y, a igual distancia, por orden de id.
+     */
+    public List<Elemento> findSimilar(String text, int maxDistance, int limit) {
+        Snapshot s = snapshot();
+        String key = NameSearch.normalize(text);
+        int[] distances = new int[s.elementos.length];
+        Arrays.fill(distances, Integer.MAX_VALUE);
+        s.names.collectSimilar(key, maxDistance, distances);
+        s.symbols.collectSimilar(key, maxDistance, distances);
+
+        List<Integer> positions = new ArrayList<>();
+        for (int i = 0; i < distances.length; i++) {
+            if (distances[i] <= maxDistance) {
+                positions.add(i);
+            }
+        }
+        positions.sort(Comparator.comparingInt((Integer i) -> distances[i]).thenComparingInt(i -> i));
+
+        List<Elemento> result = new ArrayList<>();
+        for (int i = 0; i < positions.size() && i < limit; i++) {
+            result.add(s.elementos[positions.get(i)]);
+        }
+        return result;
+    }
+
+    /**
+     * Obtiene el contenido actual del índice, construyéndolo si es necesario.
+     */
+    private Snapshot snapshot() {
+        Snapshot s = snapshot;
+        if (s == null) {
+            synchronized (this) {
+                s = snapshot;
+                if (s == null) {
+                    s = load();
+                    snapshot = s;
+                }
+            }
+        }
+        return s;
+    }
+
+    /**
+     * Lee todos los elementos, con su serie y su estado, en una única consulta.
+     */
+    private Snapshot load() {
+        EntityManager em = entityManagerFactory.createEntityManager();
+
+        try {
+            List<Elemento> elementos = em.createQuery("SELECT e FROM Elemento e LEFT JOIN FETCH e.idSerie "
+                    + "LEFT JOIN FETCH e.idEstado ORDER BY e.idElemento", Elemento.class).getResultList();
+            return new Snapshot(elementos.toArray(new Elemento[0]));
+        } finally {
+            em.close();
+        }
+    }
+
+    /**
+     * Contenido del índice en un momento dado; no se modifica una vez creado.
+     */
+    private static final class Snapshot {
+
+        /**
+         * Elementos por orden de id; los árboles guardan posiciones de este arreglo.
+         */
+        private final Elemento[] elementos;
+
+        /**
+         * Id de cada elemento, en el mismo orden.
+         */
+        private final int[] ids;
+
+        private final Map<String, Integer> bySymbol = new HashMap<>();
+        private final Trie names;
+        private final Trie symbols;
+
+        Snapshot(Elemento[] elementos) {
+            this.elementos = elementos;
+            this.ids = new int[elementos.length];
+            TrieBuilder names = new TrieBuilder();
+            TrieBuilder symbols = new TrieBuilder();
+
+            for (int i = 0; i < elementos.length; i++) {
+                ids[i] = (int) elementos[i].getIdElemento();
+                if (elementos[i].getNombre() != null) {
+                    names.add(NameSearch.normalize(elementos[i].getNombre()), i);
+                }
+                if (elementos[i].getSimbolo() != null) {
+                    String simbolo = NameSearch.normalize(elementos[i].getSimbolo());
+                    symbols.add(simbolo, i);
+                    bySymbol.putIfAbsent(simbolo, i);
+                }
+            }
+            this.names = names.build();
+            this.symbols = symbols.build();
+        }
+    }
+
+    /**
+     * Nodo de un árbol de prefijos inmutable. Los hijos se guardan ordenados por carácter y cada nodo
+     * guarda las posiciones de los elementos cuyo texto termina en él.
+     */
+    private static final class Trie {
+
+        private static final int[] NONE = new int[0];
+
+        private final char[] labels;
+        private final Trie[] children;
+        private final int[] values;
+
+        Trie(char[] labels, Trie[] children, int[] values) {
+            this.labels = labels;
+            this.children = children;
+            this.values = values;
+        }
+
+        /**
+         * Marca los elementos cuyo texto empieza por el prefijo.
+         */
+        void collectPrefix(String prefix, boolean[] found) {
+            Trie node = this;
+            for (int i = 0; i < prefix.length() && node != null; i++) {
+                node = node.child(prefix.charAt(i));
+            }
+            if (node != null) {
+                node.collectAll(found);
+            }
+        }
+
+        /**
+         * Anota la menor distancia de edición entre el texto y el de cada elemento, si no supera la máxima.
+         * La fila de la matriz de Levenshtein de cada nodo se calcula a partir de la de su padre, de modo que
+         * los prefijos comunes se calculan una sola vez.
+         */
+        void collectSimilar(String text, int maxDistance, int[] distances) {
+            int[] row = new int[text.length() + 1];
+            for (int i = 0; i < row.length; i++) {
+                row[i] = i;
+            }
+            collectSimilar(text, maxDistance, row, distances);
+        }
+
+        private void collectSimilar(String text, int maxDistance, int[] row, int[] distances) {
+            int distance = row[text.length()];
+            if (distance <= maxDistance) {
+                for (int value : values) {
+                    distances[value] = Math.min(distances[value], distance);
+                }
+            }
+
+            for (int c = 0; c < labels.length; c++) {
+                int[] next = new int[row.length];
+                next[0] = row[0] + 1;
+                int min = next[0];
+                for (int i = 1; i < row.length; i++) {
+                    int cost = text.charAt(i - 1) == labels[c] ? 0 : 1;
+                    next[i] = Math.min(Math.min(next[i - 1] + 1, row[i] + 1), row[i - 1] + cost);
+                    min = Math.min(min, next[i]);
+                }
+                if (min <= maxDistance) {
+                    children[c].collectSimilar(text, maxDistance, next, distances);
+                }
+            }
+        }
+
+        private void collectAll(boolean[] found) {
+            for (int value : values) {
+                found[value] = true;
+            }
+            for (Trie child : children) {
+                child.collectAll(found);
+            }
+        }
+
+        private Trie child(char label) {
+            int position = Arrays.binarySearch(labels, label);
+            return position >= 0 ? children[position] : null;
+        }
+    }
+
+    /**
+     * Construye un {@link Trie} a partir de los textos de los elementos.
+     */
+    private static final class TrieBuilder {
+
+        private final TreeMap<Character, TrieBuilder> children = new TreeMap<>();
+        private final List<Integer> values = new ArrayList<>();
+
+        void add(String text, int value) {
+            TrieBuilder node = this;
+            for (int i = 0; i < text.length(); i++) {
+                node = node.children.computeIfAbsent(text.charAt(i), k -> new TrieBuilder());
+            }
+            node.values.add(value);
+        }
+
+        Trie build() {
+            char[] labels = new char[children.size()];
+            Trie[] nodes = new Trie[children.size()];
+            int i = 0;
+            for (Map.Entry<Character, TrieBuilder> entry : children.entrySet()) {
+                labels[i] = entry.getKey();
+                nodes[i++] = entry.getValue().build();
+            }
+            int[] array = values.isEmpty() ? Trie.NONE : values.stream().mapToInt(Integer::intValue).toArray();
+            return new Trie(labels, nodes, array);
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package controller;
+
+import org.hibernate.annotations.QueryHints;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.TypedQuery;
+import javax.persistence.metamodel.EntityType;
+import javax.persistence.metamodel.SingularAttribute;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * La clase EntityLister recorre todas las filas de una entidad por orden de clave primaria sin cargar la tabla
+ * entera en el contexto de persistencia, de modo que la memoria no depende del tamaño de la tabla y las primeras
+ * filas se obtienen enseguida.
+ * Según las {@link ListOptions}, las filas se piden por páginas, cada una a partir de la última clave de la anterior
+ * (paginación por clave, que a diferencia de OFFSET no se ralentiza al avanzar), o se leen como un flujo sobre un
+ * cursor de la base de datos.
+ * Las filas son normalmente proyecciones con {@code SELECT new}, que leen solo las columnas que se necesitan y no
+ * crean entidades, de modo que el contexto de persistencia queda vacío, no se guarda ningún estado de cada fila para
+ * detectar cambios ni se cargan sus asociaciones. Si la consulta devuelve entidades, se cargan en modo de solo
+ * lectura y se desvinculan tras cada página o cada viaje del cursor, por lo que no deben modificarse.
+ *
+ * @param <T> Tipo de las filas: la clase de la proyección o la propia entidad.
+ */
+class EntityLister<T> {
+
+    /**
+     * Fábrica de los EntityManager con los que se lee la tabla.
+     */
+    private final EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Clase de las filas.
+     */
+    private final Class<T> rowType;
+
+    /**
+     * Nombre del atributo de la clave primaria.
+     */
+    private final String idAttribute;
+
+    /**
+     * Consulta JPQL con la entidad como {@code x}, sin WHERE ni ORDER BY.
+     */
+    private final String select;
+
+    /**
+     * Obtiene la clave primaria de una fila, para pedir la página siguiente.
+     */
+    private final Function<? super T, ?> idOf;
+
+    /**
+     * Opciones del listado.
+     */
+    private final ListOptions options;
+
+    /**
+     * Crea un recorrido de las filas de la entidad proporcionada.
+     *
+     * @param entityManagerFactory Fábrica de los EntityManager con los que se lee la tabla.
+     * @param entity               Clase de la entidad, con una clave primaria simple.
+     * @param rowType              Clase de las filas que devuelve la consulta.
+     * @param select               Consulta JPQL sobre la entidad como {@code x}, normalmente con {@code SELECT new},
+     *                             sin WHERE ni ORDER BY; por ejemplo {@link model.ElementoRow#SELECT}.
+     * @param idOf                 Obtiene la clave primaria de una fila.
+     * @param options              Opciones del listado.
+     * @throws IllegalArgumentException Si la entidad no tiene una clave primaria simple.
+     */
+    EntityLister(EntityManagerFactory entityManagerFactory, Class<?> entity, Class<T> rowType, String select,
+                 Function<? super T, ?> idOf, ListOptions options) {
+        EntityType<?> type = entityManagerFactory.getMetamodel().entity(entity);
+        this.entityManagerFactory = entityManagerFactory;
+        this.rowType = rowType;
+        this.idAttribute = type.getSingularAttributes().stream()
+                .filter(SingularAttribute::isId)
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("La entidad " + type.getName() + " no tiene una clave primaria simple"))
+                .getName();
+        this.select = select;
+        this.idOf = idOf;
+        this.options = options;
+    }
+
+    /**
+     * Recorre todas las filas de la tabla, por páginas o como un flujo según las opciones.
+     *
+     * @param action Acción que se ejecuta con cada fila, en orden de clave primaria.
+     * @return El número de filas recorridas.
+     */
+    long forEach(Consumer<? super T> action) {
+        EntityManager em = entityManagerFactory.createEntityManager();
+
+        try {
+            return options.isStreaming() ? forEachStreamed(em, action) : forEachPage(em, action);
+        } finally {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            em.close();
+        }
+    }
+
+    /**
+     * Obtiene la página de filas que sigue a una clave.
+     *
+     * @param em      EntityManager con el que se consulta.
+     * @param afterId Última clave de la página anterior, o null para obtener la primera página.
+     * @return Hasta {@link ListOptions#getPageSize()} filas con clave mayor que {@code afterId}.
+     */
+    List<T> page(EntityManager em, Object afterId) {
+        String where = afterId == null ? "" : " WHERE x." + idAttribute + " > :ultimo";
+        TypedQuery<T> query = em.createQuery(select + where + " ORDER BY x." + idAttribute, rowType)
+                .setHint(QueryHints.READ_ONLY, true)
+                .setMaxResults(options.getPageSize());
+        if (afterId != null) {
+            query.setParameter("ultimo", afterId);
+        }
+        return query.getResultList();
+    }
+
+    /**
+     * Obtiene todas las filas de la tabla como un flujo sobre un cursor de la base de datos que trae
+     * {@link ListOptions#getFetchSize()} filas en cada viaje. El flujo debe cerrarse al terminar.
+     * En PostgreSQL el controlador solo utiliza un cursor si la conexión no está en modo autocommit,
+     * así que {@code em} debe tener una transacción activa.
+     *
+     * @param em EntityManager con el que se consulta.
+     * @return Flujo con las filas en orden de clave primaria.
+     */
+    Stream<T> stream(EntityManager em) {
+        return em.createQuery(select + " ORDER BY x." + idAttribute, rowType)
+                .setHint(QueryHints.READ_ONLY, true)
+                .setHint(QueryHints.FETCH_SIZE, options.getFetchSize())
+                .getResultStream();
+    }
+
+    /**
+     * Recorre la tabla por páginas, vaciando el contexto de persistencia tras cada una.
+     */
+    private long forEachPage(EntityManager em, Consumer<? super T> action) {
+        long count = 0;
+        Object lastId = null;
+        List<T> page;
+
+        do {
+            page = page(em, lastId);
+            for (T row : page) {
+                action.accept(row);
+            }
+            count += page.size();
+            if (!page.isEmpty()) {
+                lastId = idOf.apply(page.get(page.size() - 1));
+            }
+            em.clear();
+        } while (page.size() == options.getPageSize());
+        return count;
+    }
+
+    /**
+     * Recorre la tabla como un flujo, vaciando el contexto de persistencia tras cada viaje del cursor.
+     */
+    private long forEachStreamed(EntityManager em, Consumer<? super T> action) {
+        long count = 0;
+
+        em.getTransaction().begin();
+        try (Stream<T> rows = stream(em)) {
+            Iterator<T> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                action.accept(iterator.next());
+                if (++count % options.getFetchSize() == 0) {
+                    em.clear();
+                }
+            }
+        }
+        return count;
+    }
+}
@@ -1,9 +1,11 @@
 package controller;
 
 import model.Estado;
+import model.EstadoRow;
+import controller.CsvSchema.ColumnType;
+import view.TableRenderer;
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
-import java.util.List;
 import java.util.Scanner;
 
 /**
@@ -14,6 +16,13 @@ import java.util.Scanner;
 public class EstadoController extends SuperController {
     private Scanner scanner;
 
+    /**
+     * Columnas del listado de la tabla de estados.
+     */
+    private static final TableRenderer.Column[] COLUMNS = {
+            new TableRenderer.Column("id_estado", 22), new TableRenderer.Column("nombre", 22)
+    };
+
     /**
      * Crea una nueva instancia de EstadoController sin inicializar los parámetros.
      */
@@ -54,40 +63,72 @@ public class EstadoController extends SuperController {
     /**
      * Método para agregar un Estado a la tabla 'estados'.
      *
-     * @param data Arreglo de String con los datos del Estado a agregar.
+     * @param data Registro CSV con los datos del Estado a agregar.
+     * @param em   EntityManager con la transacción activa.
+     * @return Siempre `true`.
      */
     @Override
-    void addInTable(String[] data) {
-        EntityManager em = entityManagerFactory.createEntityManager();
-
+    boolean addInTable(CsvRecord data, EntityManager em) {
         Estado estado = new Estado();
-        estado.setIdEstado(Integer.parseInt(data[0]));
-        estado.setNombre(data[1]);
+        estado.setIdEstado(data.getRequiredInt(0));
+        estado.setNombre(data.getText(1));
 
-        em.getTransaction().begin();
         em.persist(estado);
-        em.getTransaction().commit();
-        em.close();
+        return true;
     }
 
     /**
-     * Lista todos los estados almacenados en la base de datos.
+     * Devuelve el tipo de cada columna del archivo CSV del Estado.
+     *
+     * @return Esquema de las columnas del archivo CSV.
      */
-    public void listEstados() {
-        EntityManager em = entityManagerFactory.createEntityManager();
+    @Override
+    CsvSchema schema() {
+        return new CsvSchema(ColumnType.INT, ColumnType.TEXT);
+    }
 
-        try {
-            List<Estado> result = em.createQuery("FROM Estado", Estado.class)
-                    .getResultList();
+    /**
+     * Devuelve las columnas de la tabla 'estados' que se rellenan en la carga masiva.
+     *
+     * @return Nombres de las columnas.
+     */
+    @Override
+    String[] bulkColumns() {
+        return new String[] {"idEstado", "nombre"};
+    }
 
-            printData(result);
+    /**
+     * Convierte un registro del CSV en una fila de la tabla 'estados'.
+     *
+     * @param data Registro CSV con los datos del Estado.
+     * @return Valores de la fila.
+     */
+    @Override
+    Object[] toRow(CsvRecord data) {
+        return new Object[] {data.getRequiredInt(0), data.getText(1)};
+    }
 
+    /**
+     * Lista todos los estados almacenados en la base de datos.
+     */
+    public void listEstados() {
+        listEstados(new ListOptions());
+    }
+
+    /**
+     * Lista todos los estados almacenados en la base de datos.
+     * La tabla se recorre por orden de id sin cargarla entera en memoria, por páginas o como un flujo
+     * según las opciones (ver {@link EntityLister}), leyendo solo las columnas del listado ({@link EstadoRow}).
+     *
+     * @param options Opciones del listado.
+     */
+    public void listEstados(ListOptions options) {
+        try (TableRenderer table = openTable(options, COLUMNS)) {
+            table.header();
+            new EntityLister<>(entityManagerFactory, Estado.class, EstadoRow.class, EstadoRow.SELECT,
+                    EstadoRow::idEstado, options).forEach(estado -> printRow(table, estado));
         } catch (Exception e) {
             e.printStackTrace();
-        } finally {
-            if (em != null && em.isOpen()) {
-                em.close();
-            }
         }
     }
 
@@ -129,16 +170,13 @@ public class EstadoController extends SuperController {
     }
 
     /**
-     * Imprime los datos de los estados.
+     * Imprime una fila de la tabla de estados.
      *
-     * @param result Lista de objetos Estado a imprimir.
+     * @param table Tabla en la que se escribe.
+     * @param estado Fila del estado a imprimir.
      */
-    private void printData(List<Estado> result) {
-        System.out.printf("%-22s %-22s%n", "id_estado", "nombre");
-
-        for (Estado estado : result) {
-            System.out.printf("%-22d %-22s%n", estado.getIdEstado(), estado.getNombre());
-        }
+    private void printRow(TableRenderer table, EstadoRow estado) {
+        table.integer(estado.idEstado()).text(estado.nombre()).endRow();
     }
 
 }
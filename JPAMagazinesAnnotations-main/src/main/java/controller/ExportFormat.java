@@ -0,0 +1,39 @@
+package controller;
+
+/**
+ * Formatos en los que se exportan las tablas y los resultados de las consultas.
+ */
+public enum ExportFormat {
+    /**
+     * CSV sin encabezado, con el mismo formato que los archivos que se cargan con
+     * {@link SuperController#readCsv(String, BatchOptions)}.
+     */
+    CSV("csv"),
+    /**
+     * Un objeto JSON por línea con el nombre de cada columna como clave.
+     */
+    JSON_LINES("jsonl"),
+    /**
+     * Formato binario con cada fila precedida de su longitud (ver {@link RowExporter}).
+     */
+    BINARY("bin");
+
+    /**
+     * Extensión de los archivos del formato.
+     */
+    private final String extension;
+
+    ExportFormat(String extension) {
+        this.extension = extension;
+    }
+
+    /**
+     * Obtiene la extensión de los archivos del formato.
+     *
+     * @param gzip Indica si el archivo se comprime con gzip.
+     * @return La extensión, sin el punto inicial.
+     */
+    public String getExtension(boolean gzip) {
+        return gzip ? extension + ".gz" : extension;
+    }
+}
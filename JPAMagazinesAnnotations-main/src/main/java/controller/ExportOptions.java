@@ -0,0 +1,141 @@
+package controller;
+
+/**
+ * La clase ExportOptions agrupa los parámetros de la exportación de una tabla o del resultado de una consulta
+ * a un archivo con {@link SuperController#exportTable(java.nio.file.Path, ExportOptions)}.
+ * Las filas se leen de un cursor de la base de datos de {@link #getFetchSize()} en {@link #getFetchSize()}
+ * y se escriben en bloques de {@link #getBufferSize()} bytes, de modo que nunca se tiene en memoria el resultado entero.
+ */
+public class ExportOptions {
+
+    /**
+     * Tamaño por defecto del buffer de escritura, en bytes.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 1 << 20;
+
+    /**
+     * Número de filas que se traen de la base de datos en cada viaje del cursor por defecto.
+     */
+    public static final int DEFAULT_FETCH_SIZE = 1000;
+
+    /**
+     * Formato del archivo.
+     */
+    private ExportFormat format = ExportFormat.CSV;
+
+    /**
+     * Indica si el archivo se comprime con gzip.
+     */
+    private boolean gzip;
+
+    /**
+     * Tamaño del buffer de escritura, en bytes.
+     */
+    private int bufferSize = DEFAULT_BUFFER_SIZE;
+
+    /**
+     * Número de filas que se traen en cada viaje del cursor.
+     */
+    private int fetchSize = DEFAULT_FETCH_SIZE;
+
+    /**
+     * Crea unas opciones de exportación a CSV sin comprimir con los valores por defecto.
+     */
+    public ExportOptions() {
+    }
+
+    /**
+     * Crea unas opciones de exportación al formato proporcionado.
+     *
+     * @param format Formato del archivo.
+     * @param gzip   Indica si el archivo se comprime con gzip.
+     */
+    public ExportOptions(ExportFormat format, boolean gzip) {
+        setFormat(format);
+        setGzip(gzip);
+    }
+
+    /**
+     * Obtiene el formato del archivo.
+     *
+     * @return El formato.
+     */
+    public ExportFormat getFormat() {
+        return format;
+    }
+
+    /**
+     * Establece el formato del archivo.
+     *
+     * @param format El nuevo formato.
+     * @throws IllegalArgumentException Si el formato es null.
+     */
+    public void setFormat(ExportFormat format) {
+        if (format == null) {
+            throw new IllegalArgumentException("El formato no puede ser null");
+        }
+        this.format = format;
+    }
+
+    /**
+     * Indica si el archivo se comprime con gzip.
+     *
+     * @return `true` si el archivo se comprime.
+     */
+    public boolean isGzip() {
+        return gzip;
+    }
+
+    /**
+     * Establece si el archivo se comprime con gzip.
+     *
+     * @param gzip `true` para comprimir el archivo.
+     */
+    public void setGzip(boolean gzip) {
+        this.gzip = gzip;
+    }
+
+    /**
+     * Obtiene el tamaño del buffer de escritura.
+     *
+     * @return El tamaño del buffer en bytes.
+     */
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    /**
+     * Establece el tamaño del buffer de escritura.
+     *
+     * @param bufferSize El nuevo tamaño del buffer en bytes.
+     * @throws IllegalArgumentException Si el valor es menor que 1024.
+     */
+    public void setBufferSize(int bufferSize) {
+        if (bufferSize < 1024) {
+            throw new IllegalArgumentException("El buffer debe tener al menos 1024 bytes: " + bufferSize);
+        }
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * Obtiene el número de filas que se traen en cada viaje del cursor.
+     *
+     * @return El tamaño de cada viaje.
+     */
+    public int getFetchSize() {
+        return fetchSize;
+    }
+
+    /**
+     * Establece el número de filas que se traen en cada viaje del cursor.
+     *
+     * @param fetchSize El nuevo tamaño de cada viaje.
+     * @throws IllegalArgumentException Si el valor no es positivo.
+     */
+    public void setFetchSize(int fetchSize) {
+        if (fetchSize < 1) {
+            throw new IllegalArgumentException("El tamaño de cada viaje del cursor debe ser positivo: " + fetchSize);
+        }
+        this.fetchSize = fetchSize;
+    }
+}
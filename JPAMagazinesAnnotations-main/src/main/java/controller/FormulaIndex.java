@@ -0,0 +1,198 @@
+package controller;
+
+import org.hibernate.Session;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * La clase FormulaIndex busca compuestos por su fórmula en orden de Hill (ver {@link HillFormula}), de modo que
+ * {@code OH2} encuentra los compuestos con fórmula {@code H2O}.
+ * Las claves se guardan en memoria en una tabla hash que da los ids de los compuestos de cada clave sin consultar
+ * la base de datos. El índice se construye con una única consulta la primera vez que se utiliza y se vuelve
+ * a construir, también cuando se utiliza, después de {@link #invalidate()}.
+ * La clave de cada compuesto se guarda al cargarlo en la columna {@value #KEY_COLUMN} de la tabla, que se crea
+ * junto con la tabla, o se añade a las tablas anteriores a ella, y tiene su propio índice en la base de datos, y el índice en memoria se construye leyéndola;
+ * construirlo no modifica la tabla. Las filas cargadas antes de que existiera la columna, que la tienen vacía,
+ * se indexan con la clave calculada a partir de su fórmula.
+ */
+class FormulaIndex {
+
+    /**
+     * Columna de la tabla compuestos con la fórmula en orden de Hill.
+     */
+    static final String KEY_COLUMN = "formulaHill";
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Contenido actual del índice, o null si debe construirse antes de la siguiente búsqueda.
+     */
+    private volatile Snapshot snapshot;
+
+    /**
+     * Crea un índice vacío que se construirá en la primera búsqueda.
+     *
+     * @param entityManagerFactory EntityManagerFactory para la gestión de entidades.
+     */
+    FormulaIndex(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    /**
+     * Sentencia que añade la columna de la fórmula en orden de Hill a una tabla creada antes de que existiera.
+     *
+     * @return La sentencia SQL.
+     */
+    static String addKeyColumn() {
+        return "ALTER TABLE compuestos ADD COLUMN " + KEY_COLUMN + " VARCHAR(255)";
+    }
+
+    /**
+     * Sentencia que crea el índice de la base de datos sobre la columna de la fórmula en orden de Hill.
+     *
+     * @return La sentencia SQL.
+     */
+    static String createKeyIndex() {
+        return "CREATE INDEX IF NOT EXISTS compuestos_" + KEY_COLUMN + " ON compuestos (" + KEY_COLUMN + ")";
+    }
+
+    /**
+     * Marca el índice como desactualizado; se volverá a construir en la siguiente búsqueda.
+     */
+    synchronized void invalidate() {
+        snapshot = null;
+    }
+
+    /**
+     * Busca los compuestos con una fórmula, escrita en cualquier orden.
+     * Las fórmulas que no se pueden interpretar se buscan tal como están escritas.
+     *
+     * @param formula Fórmula química.
+     * @return Los ids de los compuestos, en orden creciente.
+     */
+    int[] find(String formula) {
+        int[] ids = snapshot().byKey.get(key(formula));
+        return ids == null ? new int[0] : ids.clone();
+    }
+
+    /**
+     * Obtiene el número de fórmulas distintas, en orden de Hill.
+     *
+     * @return El número de fórmulas.
+     */
+    int size() {
+        return snapshot().keys.length;
+    }
+
+    /**
+     * Obtiene una página de las fórmulas distintas en orden de Hill, ordenadas alfabéticamente.
+     *
+     * @param offset Posición de la primera fórmula.
+     * @param limit  Número máximo de fórmulas.
+     * @return Las fórmulas de la página.
+     */
+    List<String> formulas(int offset, int limit) {
+        String[] keys = snapshot().keys;
+        int from = Math.min(offset, keys.length);
+        return Arrays.asList(keys).subList(from, Math.min(keys.length, from + limit));
+    }
+
+    /**
+     * Obtiene la clave de una fórmula: su forma en orden de Hill o, si no se puede interpretar, el texto sin espacios.
+     * Es el valor que se guarda en la columna {@value #KEY_COLUMN}.
+     *
+     * @param formula Fórmula química.
+     * @return La clave de la fórmula.
+     */
+    static String key(String formula) {
+        String canonical = HillFormula.canonical(formula);
+        return canonical != null ? canonical : Objects.toString(formula, "").replaceAll("\\s", "");
+    }
+
+    /**
+     * Obtiene el contenido actual del índice, construyéndolo si es necesario.
+     */
+    private Snapshot snapshot() {
+        Snapshot s = snapshot;
+        if (s == null) {
+            synchronized (this) {
+                s = snapshot;
+                if (s == null) {
+                    s = load();
+                    snapshot = s;
+                }
+            }
+        }
+        return s;
+    }
+
+    /**
+     * Lee la clave de todos los compuestos en una transacción de solo lectura.
+     */
+    private Snapshot load() {
+        EntityManager em = entityManagerFactory.createEntityManager();
+
+        try {
+            em.getTransaction().begin();
+            return em.unwrap(Session.class).doReturningWork(FormulaIndex::load);
+        } finally {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            em.close();
+        }
+    }
+
+    private static Snapshot load(Connection connection) throws SQLException {
+        Map<String, List<Integer>> lists = new HashMap<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(
+                     "SELECT idCompuesto, formula, " + KEY_COLUMN + " FROM compuestos ORDER BY idCompuesto")) {
+            while (resultSet.next()) {
+                String key = resultSet.getString(3);
+                if (key == null) {
+                    key = key(resultSet.getString(2));
+                }
+                lists.computeIfAbsent(key, k -> new ArrayList<>()).add(resultSet.getInt(1));
+            }
+        }
+
+        Map<String, int[]> byKey = new HashMap<>(lists.size() * 2);
+        for (Map.Entry<String, List<Integer>> entry : lists.entrySet()) {
+            byKey.put(entry.getKey(), entry.getValue().stream().mapToInt(Integer::intValue).toArray());
+        }
+        return new Snapshot(byKey);
+    }
+
+    /**
+     * Contenido del índice en un momento dado; no se modifica una vez creado.
+     */
+    private static final class Snapshot {
+
+        /**
+         * Ids de los compuestos de cada fórmula en orden de Hill, en orden creciente.
+         */
+        private final Map<String, int[]> byKey;
+
+        /**
+         * Fórmulas distintas ordenadas alfabéticamente, para listarlas por páginas.
+         */
+        private final String[] keys;
+
+        Snapshot(Map<String, int[]> byKey) {
+            this.byKey = byKey;
+            this.keys = byKey.keySet().stream().filter(k -> !k.isEmpty()).sorted().toArray(String[]::new);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package controller;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * La clase HillFormula convierte una fórmula química en su forma canónica según el sistema de Hill, de modo que
+ * fórmulas escritas de distinta manera para la misma composición, como {@code H2O} y {@code OH2} o {@code CH3COOH}
+ * y {@code C2H4O2}, tienen la misma clave.
+ * Se cuentan los átomos de cada elemento, desarrollando los paréntesis o corchetes con su multiplicador y sumando
+ * las partes separadas por {@code +}, {@code ·} o {@code *} con su coeficiente ({@code CuSO4·5H2O}); después se escribe
+ * primero el carbono y el hidrógeno, si hay carbono, y el resto de elementos por orden alfabético, cada uno seguido
+ * de su número de átomos cuando es mayor que uno.
+ */
+final class HillFormula {
+
+    private final String formula;
+    private int position;
+
+    private HillFormula(String formula) {
+        this.formula = formula;
+    }
+
+    /**
+     * Obtiene la forma canónica de una fórmula.
+     *
+     * @param formula Fórmula química.
+     * @return La fórmula en orden de Hill, o null si la fórmula está vacía o no se puede interpretar.
+     */
+    static String canonical(String formula) {
+        if (formula == null) {
+            return null;
+        }
+        Map<String, Long> atoms;
+        try {
+            atoms = new HillFormula(formula.replaceAll("\\s", "")).parse();
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        if (atoms == null) {
+            return null;
+        }
+
+        StringBuilder result = new StringBuilder();
+        if (atoms.containsKey("C")) {
+            append(result, "C", atoms.remove("C"));
+            if (atoms.containsKey("H")) {
+                append(result, "H", atoms.remove("H"));
+            }
+        }
+        for (Map.Entry<String, Long> entry : atoms.entrySet()) {
+            append(result, entry.getKey(), entry.getValue());
+        }
+        return result.toString();
+    }
+
+    private static void append(StringBuilder result, String symbol, long count) {
+        result.append(symbol);
+        if (count != 1) {
+            result.append(count);
+        }
+    }
+
+    /**
+     * Cuenta los átomos de la fórmula completa, formada por partes separadas por {@code +}, {@code ·} o {@code *}.
+     *
+     * @return Los átomos de cada elemento por orden alfabético, o null si la fórmula no es válida.
+     */
+    private Map<String, Long> parse() {
+        Map<String, Long> atoms = new TreeMap<>();
+        while (true) {
+            long coefficient = number(1);
+            Map<String, Long> part = group();
+            if (part == null || part.isEmpty()) {
+                return null;
+            }
+            add(atoms, part, coefficient);
+            if (position == formula.length()) {
+                return atoms;
+            }
+            char separator = formula.charAt(position++);
+            if (separator != '+' && separator != '·' && separator != '*') {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Cuenta los átomos hasta el final de la parte actual o hasta el paréntesis que cierra el grupo.
+     */
+    private Map<String, Long> group() {
+        Map<String, Long> atoms = new TreeMap<>();
+        while (position < formula.length()) {
+            char c = formula.charAt(position);
+            if (c == '(' || c == '[') {
+                char close = c == '(' ? ')' : ']';
+                position++;
+                Map<String, Long> inner = group();
+                if (inner == null || position == formula.length() || formula.charAt(position) != close) {
+                    return null;
+                }
+                position++;
+                add(atoms, inner, number(1));
+            } else if (Character.isUpperCase(c)) {
+                int start = position++;
+                while (position < formula.length() && Character.isLowerCase(formula.charAt(position))) {
+                    position++;
+                }
+                String symbol = formula.substring(start, position);
+                atoms.merge(symbol, number(1), Long::sum);
+            } else if (c == ')' || c == ']' || c == '+' || c == '·' || c == '*') {
+                break;
+            } else {
+                return null;
+            }
+        }
+        return atoms;
+    }
+
+    /**
+     * Lee un número entero en la posición actual.
+     *
+     * @param absent Valor que se devuelve si no hay ningún número.
+     */
+    private long number(long absent) {
+        int start = position;
+        while (position < formula.length() && Character.isDigit(formula.charAt(position))) {
+            position++;
+        }
+        return start == position ? absent : Long.parseLong(formula.substring(start, position));
+    }
+
+    private static void add(Map<String, Long> atoms, Map<String, Long> part, long multiplier) {
+        for (Map.Entry<String, Long> entry : part.entrySet()) {
+            atoms.merge(entry.getKey(), entry.getValue() * multiplier, Long::sum);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package controller;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * La clase LatencyHistogram cuenta duraciones en microsegundos agrupándolas en intervalos logarítmicos,
+ * como HdrHistogram con una cifra significativa: cada potencia de dos se divide en {@value #SUB_BUCKETS}
+ * intervalos, de modo que un percentil se obtiene con un error relativo menor del 6,25 %
+ * ocupando siempre la misma memoria, sea cual sea el número de valores.
+ * Puede utilizarse desde varios hilos a la vez sin bloqueos.
+ */
+public final class LatencyHistogram {
+
+    /**
+     * Número de intervalos en que se divide cada potencia de dos.
+     */
+    private static final int SUB_BUCKETS = 16;
+
+    /**
+     * Bits necesarios para indicar el intervalo dentro de una potencia de dos.
+     */
+    private static final int SUB_BUCKET_BITS = 4;
+
+    /**
+     * Número total de intervalos: los valores menores que {@value #SUB_BUCKETS} se cuentan de uno en uno
+     * y cada potencia de dos restante hasta 2^62 tiene {@value #SUB_BUCKETS} intervalos.
+     */
+    private static final int BUCKETS = SUB_BUCKETS + (63 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    /**
+     * Número de valores de cada intervalo.
+     */
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    /**
+     * Número total de valores.
+     */
+    private final LongAdder count = new LongAdder();
+
+    /**
+     * Suma de todos los valores, para la media.
+     */
+    private final LongAdder sum = new LongAdder();
+
+    /**
+     * Mayor valor registrado.
+     */
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Registra una duración.
+     *
+     * @param micros Duración en microsegundos; los valores negativos se cuentan como 0.
+     */
+    public void record(long micros) {
+        long value = Math.max(0, micros);
+        counts.incrementAndGet(bucket(value));
+        count.increment();
+        sum.add(value);
+        max.accumulateAndGet(value, Math::max);
+    }
+
+    /**
+     * Obtiene el número de valores registrados.
+     *
+     * @return El número de valores.
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Obtiene el mayor valor registrado.
+     *
+     * @return El mayor valor en microsegundos, o 0 si no hay ninguno.
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Obtiene la media de los valores registrados.
+     *
+     * @return La media en microsegundos, o 0 si no hay ninguno.
+     */
+    public double getMean() {
+        long n = count.sum();
+        return n == 0 ? 0 : (double) sum.sum() / n;
+    }
+
+    /**
+     * Obtiene el valor por debajo del cual queda el porcentaje indicado de los valores registrados.
+     * Se devuelve el límite superior del intervalo en el que cae, sin superar el máximo registrado.
+     *
+     * @param percentile Percentil, entre 0 y 100.
+     * @return El valor en microsegundos, o 0 si no hay ninguno.
+     * @throws IllegalArgumentException Si el percentil no está entre 0 y 100.
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("El percentil debe estar entre 0 y 100: " + percentile);
+        }
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            total += counts.get(i);
+        }
+        if (total == 0) {
+            return 0;
+        }
+
+        long target = Math.max(1, (long) Math.ceil(total * percentile / 100));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= target) {
+                return Math.min(upperBound(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * Obtiene el intervalo de un valor no negativo.
+     */
+    static int bucket(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) - SUB_BUCKETS;
+        return SUB_BUCKETS + shift * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * Obtiene el mayor valor que se cuenta en un intervalo.
+     */
+    static long upperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = (bucket - SUB_BUCKETS) / SUB_BUCKETS;
+        int subBucket = (bucket - SUB_BUCKETS) % SUB_BUCKETS;
+        return ((long) (SUB_BUCKETS + subBucket + 1) << shift) - 1;
+    }
+}
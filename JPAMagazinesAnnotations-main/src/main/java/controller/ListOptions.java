@@ -0,0 +1,131 @@
+package controller;
+
+import java.nio.file.Path;
+
+/**
+ * La clase ListOptions agrupa los parámetros con los que se listan las filas de una tabla.
+ * Las filas se recorren por orden de clave primaria sin cargar la tabla entera en memoria, de una de dos formas:
+ * por páginas de {@link #getPageSize()} filas, pidiendo cada página a partir de la última clave de la anterior,
+ * o como un flujo sobre un cursor de la base de datos que trae las filas de {@link #getFetchSize()} en
+ * {@link #getFetchSize()}.
+ * Las filas se escriben en la salida estándar o, si se indica, en un archivo.
+ */
+public class ListOptions {
+
+    /**
+     * Número de filas por página por defecto.
+     */
+    public static final int DEFAULT_PAGE_SIZE = 100;
+
+    /**
+     * Número de filas que se traen de la base de datos en cada viaje del cursor por defecto.
+     */
+    public static final int DEFAULT_FETCH_SIZE = 500;
+
+    /**
+     * Número de filas de cada página en el listado por páginas.
+     */
+    private int pageSize = DEFAULT_PAGE_SIZE;
+
+    /**
+     * Número de filas que se traen en cada viaje del cursor en el listado como flujo.
+     */
+    private int fetchSize = DEFAULT_FETCH_SIZE;
+
+    /**
+     * Indica si las filas se recorren como un flujo sobre un cursor en lugar de por páginas.
+     */
+    private boolean streaming;
+
+    /**
+     * Archivo en el que se escribe el listado, o null para escribirlo en la salida estándar.
+     */
+    private Path output;
+
+    /**
+     * Crea unas opciones de listado por páginas con los valores por defecto.
+     */
+    public ListOptions() {
+    }
+
+    /**
+     * Obtiene el número de filas de cada página.
+     *
+     * @return El tamaño de página.
+     */
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    /**
+     * Establece el número de filas de cada página.
+     *
+     * @param pageSize El nuevo tamaño de página.
+     * @throws IllegalArgumentException Si el valor no es positivo.
+     */
+    public void setPageSize(int pageSize) {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("El tamaño de página debe ser positivo: " + pageSize);
+        }
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Obtiene el número de filas que se traen en cada viaje del cursor.
+     *
+     * @return El tamaño de cada viaje.
+     */
+    public int getFetchSize() {
+        return fetchSize;
+    }
+
+    /**
+     * Establece el número de filas que se traen en cada viaje del cursor.
+     * También indica cada cuántas filas se vacía el contexto de persistencia mientras se recorre el flujo.
+     *
+     * @param fetchSize El nuevo tamaño de cada viaje.
+     * @throws IllegalArgumentException Si el valor no es positivo.
+     */
+    public void setFetchSize(int fetchSize) {
+        if (fetchSize < 1) {
+            throw new IllegalArgumentException("El tamaño de cada viaje del cursor debe ser positivo: " + fetchSize);
+        }
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Indica si las filas se recorren como un flujo sobre un cursor.
+     *
+     * @return `true` si se recorren como un flujo, `false` si se recorren por páginas.
+     */
+    public boolean isStreaming() {
+        return streaming;
+    }
+
+    /**
+     * Establece si las filas se recorren como un flujo sobre un cursor en lugar de por páginas.
+     *
+     * @param streaming `true` para recorrerlas como un flujo.
+     */
+    public void setStreaming(boolean streaming) {
+        this.streaming = streaming;
+    }
+
+    /**
+     * Obtiene el archivo en el que se escribe el listado.
+     *
+     * @return El archivo, o null si el listado se escribe en la salida estándar.
+     */
+    public Path getOutput() {
+        return output;
+    }
+
+    /**
+     * Establece el archivo en el que se escribe el listado, en UTF-8 y sustituyendo su contenido.
+     *
+     * @param output El archivo, o null para escribir el listado en la salida estándar.
+     */
+    public void setOutput(Path output) {
+        this.output = output;
+    }
+}
@@ -0,0 +1,230 @@
+package controller;
+
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * La clase LoadMetrics recoge las cifras de una carga de una tabla desde un archivo CSV: registros leídos,
+ * escritos y descartados, bytes leídos del archivo y la latencia de cada confirmación de transacción.
+ * Mientras dura la carga puede mostrar su progreso periódicamente y al terminar muestra un resumen;
+ * las mismas cifras se pueden consultar con {@link SuperController#getMetrics()} para vigilar las cargas.
+ * Los contadores pueden actualizarse desde varios hilos a la vez.
+ */
+public final class LoadMetrics {
+
+    /**
+     * Tabla que se carga.
+     */
+    private final String tableName;
+
+    /**
+     * Cuarentena de la carga, de la que se obtienen los registros descartados.
+     */
+    private final Quarantine quarantine;
+
+    /**
+     * Registros leídos del archivo.
+     */
+    private final LongAdder rowsRead = new LongAdder();
+
+    /**
+     * Filas confirmadas en la tabla.
+     */
+    private final LongAdder rowsWritten = new LongAdder();
+
+    /**
+     * Bytes leídos del archivo, o -1 si el lector no los conoce.
+     */
+    private final AtomicLong bytesRead = new AtomicLong(-1);
+
+    /**
+     * Latencia de las confirmaciones de transacción.
+     */
+    private final LatencyHistogram commitLatency = new LatencyHistogram();
+
+    /**
+     * Instante en que empezó la carga, en nanosegundos.
+     */
+    private final long startNanos = System.nanoTime();
+
+    /**
+     * Instante en que terminó la carga, en nanosegundos, o 0 si todavía no ha terminado.
+     */
+    private volatile long endNanos;
+
+    /**
+     * Hilo que muestra el progreso, o null si no se muestra.
+     */
+    private ScheduledExecutorService reporter;
+
+    /**
+     * Crea las métricas de una carga que empieza en este momento.
+     *
+     * @param tableName  Tabla que se carga.
+     * @param quarantine Cuarentena de la carga.
+     */
+    LoadMetrics(String tableName, Quarantine quarantine) {
+        this.tableName = tableName;
+        this.quarantine = quarantine;
+    }
+
+    /**
+     * Anota un registro leído.
+     *
+     * @param bytes Bytes leídos del archivo hasta ahora, o -1 si el lector no los conoce.
+     */
+    void recordRead(long bytes) {
+        rowsRead.increment();
+        bytesRead.lazySet(bytes);
+    }
+
+    /**
+     * Anota una confirmación de transacción.
+     *
+     * @param nanos Duración de la confirmación, en nanosegundos.
+     * @param rows  Filas confirmadas.
+     */
+    void recordCommit(long nanos, long rows) {
+        commitLatency.record(TimeUnit.NANOSECONDS.toMicros(nanos));
+        rowsWritten.add(rows);
+    }
+
+    /**
+     * Empieza a mostrar el progreso de la carga cada cierto tiempo en un hilo aparte.
+     *
+     * @param intervalSeconds Segundos entre cada informe; si no es positivo no se muestra el progreso.
+     */
+    void startReporting(int intervalSeconds) {
+        if (intervalSeconds <= 0) {
+            return;
+        }
+        reporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metricas-" + tableName);
+            thread.setDaemon(true);
+            return thread;
+        });
+        reporter.scheduleAtFixedRate(() -> System.out.println("Tabla '" + tableName + "' en curso: " + this),
+                intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Termina la carga: deja de mostrar el progreso y muestra el resumen, si se ha leído algún registro.
+     */
+    void finish() {
+        if (endNanos != 0) {
+            return;
+        }
+        endNanos = System.nanoTime();
+        if (reporter != null) {
+            reporter.shutdownNow();
+        }
+        if (getRowsRead() > 0) {
+            System.out.println("Tabla '" + tableName + "' métricas: " + this);
+        }
+    }
+
+    /**
+     * Obtiene el nombre de la tabla cargada.
+     *
+     * @return El nombre de la tabla.
+     */
+    public String getTableName() {
+        return tableName;
+    }
+
+    /**
+     * Obtiene el número de registros leídos del archivo.
+     *
+     * @return Los registros leídos.
+     */
+    public long getRowsRead() {
+        return rowsRead.sum();
+    }
+
+    /**
+     * Obtiene el número de filas confirmadas en la tabla.
+     *
+     * @return Las filas escritas.
+     */
+    public long getRowsWritten() {
+        return rowsWritten.sum();
+    }
+
+    /**
+     * Obtiene el número de registros descartados y guardados en la cuarentena.
+     *
+     * @return Los registros descartados.
+     */
+    public long getRowsRejected() {
+        return quarantine.rejected();
+    }
+
+    /**
+     * Obtiene el número de bytes del archivo leídos.
+     * Con OpenCSV incluye lo que el lector tiene leído por adelantado en su buffer.
+     *
+     * @return Los bytes leídos, o -1 si el lector no los conoce.
+     */
+    public long getBytesRead() {
+        return bytesRead.get();
+    }
+
+    /**
+     * Obtiene el tiempo transcurrido desde el inicio de la carga hasta su final o hasta ahora.
+     *
+     * @return El tiempo en milisegundos.
+     */
+    public long getElapsedMillis() {
+        long end = endNanos == 0 ? System.nanoTime() : endNanos;
+        return TimeUnit.NANOSECONDS.toMillis(end - startNanos);
+    }
+
+    /**
+     * Obtiene el número de filas escritas por segundo desde el inicio de la carga.
+     *
+     * @return Las filas escritas por segundo.
+     */
+    public double getRowsPerSecond() {
+        long end = endNanos == 0 ? System.nanoTime() : endNanos;
+        long nanos = Math.max(1, end - startNanos);
+        return getRowsWritten() * 1e9 / nanos;
+    }
+
+    /**
+     * Obtiene el histograma de la latencia de las confirmaciones de transacción, en microsegundos.
+     *
+     * @return El histograma.
+     */
+    public LatencyHistogram getCommitLatency() {
+        return commitLatency;
+    }
+
+    /**
+     * Indica si la carga ha terminado.
+     *
+     * @return `true` si la carga ha terminado.
+     */
+    public boolean isFinished() {
+        return endNanos != 0;
+    }
+
+    /**
+     * Devuelve una representación en cadena de las métricas.
+     *
+     * @return Una cadena con las cifras de la carga.
+     */
+    @Override
+    public String toString() {
+        long bytes = getBytesRead();
+        return String.format(Locale.ROOT, "%d leídos, %d escritos, %d descartados, %s, %d ms, %.0f filas/s, " +
+                        "commit (%d) p50 %.1f ms, p99 %.1f ms, máx %.1f ms",
+                getRowsRead(), getRowsWritten(), getRowsRejected(),
+                bytes < 0 ? "bytes desconocidos" : bytes + " bytes", getElapsedMillis(), getRowsPerSecond(),
+                commitLatency.getCount(), commitLatency.getValueAtPercentile(50) / 1000.0,
+                commitLatency.getValueAtPercentile(99) / 1000.0, commitLatency.getMax() / 1000.0);
+    }
+}
@@ -0,0 +1,27 @@
+package controller;
+
+/**
+ * Formas de completar una tabla desde su archivo CSV.
+ */
+public enum LoadMode {
+    /**
+     * Carga por lotes a través del ORM ({@link SuperController#readCsv(String, BatchOptions)}).
+     */
+    BATCH,
+    /**
+     * Carga masiva sin pasar por el ORM ({@link SuperController#bulkLoad(String, BatchOptions)}).
+     */
+    BULK,
+    /**
+     * Sincronización de una tabla ya completada ({@link SuperController#syncCsv(String, BatchOptions)}).
+     */
+    SYNC,
+    /**
+     * Continuación de la carga por lotes interrumpida ({@link SuperController#resumeCsv(String, BatchOptions)}).
+     */
+    RESUME,
+    /**
+     * Carga por etapas concurrentes sin pasar por el ORM ({@link SuperController#pipelineLoad(String, BatchOptions)}).
+     */
+    PIPELINE
+}
@@ -0,0 +1,233 @@
+package controller;
+
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.EntityType;
+import javax.persistence.metamodel.SingularAttribute;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Controlador que completa todas las tablas a la vez respetando las claves foráneas entre ellas.
+ * Las dependencias se obtienen del metamodelo JPA: una entidad depende de otra cuando tiene una
+ * asociación {@code @ManyToOne} o {@code @OneToOne} hacia ella. Cada tabla empieza a cargarse en
+ * cuanto han terminado las tablas de las que depende, de modo que las cargas independientes
+ * (por ejemplo 'series' y 'estados') se ejecutan en paralelo.
+ * Cada carga utiliza su propio EntityManager, creado por el controlador de la tabla.
+ */
+public class LoaderController {
+
+    /**
+     * EntityManagerFactory del que se obtiene el metamodelo.
+     */
+    private final EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Cargas registradas, por entidad, en orden de registro.
+     */
+    private final Map<Class<?>, LoadTask> tasks = new LinkedHashMap<>();
+
+    /**
+     * Crea un nuevo LoaderController para las entidades del EntityManagerFactory proporcionado.
+     *
+     * @param entityManagerFactory EntityManagerFactory para la gestión de entidades.
+     */
+    public LoaderController(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    /**
+     * Registra la carga de la tabla de una entidad.
+     *
+     * @param entity     Clase de la entidad que se carga.
+     * @param controller Controlador de la tabla de la entidad.
+     * @param csvPath    Ruta del archivo CSV con los datos.
+     */
+    public void register(Class<?> entity, SuperController controller, String csvPath) {
+        tasks.put(entity, new LoadTask(entity, controller, csvPath));
+    }
+
+    /**
+     * Carga todas las tablas registradas respetando sus dependencias y muestra el tiempo de cada una.
+     * Si la carga de una tabla falla, las tablas que dependen de ella no se cargan.
+     *
+     * @param options Opciones de la carga por lotes.
+     * @param mode    Forma de completar cada tabla.
+     */
+    public void loadAll(BatchOptions options, LoadMode mode) {
+        Map<Class<?>, Set<Class<?>>> dependencies = buildDependencies();
+        Map<Class<?>, CompletableFuture<Void>> futures = new LinkedHashMap<>();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(tasks.size(), Runtime.getRuntime().availableProcessors())));
+        long start = System.nanoTime();
+
+        for (LoadTask task : tasks.values()) {
+            task.millis = -1;
+        }
+        try {
+            for (Class<?> entity : topologicalOrder(dependencies)) {
+                LoadTask task = tasks.get(entity);
+                CompletableFuture<?>[] previous = dependencies.get(entity).stream()
+                        .map(futures::get)
+                        .toArray(CompletableFuture[]::new);
+
+                futures.put(entity, CompletableFuture.allOf(previous)
+                        .thenRunAsync(() -> task.run(options, mode), executor));
+            }
+
+            for (LoadTask task : tasks.values()) {
+                try {
+                    futures.get(task.entity).join();
+                    System.out.printf("%-22s %10d ms%n", task.controller.tableName, task.millis);
+                } catch (CompletionException e) {
+                    String motivo = task.millis < 0 ? "no cargada, falló una tabla de la que depende" : "error: " + e.getCause();
+                    System.out.printf("%-22s %s%n", task.controller.tableName, motivo);
+                }
+            }
+            System.out.printf("%-22s %10d ms%n", "TOTAL", (System.nanoTime() - start) / 1_000_000);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Exporta todas las tablas registradas, una detrás de otra, a un archivo por tabla con el nombre de la tabla
+     * y la extensión del formato, por ejemplo {@code elementos.csv}. En CSV los archivos se pueden volver a
+     * cargar registrándolos en lugar de los originales.
+     *
+     * @param directory Directorio de los archivos; se crea si no existe.
+     * @param options   Opciones de la exportación.
+     */
+    public void exportAll(Path directory, ExportOptions options) {
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        for (LoadTask task : tasks.values()) {
+            String file = task.controller.tableName + "." + options.getFormat().getExtension(options.isGzip());
+            task.controller.exportTable(directory.resolve(file), options);
+        }
+    }
+
+    /**
+     * Obtiene las métricas de la última carga de cada tabla registrada, por ejemplo para comprobar
+     * tras {@link #loadAll(BatchOptions, LoadMode)} que ninguna ha descartado registros o ha ido más lenta de lo normal.
+     *
+     * @return Métricas de cada entidad registrada, en orden de registro.
+     */
+    public Map<Class<?>, LoadMetrics> getMetrics() {
+        Map<Class<?>, LoadMetrics> metrics = new LinkedHashMap<>();
+        for (LoadTask task : tasks.values()) {
+            metrics.put(task.entity, task.controller.getMetrics());
+        }
+        return metrics;
+    }
+
+    /**
+     * Obtiene, para cada entidad registrada, las entidades registradas a las que hace referencia
+     * mediante una clave foránea propia.
+     *
+     * @return Dependencias de cada entidad registrada.
+     */
+    Map<Class<?>, Set<Class<?>>> buildDependencies() {
+        Map<Class<?>, Set<Class<?>>> dependencies = new LinkedHashMap<>();
+
+        for (Class<?> entity : tasks.keySet()) {
+            EntityType<?> type = entityManagerFactory.getMetamodel().entity(entity);
+            Set<Class<?>> references = new LinkedHashSet<>();
+
+            for (SingularAttribute<?, ?> attribute : type.getSingularAttributes()) {
+                Attribute.PersistentAttributeType kind = attribute.getPersistentAttributeType();
+                boolean foreignKey = kind == Attribute.PersistentAttributeType.MANY_TO_ONE
+                        || kind == Attribute.PersistentAttributeType.ONE_TO_ONE;
+
+                if (foreignKey && tasks.containsKey(attribute.getJavaType()) && attribute.getJavaType() != entity) {
+                    references.add(attribute.getJavaType());
+                }
+            }
+            dependencies.put(entity, references);
+        }
+        return dependencies;
+    }
+
+    /**
+     * Ordena las entidades de modo que cada una aparezca después de todas sus dependencias.
+     *
+     * @param dependencies Dependencias de cada entidad.
+     * @return Entidades en orden de carga.
+     * @throws IllegalStateException Si las dependencias forman un ciclo.
+     */
+    private static List<Class<?>> topologicalOrder(Map<Class<?>, Set<Class<?>>> dependencies) {
+        List<Class<?>> order = new ArrayList<>();
+        Set<Class<?>> pending = new LinkedHashSet<>(dependencies.keySet());
+
+        while (!pending.isEmpty()) {
+            List<Class<?>> ready = new ArrayList<>();
+            for (Class<?> entity : pending) {
+                if (order.containsAll(dependencies.get(entity))) {
+                    ready.add(entity);
+                }
+            }
+            if (ready.isEmpty()) {
+                throw new IllegalStateException("Dependencias cíclicas entre las entidades " + pending);
+            }
+            order.addAll(ready);
+            pending.removeAll(ready);
+        }
+        return order;
+    }
+
+    /**
+     * Carga de la tabla de una entidad y el tiempo que ha tardado.
+     */
+    private static class LoadTask {
+        final Class<?> entity;
+        final SuperController controller;
+        final String csvPath;
+        /**
+         * Duración de la última carga, o -1 si en la carga en curso todavía no se ha ejecutado.
+         */
+        volatile long millis = -1;
+
+        LoadTask(Class<?> entity, SuperController controller, String csvPath) {
+            this.entity = entity;
+            this.controller = controller;
+            this.csvPath = csvPath;
+        }
+
+        void run(BatchOptions options, LoadMode mode) {
+            long start = System.nanoTime();
+            try {
+                switch (mode) {
+                    case BULK:
+                        controller.bulkLoad(csvPath, options);
+                        break;
+                    case SYNC:
+                        controller.syncCsv(csvPath, options);
+                        break;
+                    case RESUME:
+                        controller.resumeCsv(csvPath, options);
+                        break;
+                    case PIPELINE:
+                        controller.pipelineLoad(csvPath, options);
+                        break;
+                    default:
+                        controller.readCsv(csvPath, options);
+                }
+            } finally {
+                millis = (System.nanoTime() - start) / 1_000_000;
+            }
+        }
+    }
+}
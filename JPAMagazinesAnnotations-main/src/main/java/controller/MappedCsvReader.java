@@ -0,0 +1,239 @@
+package controller;
+
+import com.opencsv.exceptions.CsvException;
+import com.opencsv.exceptions.CsvValidationException;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * La clase MappedCsvReader lee un archivo CSV en UTF-8 proyectándolo en memoria con {@link FileChannel#map}
+ * y convierte cada registro en un {@link TypedRow} según un {@link CsvSchema}.
+ * Los límites de los registros se buscan directamente en la zona proyectada, de modo que leer el archivo
+ * no copia los datos a través de buffers de flujo: solo los bytes de cada registro se copian a un arreglo
+ * que se reutiliza antes de convertirlos.
+ * Como una proyección no puede superar 2 GB, el archivo se recorre por ventanas de {@link #DEFAULT_WINDOW_SIZE}
+ * bytes; cuando un registro queda partido entre dos ventanas, la siguiente empieza en el principio del registro.
+ * Admite las mismas comillas, finales de línea y marca de orden de bytes que {@link TypedCsvReader}.
+ */
+public final class MappedCsvReader implements RecordSource {
+
+    /**
+     * Tamaño por defecto de cada ventana proyectada.
+     */
+    public static final long DEFAULT_WINDOW_SIZE = 256L * 1024 * 1024;
+
+    /**
+     * Tamaño inicial del arreglo al que se copia cada registro.
+     */
+    private static final int RECORD_BUFFER_SIZE = 4 * 1024;
+
+    /**
+     * Canal del archivo.
+     */
+    private final FileChannel channel;
+
+    /**
+     * Tamaño del archivo en bytes.
+     */
+    private final long fileSize;
+
+    /**
+     * Tamaño de cada ventana proyectada.
+     */
+    private final long windowSize;
+
+    /**
+     * Registro que se reutiliza en cada lectura.
+     */
+    private final TypedRow row;
+
+    /**
+     * Ventana proyectada actual.
+     */
+    private MappedByteBuffer window;
+
+    /**
+     * Posición en el archivo del primer byte de la ventana actual.
+     */
+    private long windowStart;
+
+    /**
+     * Inicio del registro actual dentro de la ventana.
+     */
+    private int pos;
+
+    /**
+     * Arreglo al que se copian los bytes de cada registro.
+     */
+    private byte[] record = new byte[RECORD_BUFFER_SIZE];
+
+    /**
+     * Número de registros leídos.
+     */
+    private long recordNumber;
+
+    /**
+     * Crea un lector proyectado en memoria sobre el archivo proporcionado con el tamaño de ventana por defecto.
+     *
+     * @param path   Ruta del archivo CSV, en UTF-8.
+     * @param schema Esquema de las columnas.
+     * @throws IOException Si el archivo no se puede abrir o proyectar.
+     */
+    public MappedCsvReader(Path path, CsvSchema schema) throws IOException {
+        this(path, schema, DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * Crea un lector proyectado en memoria sobre el archivo proporcionado.
+     *
+     * @param path       Ruta del archivo CSV, en UTF-8.
+     * @param schema     Esquema de las columnas.
+     * @param windowSize Tamaño de cada ventana proyectada, en bytes.
+     * @throws IOException Si el archivo no se puede abrir o proyectar.
+     * @throws IllegalArgumentException Si el tamaño de ventana no es positivo o supera 2 GB.
+     */
+    public MappedCsvReader(Path path, CsvSchema schema, long windowSize) throws IOException {
+        if (windowSize <= 0 || windowSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("El tamaño de ventana debe estar entre 1 y " + Integer.MAX_VALUE);
+        }
+        this.windowSize = windowSize;
+        this.row = new TypedRow(schema);
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+
+        try {
+            this.fileSize = channel.size();
+            // La primera ventana incluye al menos la marca de orden de bytes completa.
+            map(0, Math.max(windowSize, 3));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+
+        if (window.limit() >= 3 && window.get(0) == (byte) 0xEF && window.get(1) == (byte) 0xBB
+                && window.get(2) == (byte) 0xBF) {
+            pos = 3;
+        }
+    }
+
+    /**
+     * Lee el siguiente registro.
+     *
+     * @return El registro, que se reutiliza en la siguiente llamada, o null si no quedan más.
+     * @throws IOException            Si se produce un error al proyectar el archivo.
+     * @throws CsvValidationException Si el registro no se ajusta al esquema.
+     */
+    @Override
+    public TypedRow next() throws IOException, CsvValidationException {
+        while (windowStart + pos < fileSize) {
+            int end = findRecordEnd();
+            int next;
+
+            if (end >= 0) {
+                next = end + 1;
+            } else if (windowStart + window.limit() < fileSize) {
+                // El registro continúa fuera de la ventana: se proyecta otra que empiece en él.
+                if (pos == 0 && window.limit() == Integer.MAX_VALUE) {
+                    throw new CsvValidationException("El registro " + (recordNumber + 1)
+                            + " supera el tamaño máximo de una ventana");
+                }
+                long size = pos == 0 ? 2L * window.limit() : windowSize;
+                map(windowStart + pos, size);
+                continue;
+            } else {
+                end = window.limit();
+                next = end;
+            }
+
+            int from = pos;
+            pos = next;
+            if (end > from && window.get(end - 1) == '\r') {
+                end--;
+            }
+            if (end == from) {
+                continue;
+            }
+
+            int length = end - from;
+            if (length > record.length) {
+                record = new byte[Math.max(length, record.length * 2)];
+            }
+            window.get(from, record, 0, length);
+            row.parse(record, 0, length, ++recordNumber);
+            return row;
+        }
+        return null;
+    }
+
+    /**
+     * Obtiene la posición en bytes del archivo en la que empieza el siguiente registro.
+     *
+     * @return La posición del siguiente registro.
+     */
+    @Override
+    public long getPosition() {
+        return windowStart + pos;
+    }
+
+    /**
+     * Salta los primeros registros del archivo proyectando directamente la ventana que empieza en su posición.
+     *
+     * @param records  Número de registros que se saltan.
+     * @param position Posición en bytes del primer registro que se quiere leer, o -1 si no se conoce.
+     * @throws IOException  Si se produce un error al proyectar el archivo.
+     * @throws CsvException Si un registro saltado no es válido.
+     */
+    @Override
+    public void skip(long records, long position) throws IOException, CsvException {
+        if (records == 0) {
+            return;
+        }
+        if (position < 0 || recordNumber > 0) {
+            RecordSource.super.skip(records, position);
+            return;
+        }
+        map(Math.min(position, fileSize), windowSize);
+        recordNumber = records;
+    }
+
+    /**
+     * Busca, a partir del registro actual, el salto de línea que lo termina fuera de las comillas.
+     *
+     * @return La posición del salto de línea en la ventana, o -1 si no está en ella.
+     */
+    private int findRecordEnd() {
+        MappedByteBuffer b = window;
+        int limit = b.limit();
+        boolean quoted = false;
+
+        for (int i = pos; i < limit; i++) {
+            byte c = b.get(i);
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (c == '\n' && !quoted) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Proyecta una ventana del archivo que empieza en la posición proporcionada.
+     * La ventana anterior se libera cuando el recolector de basura la reclama.
+     */
+    private void map(long start, long size) throws IOException {
+        long length = Math.min(Math.min(size, Integer.MAX_VALUE), fileSize - start);
+        window = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+        windowStart = start;
+        pos = 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        window = null;
+        channel.close();
+    }
+}
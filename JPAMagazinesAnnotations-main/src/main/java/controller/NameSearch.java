@@ -0,0 +1,257 @@
+package controller;
+
+import org.hibernate.Session;
+import org.postgresql.core.BaseConnection;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * La clase NameSearch busca subcadenas en una columna de texto de una tabla sin distinguir mayúsculas ni acentos,
+ * de modo que "solid" encuentra "Sòlid" y "HIDRO" encuentra "Hidrogen".
+ * En PostgreSQL la búsqueda se resuelve en la base de datos con un índice GIN de trigramas de la extensión
+ * {@code pg_trgm} sobre la columna normalizada, que se crea junto con la tabla ({@link #createDatabaseIndex()}
+ * o {@code schema.sql}); la búsqueda solo comprueba que existe. En otras bases de datos, o si el índice no existe,
+ * se utiliza un {@link TrigramIndex} en memoria que se construye a partir de la tabla y se reconstruye cuando
+ * cambia el número de filas o el id máximo.
+ * Los resultados se devuelven por orden de id.
+ */
+class NameSearch {
+
+    /**
+     * Función SQL con la que se normaliza la columna en PostgreSQL.
+     */
+    private static final String NORMALIZE_FUNCTION = "normalizar_texto";
+
+    /**
+     * Letras acentuadas que la función SQL sustituye, ya en minúsculas.
+     */
+    private static final String ACCENTED = "áàâäãåéèêëíìîïóòôöõúùûüýÿçñ";
+
+    /**
+     * Letra sin acento que corresponde a cada una de {@link #ACCENTED}.
+     */
+    private static final String UNACCENTED = "aaaaaaeeeeiiiiooooouuuuyycn";
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final String tableName;
+    private final String idColumn;
+    private final String textColumn;
+
+    /**
+     * Indica si la búsqueda se hace con el índice de trigramas de PostgreSQL; null hasta la primera búsqueda
+     * o después de {@link #invalidate()}.
+     */
+    private Boolean databaseIndex;
+
+    /**
+     * Índice en memoria, si la búsqueda no se hace en la base de datos.
+     */
+    private TrigramIndex memoryIndex;
+
+    /**
+     * Número de filas y id máximo de la tabla cuando se construyó {@link #memoryIndex}.
+     */
+    private long indexedRows = -1;
+    private long indexedMaxId = -1;
+
+    /**
+     * Crea una búsqueda sobre una columna de texto.
+     *
+     * @param entityManagerFactory EntityManagerFactory para la gestión de entidades.
+     * @param tableName            Nombre de la tabla.
+     * @param idColumn             Columna entera con el id de cada fila.
+     * @param textColumn           Columna de texto en la que se busca.
+     */
+    NameSearch(EntityManagerFactory entityManagerFactory, String tableName, String idColumn, String textColumn) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.tableName = tableName;
+        this.idColumn = idColumn;
+        this.textColumn = textColumn;
+    }
+
+    /**
+     * Normaliza un texto para compararlo: separa los acentos de las letras, los elimina y pasa el texto a minúsculas.
+     *
+     * @param text Texto a normalizar.
+     * @return El texto normalizado.
+     */
+    static String normalize(String text) {
+        return Normalizer.normalize(text, Normalizer.Form.NFD).replaceAll("\\p{M}", "").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Vuelve a comprobar en la siguiente búsqueda si existe el índice de trigramas, por si la tabla
+     * se ha vuelto a crear.
+     */
+    synchronized void invalidate() {
+        databaseIndex = null;
+    }
+
+    /**
+     * Busca las filas cuya columna de texto contiene una subcadena.
+     *
+     * @param text  Subcadena a buscar.
+     * @param limit Número máximo de resultados.
+     * @return Los ids de las filas encontradas, en orden creciente.
+     * @throws IllegalArgumentException Si el límite no es positivo.
+     */
+    synchronized List<Integer> search(String text, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("El límite de resultados debe ser positivo: " + limit);
+        }
+        String query = normalize(text);
+        EntityManager em = entityManagerFactory.createEntityManager();
+
+        try {
+            if (databaseIndex == null) {
+                databaseIndex = em.unwrap(Session.class).doReturningWork(this::hasDatabaseIndex);
+            }
+            // Las consultas se hacen en una transacción para que la conexión no quede con una transacción abierta.
+            em.getTransaction().begin();
+            Session session = em.unwrap(Session.class);
+            if (databaseIndex) {
+                return session.doReturningWork(connection -> searchDatabase(connection, query, limit));
+            }
+            session.doWork(this::refreshMemoryIndex);
+            int[] ids = memoryIndex.search(query, limit);
+            return Arrays.stream(ids).boxed().collect(ArrayList::new, ArrayList::add, ArrayList::addAll);
+        } finally {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            em.close();
+        }
+    }
+
+    /**
+     * Crea en PostgreSQL la extensión pg_trgm, la función de normalización y el índice de trigramas, si no existen.
+     * Se invoca al crear la tabla; si la base de datos no es PostgreSQL o no se puede crear la extensión,
+     * las búsquedas se harán con el índice en memoria.
+     */
+    synchronized void createDatabaseIndex() {
+        EntityManager em = entityManagerFactory.createEntityManager();
+        Session session = em.unwrap(Session.class);
+
+        try {
+            if (!session.doReturningWork(connection -> connection.isWrapperFor(BaseConnection.class))) {
+                return;
+            }
+            em.getTransaction().begin();
+            session.doWork(connection -> {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("CREATE EXTENSION IF NOT EXISTS pg_trgm");
+                    statement.execute("CREATE OR REPLACE FUNCTION " + NORMALIZE_FUNCTION + "(texto text) RETURNS text AS "
+                            + "$$ SELECT translate(lower(texto), '" + ACCENTED + "', '" + UNACCENTED + "') $$ "
+                            + "LANGUAGE sql IMMUTABLE STRICT PARALLEL SAFE");
+                    statement.execute("CREATE INDEX IF NOT EXISTS " + indexName() + " ON "
+                            + tableName + " USING gin (" + NORMALIZE_FUNCTION + "(" + textColumn + ") gin_trgm_ops)");
+                }
+            });
+            em.getTransaction().commit();
+        } catch (RuntimeException e) {
+            System.out.println("No se ha podido crear el índice de trigramas (" + e.getMessage()
+                    + "); se buscará con un índice en memoria");
+        } finally {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            em.close();
+            databaseIndex = null;
+        }
+    }
+
+    /**
+     * Comprueba sin modificar nada si la base de datos es PostgreSQL y tiene el índice de trigramas.
+     */
+    private boolean hasDatabaseIndex(Connection connection) throws SQLException {
+        if (!connection.isWrapperFor(BaseConnection.class)) {
+            return false;
+        }
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT 1 FROM pg_indexes WHERE tablename = ? AND indexname = ?")) {
+            statement.setString(1, tableName.toLowerCase(Locale.ROOT));
+            statement.setString(2, indexName().toLowerCase(Locale.ROOT));
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next();
+            }
+        }
+    }
+
+    /**
+     * Nombre del índice de trigramas.
+     */
+    private String indexName() {
+        return tableName + "_" + textColumn + "_trgm";
+    }
+
+    /**
+     * Busca en PostgreSQL con el índice de trigramas.
+     */
+    private List<Integer> searchDatabase(Connection connection, String query, int limit) throws SQLException {
+        String sql = "SELECT " + idColumn + " FROM " + tableName + " WHERE " + NORMALIZE_FUNCTION + "(" + textColumn
+                + ") LIKE ? ESCAPE '\\' ORDER BY " + idColumn + " LIMIT ?";
+        List<Integer> ids = new ArrayList<>();
+
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setString(1, "%" + escapeLike(query) + "%");
+            statement.setInt(2, limit);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    ids.add(resultSet.getInt(1));
+                }
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Construye el índice en memoria si no existe o si la tabla ha cambiado desde que se construyó.
+     */
+    private void refreshMemoryIndex(Connection connection) throws SQLException {
+        long rows;
+        long maxId;
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(
+                     "SELECT COUNT(*), MAX(" + idColumn + ") FROM " + tableName)) {
+            resultSet.next();
+            rows = resultSet.getLong(1);
+            maxId = resultSet.getLong(2);
+        }
+        if (memoryIndex != null && rows == indexedRows && maxId == indexedMaxId) {
+            return;
+        }
+
+        List<Integer> ids = new ArrayList<>();
+        List<String> texts = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT " + idColumn + ", " + textColumn + " FROM "
+                     + tableName + " ORDER BY " + idColumn)) {
+            while (resultSet.next()) {
+                String text = resultSet.getString(2);
+                ids.add(resultSet.getInt(1));
+                texts.add(text == null ? "" : normalize(text));
+            }
+        }
+        memoryIndex = new TrigramIndex(ids.stream().mapToInt(Integer::intValue).toArray(), texts.toArray(new String[0]));
+        indexedRows = rows;
+        indexedMaxId = maxId;
+    }
+
+    /**
+     * Escapa los comodines de LIKE para que se busquen como caracteres.
+     */
+    private static String escapeLike(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,104 @@
+package controller;
+
+import com.opencsv.CSVReader;
+import com.opencsv.exceptions.CsvException;
+
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Origen de registros que lee el archivo con el {@link CSVReader} de OpenCSV.
+ */
+final class OpenCsvSource implements RecordSource {
+
+    /**
+     * Lector de OpenCSV.
+     */
+    private final CSVReader reader;
+
+    /**
+     * Flujo del archivo, que cuenta los bytes leídos.
+     */
+    private final CountingInputStream input;
+
+    /**
+     * Número de registros leídos.
+     */
+    private long recordNumber;
+
+    /**
+     * Crea un origen de registros que lee con OpenCSV un archivo en UTF-8.
+     *
+     * @param in Flujo del archivo.
+     */
+    OpenCsvSource(InputStream in) {
+        this.input = new CountingInputStream(in);
+        this.reader = new CSVReader(new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8)));
+    }
+
+    @Override
+    public CsvRecord next() throws IOException, CsvException {
+        String[] fields = reader.readNext();
+        return fields == null ? null : new StringRecord(fields, ++recordNumber);
+    }
+
+    /**
+     * Obtiene el número de bytes leídos del flujo, incluidos los que el lector tiene en su buffer
+     * y todavía no ha convertido en registros.
+     *
+     * @return Los bytes leídos.
+     */
+    @Override
+    public long getBytesRead() {
+        return input.count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * Flujo que cuenta los bytes que se leen de otro.
+     */
+    private static final class CountingInputStream extends FilterInputStream {
+
+        /**
+         * Bytes leídos.
+         */
+        long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package controller;
+
+import com.opencsv.exceptions.CsvException;
+import org.hibernate.Session;
+
+import javax.persistence.EntityManager;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * La clase ParallelLoader carga un único archivo CSV con varios hilos.
+ * El hilo que llama lee el archivo y lo divide en bloques de {@link BatchOptions#getChunkSize()} registros completos;
+ * cada bloque se inserta en un hilo del pool con su propio EntityManager y su propia transacción.
+ * Como un bloque se confirma o se deshace entero, un bloque fallido puede reintentarse sin duplicar filas.
+ * Los errores se informan en el orden de los bloques en el archivo.
+ */
+class ParallelLoader {
+
+    /**
+     * Controlador de la tabla que se está cargando.
+     */
+    private final SuperController controller;
+
+    /**
+     * Opciones de la carga.
+     */
+    private final BatchOptions options;
+
+    /**
+     * Crea un cargador en paralelo para la tabla del controlador proporcionado.
+     *
+     * @param controller Controlador de la tabla que se va a cargar.
+     * @param options    Opciones de la carga.
+     */
+    ParallelLoader(SuperController controller, BatchOptions options) {
+        this.controller = controller;
+        this.options = options;
+    }
+
+    /**
+     * Carga todos los registros del lector y devuelve el resultado de cada bloque en orden.
+     * Como mucho hay el doble de bloques en memoria que hilos, de modo que la lectura se detiene
+     * cuando la base de datos no da abasto.
+     *
+     * @param source Origen de los registros a cargar.
+     * @return Resultado de cada bloque, en el orden del archivo.
+     * @throws IOException          Si se produce un error al leer el archivo.
+     * @throws CsvException         Si un registro del archivo no es válido.
+     * @throws InterruptedException Si el hilo se interrumpe mientras espera a los bloques.
+     */
+    List<ChunkResult> load(RecordSource source) throws IOException, CsvException, InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(options.getParallelism());
+        Semaphore inFlight = new Semaphore(options.getParallelism() * 2);
+        List<Future<ChunkResult>> futures = new ArrayList<>();
+
+        try {
+            long firstRecord = 1;
+            List<CsvRecord> chunk = new ArrayList<>(options.getChunkSize());
+            CsvRecord record;
+
+            while ((record = controller.nextRecord(source)) != null) {
+                chunk.add(record.detach());
+                if (chunk.size() == options.getChunkSize()) {
+                    futures.add(submit(executor, inFlight, futures.size(), firstRecord, chunk));
+                    firstRecord += chunk.size();
+                    chunk = new ArrayList<>(options.getChunkSize());
+                }
+            }
+            if (!chunk.isEmpty()) {
+                futures.add(submit(executor, inFlight, futures.size(), firstRecord, chunk));
+            }
+
+            List<ChunkResult> results = new ArrayList<>(futures.size());
+            for (Future<ChunkResult> future : futures) {
+                try {
+                    results.add(future.get());
+                } catch (ExecutionException e) {
+                    throw new RuntimeException(e.getCause());
+                }
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Envía un bloque al pool esperando antes a que haya sitio para él.
+     */
+    private Future<ChunkResult> submit(ExecutorService executor, Semaphore inFlight, int index, long firstRecord,
+                                       List<CsvRecord> records) throws InterruptedException {
+        inFlight.acquire();
+        try {
+            return executor.submit(() -> {
+                try {
+                    return persistWithRetries(index, firstRecord, records);
+                } finally {
+                    inFlight.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlight.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Inserta un bloque, reintentándolo si falla hasta {@link BatchOptions#getMaxRetries()} veces.
+     */
+    private ChunkResult persistWithRetries(int index, long firstRecord, List<CsvRecord> records) {
+        RuntimeException error = null;
+
+        try {
+            for (int attempt = 0; attempt <= options.getMaxRetries(); attempt++) {
+                try {
+                    persist(records);
+                    return new ChunkResult(index, firstRecord, records.size(), attempt + 1, null);
+                } catch (RuntimeException e) {
+                    error = e;
+                }
+            }
+            return new ChunkResult(index, firstRecord, records.size(), options.getMaxRetries() + 1, error);
+        } finally {
+            controller.quarantine.forget(records);
+        }
+    }
+
+    /**
+     * Inserta un bloque en una única transacción; si falla, la transacción se deshace entera.
+     */
+    private void persist(List<CsvRecord> records) {
+        EntityManager em = controller.entityManagerFactory.createEntityManager();
+
+        try {
+            em.unwrap(Session.class).setJdbcBatchSize(options.getBatchSize());
+            em.getTransaction().begin();
+
+            int count = 0;
+            int added = 0;
+            for (CsvRecord record : records) {
+                if (controller.add(record, em)) {
+                    added++;
+                }
+                if (++count % options.getBatchSize() == 0) {
+                    em.flush();
+                    em.clear();
+                }
+            }
+            controller.commit(em, added);
+        } finally {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            em.close();
+        }
+    }
+
+    /**
+     * Resultado de la carga de un bloque.
+     */
+    static class ChunkResult {
+        /**
+         * Posición del bloque en el archivo, empezando por 0.
+         */
+        final int index;
+
+        /**
+         * Número del primer registro del bloque, empezando por 1.
+         */
+        final long firstRecord;
+
+        /**
+         * Número de registros del bloque.
+         */
+        final int size;
+
+        /**
+         * Número de intentos realizados.
+         */
+        final int attempts;
+
+        /**
+         * Último error producido, o null si el bloque se cargó.
+         */
+        final RuntimeException error;
+
+        ChunkResult(int index, long firstRecord, int size, int attempts, RuntimeException error) {
+            this.index = index;
+            this.firstRecord = firstRecord;
+            this.size = size;
+            this.attempts = attempts;
+            this.error = error;
+        }
+
+        boolean failed() {
+            return error != null;
+        }
+    }
+}
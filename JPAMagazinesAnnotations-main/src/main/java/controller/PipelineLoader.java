@@ -0,0 +1,366 @@
+package controller;
+
+import com.opencsv.exceptions.CsvException;
+import org.hibernate.Session;
+
+import javax.persistence.EntityManager;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * La clase PipelineLoader carga un archivo CSV en tres etapas que trabajan a la vez:
+ * el hilo que llama lee los registros, varias tareas los convierten en filas con {@link SuperController#toRow}
+ * y otras tantas las insertan con lotes JDBC, cada una con su propio EntityManager.
+ * Las etapas se comunican por colas acotadas de {@link BatchOptions#getQueueCapacity()} lotes, de modo que la
+ * lectura se detiene cuando la base de datos no da abasto y el tiempo total depende de la etapa más lenta
+ * en lugar de la suma de las tres.
+ * Si una etapa falla, las demás se detienen, se deshacen las transacciones abiertas y se lanza el primer error;
+ * los bloques de {@link BatchOptions#getChunkSize()} filas ya confirmados se mantienen.
+ */
+class PipelineLoader {
+
+    /**
+     * Marca de fin de la cola de registros.
+     */
+    private static final List<CsvRecord> END_OF_RECORDS = new ArrayList<>(0);
+
+    /**
+     * Marca de fin de la cola de filas.
+     */
+    private static final List<Object[]> END_OF_ROWS = new ArrayList<>(0);
+
+    /**
+     * Milisegundos que una etapa espera en una cola antes de comprobar si otra ha fallado.
+     */
+    private static final long POLL_MILLIS = 100;
+
+    /**
+     * Controlador de la tabla que se está cargando.
+     */
+    private final SuperController controller;
+
+    /**
+     * Opciones de la carga.
+     */
+    private final BatchOptions options;
+
+    /**
+     * Lotes de registros leídos pendientes de convertir.
+     */
+    private final BlockingQueue<List<CsvRecord>> records;
+
+    /**
+     * Lotes de filas convertidas pendientes de insertar.
+     */
+    private final BlockingQueue<List<Object[]>> rows;
+
+    /**
+     * Número de tareas de conversión que todavía no han terminado.
+     */
+    private final AtomicInteger activeConverters = new AtomicInteger();
+
+    /**
+     * Primer error producido en cualquiera de las etapas.
+     */
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    /**
+     * Crea un cargador por etapas para la tabla del controlador proporcionado.
+     *
+     * @param controller Controlador de la tabla que se va a cargar.
+     * @param options    Opciones de la carga.
+     */
+    PipelineLoader(SuperController controller, BatchOptions options) {
+        this.controller = controller;
+        this.options = options;
+        this.records = new ArrayBlockingQueue<>(options.getQueueCapacity());
+        this.rows = new ArrayBlockingQueue<>(options.getQueueCapacity());
+    }
+
+    /**
+     * Carga todos los registros del lector.
+     * Se utilizan {@link BatchOptions#getParallelism()} tareas de conversión y otras tantas de escritura,
+     * que se ejecutan en el ejecutor de las opciones o, si no hay ninguno, en uno propio creado con
+     * {@link #newExecutor(int)}. Como las tareas se esperan unas a otras, el ejecutor de las opciones debe poder
+     * ejecutarlas todas a la vez; si no puede, la carga falla antes de empezar en lugar de quedarse bloqueada.
+     *
+     * @param source Origen de los registros a cargar.
+     * @return El número de filas insertadas.
+     * @throws IOException          Si se produce un error al leer el archivo.
+     * @throws CsvException         Si un registro del archivo no es válido.
+     * @throws InterruptedException Si el hilo se interrumpe mientras espera a las otras etapas.
+     * @throws IllegalArgumentException Si el ejecutor de las opciones no puede ejecutar a la vez todas las tareas.
+     */
+    long load(RecordSource source) throws IOException, CsvException, InterruptedException {
+        int tasks = options.getParallelism();
+        ExecutorService executor = options.getPipelineExecutor();
+        boolean ownExecutor = executor == null;
+        if (ownExecutor) {
+            executor = newExecutor(2 * tasks);
+        } else if (capacity(executor) < 2 * tasks) {
+            throw new IllegalArgumentException("El ejecutor de la carga por etapas solo puede ejecutar "
+                    + capacity(executor) + " tareas a la vez y se necesitan " + 2 * tasks);
+        }
+
+        List<Future<?>> converters = new ArrayList<>(tasks);
+        List<Future<Long>> writers = new ArrayList<>(tasks);
+        try {
+            activeConverters.set(tasks);
+            for (int i = 0; i < tasks; i++) {
+                converters.add(executor.submit(stage(this::convert)));
+                writers.add(executor.submit(stage(this::write)));
+            }
+
+            try {
+                read(source);
+            } catch (CancellationException e) {
+                // Otra etapa ha fallado: su error se lanza después de esperar a todas.
+            } catch (IOException | CsvException | InterruptedException | RuntimeException e) {
+                failure.compareAndSet(null, e);
+                throw e;
+            }
+
+            long count = 0;
+            for (Future<?> converter : converters) {
+                await(converter);
+            }
+            for (Future<Long> writer : writers) {
+                Long written = await(writer);
+                count += written == null ? 0 : written;
+            }
+
+            Throwable error = failure.get();
+            if (error instanceof RuntimeException) {
+                throw (RuntimeException) error;
+            } else if (error != null) {
+                throw new RuntimeException(error);
+            }
+            return count;
+        } finally {
+            failure.compareAndSet(null, new CancellationException());
+            if (ownExecutor) {
+                executor.shutdown();
+                executor.awaitTermination(1, TimeUnit.MINUTES);
+            } else {
+                for (Future<?> converter : converters) {
+                    await(converter);
+                }
+                for (Future<Long> writer : writers) {
+                    await(writer);
+                }
+            }
+        }
+    }
+
+    /**
+     * Obtiene el número de tareas que un ejecutor puede ejecutar a la vez.
+     * En un {@link ThreadPoolExecutor} es el máximo de hilos si las tareas se entregan directamente a los hilos
+     * y, si se encolan, el número de hilos base, porque los demás solo se crean cuando la cola está llena.
+     * En un {@link ForkJoinPool} es su paralelismo. Para otros ejecutores, como el de hilos virtuales,
+     * se supone que no tienen límite.
+     *
+     * @param executor Ejecutor.
+     * @return El número de tareas.
+     */
+    private static int capacity(ExecutorService executor) {
+        if (executor instanceof ThreadPoolExecutor) {
+            ThreadPoolExecutor pool = (ThreadPoolExecutor) executor;
+            return pool.getQueue().remainingCapacity() == 0 ? pool.getMaximumPoolSize() : pool.getCorePoolSize();
+        }
+        if (executor instanceof ForkJoinPool) {
+            return ((ForkJoinPool) executor).getParallelism();
+        }
+        return Integer.MAX_VALUE;
+    }
+
+    /**
+     * Crea el ejecutor por defecto de las etapas: uno que lanza un hilo virtual por tarea si la versión de Java
+     * los admite (21 o posterior) y, en otro caso, un pool fijo con un hilo por tarea.
+     * Se obtiene por reflexión para que el proyecto siga compilando con Java 17.
+     *
+     * @param threads Número de tareas que deben poder ejecutarse a la vez.
+     * @return El ejecutor.
+     */
+    static ExecutorService newExecutor(int threads) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+            return Executors.newFixedThreadPool(threads);
+        }
+    }
+
+    /**
+     * Etapa de lectura: agrupa los registros en lotes de {@link BatchOptions#getBatchSize()} y los encola
+     * para las tareas de conversión.
+     */
+    private void read(RecordSource source) throws IOException, CsvException, InterruptedException {
+        List<CsvRecord> batch = new ArrayList<>(options.getBatchSize());
+        CsvRecord record;
+
+        while ((record = controller.nextRecord(source)) != null) {
+            batch.add(record.detach());
+            if (batch.size() == options.getBatchSize()) {
+                put(records, batch);
+                batch = new ArrayList<>(options.getBatchSize());
+            }
+        }
+        if (!batch.isEmpty()) {
+            put(records, batch);
+        }
+        for (int i = 0; i < options.getParallelism(); i++) {
+            put(records, END_OF_RECORDS);
+        }
+    }
+
+    /**
+     * Etapa de conversión: convierte cada lote de registros en filas y lo encola para las tareas de escritura.
+     * La última tarea de conversión en terminar avisa del final a todas las de escritura.
+     */
+    private Void convert() throws InterruptedException {
+        List<CsvRecord> batch;
+
+        while ((batch = take(records)) != END_OF_RECORDS) {
+            List<Object[]> converted = new ArrayList<>(batch.size());
+            for (CsvRecord record : batch) {
+                Object[] row = controller.convert(record);
+                if (row != null) {
+                    converted.add(row);
+                }
+            }
+            controller.quarantine.forget(batch);
+            if (!converted.isEmpty()) {
+                put(rows, converted);
+            }
+        }
+        if (activeConverters.decrementAndGet() == 0) {
+            for (int i = 0; i < options.getParallelism(); i++) {
+                put(rows, END_OF_ROWS);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Etapa de escritura: inserta cada lote de filas como un lote JDBC y confirma la transacción
+     * cada {@link BatchOptions#getChunkSize()} filas.
+     *
+     * @return El número de filas insertadas por la tarea.
+     */
+    private Long write() throws InterruptedException {
+        String[] columns = controller.bulkColumns();
+        String sql = "INSERT INTO " + controller.tableName + " (" + String.join(", ", columns) + ") VALUES ("
+                + "?, ".repeat(columns.length - 1) + "?)";
+        EntityManager em = controller.entityManagerFactory.createEntityManager();
+        long count = 0;
+        long uncommitted = 0;
+
+        try {
+            Session session = em.unwrap(Session.class);
+            em.getTransaction().begin();
+
+            List<Object[]> batch;
+            while ((batch = take(rows)) != END_OF_ROWS) {
+                List<Object[]> rowsToInsert = batch;
+                session.doWork(connection -> {
+                    try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                        for (Object[] row : rowsToInsert) {
+                            for (int i = 0; i < row.length; i++) {
+                                statement.setObject(i + 1, row[i]);
+                            }
+                            statement.addBatch();
+                        }
+                        statement.executeBatch();
+                    }
+                });
+                uncommitted += batch.size();
+
+                if (uncommitted >= options.getChunkSize()) {
+                    controller.commit(em, uncommitted);
+                    count += uncommitted;
+                    uncommitted = 0;
+                    em.getTransaction().begin();
+                }
+            }
+            controller.commit(em, uncommitted);
+            return count + uncommitted;
+        } finally {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            em.close();
+        }
+    }
+
+    /**
+     * Envuelve una etapa para que su error detenga a las demás.
+     */
+    private <T> Callable<T> stage(Callable<T> body) {
+        return () -> {
+            try {
+                return body.call();
+            } catch (CancellationException e) {
+                return null;
+            } catch (Throwable e) {
+                failure.compareAndSet(null, e);
+                throw e;
+            }
+        };
+    }
+
+    /**
+     * Encola un lote esperando a que haya sitio, salvo que otra etapa haya fallado.
+     */
+    private <T> void put(BlockingQueue<T> queue, T batch) throws InterruptedException {
+        checkFailure();
+        while (!queue.offer(batch, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+            checkFailure();
+        }
+    }
+
+    /**
+     * Obtiene el siguiente lote de la cola esperando a que haya uno, salvo que otra etapa haya fallado.
+     */
+    private <T> T take(BlockingQueue<T> queue) throws InterruptedException {
+        T batch;
+        while ((batch = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS)) == null) {
+            checkFailure();
+        }
+        return batch;
+    }
+
+    /**
+     * Detiene la etapa actual si alguna ha fallado.
+     */
+    private void checkFailure() {
+        if (failure.get() != null) {
+            throw new CancellationException();
+        }
+    }
+
+    /**
+     * Espera a que termine una tarea; sus errores ya se han guardado en {@link #failure}.
+     */
+    private static <T> T await(Future<T> task) throws InterruptedException {
+        try {
+            return task.get();
+        } catch (ExecutionException | CancellationException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package controller;
+
+import com.opencsv.CSVWriter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * La clase Quarantine recoge los registros de un archivo CSV que no se han podido cargar, o que se han cargado
+ * corrigiendo algún valor, sin interrumpir la carga ni escribir nada por consola para cada registro.
+ * Cada registro se guarda con un código de motivo en el archivo {@code <directorio>/<tabla>.csv}, que se crea
+ * solo si hay algún registro, y al terminar la carga se muestra un resumen con el número de registros por motivo.
+ * Puede utilizarse desde varios hilos a la vez; un mismo registro se guarda una sola vez aunque su bloque
+ * se reintente, salvo que un motivo por el que se descarta sustituya a uno por el que solo se corrigió.
+ * Los registros guardados se recuerdan hasta que su bloque termina ({@link #forget(List)} y {@link #forgetAll()})
+ * o, en las cargas sin bloques, hasta el final de la carga.
+ */
+class Quarantine {
+
+    /**
+     * Motivos por los que un registro se pone en cuarentena.
+     */
+    enum Reason {
+        /**
+         * El registro no tiene el formato esperado, por ejemplo le faltan columnas o tiene comillas sin cerrar.
+         */
+        MALFORMED_RECORD("registro mal formado", true),
+        /**
+         * Una columna numérica obligatoria no contiene un número válido.
+         */
+        INVALID_NUMBER("número no válido", true),
+        /**
+         * El registro hace referencia a una fila de otra tabla que no existe.
+         */
+        MISSING_REFERENCE("referencia inexistente", true),
+        /**
+         * El registro hacía referencia a una fila que no existe y se ha cargado con la referencia por defecto.
+         */
+        DEFAULTED_REFERENCE("referencia sustituida por la de defecto", false);
+
+        /**
+         * Descripción del motivo que se muestra en el resumen.
+         */
+        final String description;
+
+        /**
+         * Indica si el registro se descarta (`true`) o se carga corregido (`false`).
+         */
+        final boolean rejected;
+
+        Reason(String description, boolean rejected) {
+            this.description = description;
+            this.rejected = rejected;
+        }
+    }
+
+    /**
+     * Tabla que se está cargando.
+     */
+    private final String tableName;
+
+    /**
+     * Archivo en el que se guardan los registros.
+     */
+    private final Path file;
+
+    /**
+     * Número de registros por motivo.
+     */
+    private final Map<Reason, Long> counts = new EnumMap<>(Reason.class);
+
+    /**
+     * Motivo con el que se ha guardado cada registro de los bloques en curso, por número de registro.
+     */
+    private final Map<Long, Reason> recorded = new HashMap<>();
+
+    /**
+     * Escritor del archivo, que se abre con el primer registro.
+     */
+    private CSVWriter writer;
+
+    /**
+     * Crea una cuarentena vacía para la carga de una tabla.
+     *
+     * @param tableName Tabla que se carga.
+     * @param directory Directorio en el que se crea el archivo de la cuarentena.
+     */
+    Quarantine(String tableName, Path directory) {
+        this.tableName = tableName;
+        this.file = directory.resolve(tableName + ".csv");
+    }
+
+    /**
+     * Pone en cuarentena un registro.
+     * Si el registro ya estaba en cuarentena, solo se vuelve a guardar cuando el nuevo motivo lo descarta
+     * y el anterior no; en ese caso el registro pasa a contarse con el nuevo motivo.
+     *
+     * @param record Registro afectado, o null si no se pudo leer.
+     * @param reason Motivo.
+     * @param detail Descripción del problema.
+     */
+    synchronized void add(CsvRecord record, Reason reason, String detail) {
+        if (record != null) {
+            Reason previous = recorded.get(record.getRecordNumber());
+            if (previous != null) {
+                if (previous.rejected || !reason.rejected) {
+                    return;
+                }
+                counts.computeIfPresent(previous, (r, count) -> count > 1 ? count - 1 : null);
+            }
+            recorded.put(record.getRecordNumber(), reason);
+        }
+        counts.merge(reason, 1L, Long::sum);
+
+        String[] fields = record == null ? new String[0] : record.toArray();
+        String[] line = new String[fields.length + 3];
+        line[0] = record == null ? "" : String.valueOf(record.getRecordNumber());
+        line[1] = reason.name();
+        line[2] = detail;
+        System.arraycopy(fields, 0, line, 3, fields.length);
+
+        try {
+            if (writer == null) {
+                Files.createDirectories(file.getParent());
+                writer = new CSVWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8));
+                writer.writeNext(new String[] {"registro", "motivo", "detalle", "campos..."}, false);
+            }
+            writer.writeNext(line, false);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Olvida los registros de un bloque que ya no se va a reintentar, para que la memoria no crezca con la carga.
+     *
+     * @param records Registros del bloque.
+     */
+    synchronized void forget(List<CsvRecord> records) {
+        for (CsvRecord record : records) {
+            recorded.remove(record.getRecordNumber());
+        }
+    }
+
+    /**
+     * Olvida todos los registros guardados. Solo debe utilizarse cuando no hay ningún otro bloque en curso.
+     */
+    synchronized void forgetAll() {
+        recorded.clear();
+    }
+
+    /**
+     * Obtiene el número de registros descartados.
+     *
+     * @return El número de registros que no se han cargado.
+     */
+    synchronized long rejected() {
+        long total = 0;
+        for (Map.Entry<Reason, Long> entry : counts.entrySet()) {
+            if (entry.getKey().rejected) {
+                total += entry.getValue();
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Cierra el archivo y muestra el resumen de la cuarentena, si tiene algún registro.
+     */
+    synchronized void close() {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            writer = null;
+        }
+
+        StringBuilder summary = new StringBuilder("Tabla '" + tableName + "': registros en cuarentena en " + file);
+        counts.forEach((reason, count) -> summary.append("\n    ").append(reason.name())
+                .append(" (").append(reason.description).append("): ").append(count));
+        System.out.println(summary);
+    }
+}
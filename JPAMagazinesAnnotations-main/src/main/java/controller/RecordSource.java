@@ -0,0 +1,68 @@
+package controller;
+
+import com.opencsv.exceptions.CsvException;
+import com.opencsv.exceptions.CsvValidationException;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * La interfaz RecordSource representa un origen de registros CSV que se recorre de uno en uno.
+ * Los registros devueltos pueden reutilizarse en la siguiente llamada a {@link #next()};
+ * quien necesite conservarlos debe utilizar {@link CsvRecord#detach()}.
+ */
+public interface RecordSource extends Closeable {
+
+    /**
+     * Lee el siguiente registro.
+     *
+     * @return El siguiente registro, o null si no quedan más.
+     * @throws IOException  Si se produce un error al leer el archivo.
+     * @throws CsvException Si el registro no es válido.
+     */
+    CsvRecord next() throws IOException, CsvException;
+
+    /**
+     * Obtiene la posición en bytes del archivo en la que empieza el siguiente registro.
+     *
+     * @return La posición, o -1 si el origen no la conoce.
+     */
+    default long getPosition() {
+        return -1;
+    }
+
+    /**
+     * Obtiene el número de bytes del archivo leídos hasta ahora, para las métricas de la carga.
+     * Por defecto es la posición del siguiente registro.
+     *
+     * @return Los bytes leídos, o -1 si el origen no los conoce.
+     */
+    default long getBytesRead() {
+        return getPosition();
+    }
+
+    /**
+     * Salta los primeros registros del archivo, por ejemplo para reanudar una carga interrumpida.
+     * Debe llamarse antes de leer ningún registro. Por defecto los registros se leen y se descartan,
+     * sin contar los mal formados, igual que en la carga; los orígenes que conocen su posición
+     * pueden saltar directamente a ella.
+     *
+     * @param records  Número de registros que se saltan.
+     * @param position Posición en bytes del primer registro que se quiere leer, o -1 si no se conoce.
+     * @throws IOException  Si se produce un error al leer el archivo.
+     * @throws CsvException Si un registro saltado no es válido.
+     */
+    default void skip(long records, long position) throws IOException, CsvException {
+        long skipped = 0;
+        while (skipped < records) {
+            try {
+                if (next() == null) {
+                    return;
+                }
+                skipped++;
+            } catch (CsvValidationException e) {
+                // Los registros mal formados no se cuentan, como en la carga.
+            }
+        }
+    }
+}
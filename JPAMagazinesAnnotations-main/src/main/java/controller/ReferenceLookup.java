@@ -0,0 +1,101 @@
+package controller;
+
+import javax.persistence.EntityManager;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * La clase ReferenceLookup resuelve en memoria las referencias a una tabla pequeña de datos de referencia,
+ * como 'series' o 'estados', durante la carga de otra tabla.
+ * Los identificadores se leen una única vez y se guardan en un {@link BitSet}; las referencias se obtienen
+ * mediante {@link EntityManager#getReference} del EntityManager que persiste la fila, que no consulta la base de datos.
+ * Si un identificador no existe se devuelve la referencia por defecto, que puede ser null.
+ * Una vez creada es inmutable, por lo que puede compartirse entre hilos; las referencias no se comparten,
+ * ya que Hibernate no permite asociar un mismo proxy a dos sesiones abiertas.
+ *
+ * @param <T> Tipo de la entidad referenciada.
+ */
+final class ReferenceLookup<T> {
+
+    /**
+     * Clase de la entidad referenciada.
+     */
+    private final Class<T> type;
+
+    /**
+     * Identificadores existentes.
+     */
+    private final BitSet ids;
+
+    /**
+     * Identificador por defecto, o null si tampoco existe.
+     */
+    private final Integer fallbackId;
+
+    /**
+     * Crea la tabla de referencias a partir de sus datos.
+     */
+    private ReferenceLookup(Class<T> type, BitSet ids, Integer fallbackId) {
+        this.type = type;
+        this.ids = ids;
+        this.fallbackId = fallbackId;
+    }
+
+    /**
+     * Lee los identificadores de una entidad con una única consulta y crea la tabla de referencias.
+     *
+     * @param em          EntityManager con el que se consultan los identificadores.
+     * @param type        Clase de la entidad referenciada.
+     * @param idAttribute Nombre del atributo identificador de la entidad.
+     * @param fallbackId  Identificador que se utiliza cuando el buscado no existe.
+     * @param <T>         Tipo de la entidad referenciada.
+     * @return La tabla de referencias.
+     */
+    static <T> ReferenceLookup<T> load(EntityManager em, Class<T> type, String idAttribute, int fallbackId) {
+        String entityName = em.getMetamodel().entity(type).getName();
+        List<Integer> ids = em.createQuery("SELECT e." + idAttribute + " FROM " + entityName + " e", Integer.class)
+                .getResultList();
+
+        BitSet existing = new BitSet();
+        for (Integer id : ids) {
+            if (id >= 0) {
+                existing.set(id);
+            }
+        }
+
+        boolean fallbackExists = fallbackId >= 0 && existing.get(fallbackId);
+        return new ReferenceLookup<>(type, existing, fallbackExists ? fallbackId : null);
+    }
+
+    /**
+     * Indica si existe la entidad con el identificador proporcionado.
+     *
+     * @param id Identificador buscado.
+     * @return `true` si existe, `false` si no.
+     */
+    boolean contains(int id) {
+        return id >= 0 && ids.get(id);
+    }
+
+    /**
+     * Devuelve el identificador proporcionado si existe o, si no, el identificador por defecto.
+     *
+     * @param id Identificador buscado.
+     * @return El identificador resuelto, o null si tampoco existe el identificador por defecto.
+     */
+    Integer resolveId(int id) {
+        return contains(id) ? Integer.valueOf(id) : fallbackId;
+    }
+
+    /**
+     * Devuelve la referencia a la entidad con el identificador proporcionado o, si no existe, la referencia por defecto.
+     *
+     * @param id Identificador buscado.
+     * @param em EntityManager con el que se persiste la fila que contiene la referencia.
+     * @return La referencia resuelta, o null si tampoco existe el identificador por defecto.
+     */
+    T resolve(int id, EntityManager em) {
+        Integer resolved = resolveId(id);
+        return resolved == null ? null : em.getReference(type, resolved);
+    }
+}
@@ -0,0 +1,388 @@
+package controller;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * La clase RowExporter escribe filas en un archivo en uno de los formatos de {@link ExportFormat}, a medida que
+ * se le pasan, de modo que el tamaño del archivo no depende de la memoria.
+ * Cada fila se codifica en UTF-8 directamente en bytes y se acumula en un buffer de
+ * {@link ExportOptions#getBufferSize()} bytes que se escribe en bloques en un {@link FileChannel},
+ * comprimido con gzip si se indica en las opciones.
+ * <p>
+ * En CSV los valores nulos se escriben vacíos, los decimales sin ceros finales y los textos entre comillas
+ * solo cuando contienen comas, comillas o saltos de línea, igual que los archivos CSV del proyecto.
+ * <p>
+ * El formato binario, con todos los números en orden de bytes big-endian, es:
+ * <ul>
+ *     <li>Cabecera: los bytes {@code "JPAX"}, un byte con la versión ({@value #VERSION}), un short con el número de
+ *     columnas y el nombre de cada columna como un short con su longitud en bytes seguido del texto en UTF-8.</li>
+ *     <li>Cada fila: un int con la longitud en bytes del resto de la fila y, por cada columna, un byte con el tipo
+ *     del valor seguido del valor: {@value #NULL} nulo, sin valor; {@value #LONG} entero, un long;
+ *     {@value #DECIMAL} decimal, un byte con la escala y un long con el valor sin escala; {@value #TEXT} texto,
+ *     un int con su longitud en bytes y el texto en UTF-8; {@value #DOUBLE} real, un double;
+ *     {@value #BOOLEAN} lógico, un byte 0 o 1; {@value #BIG_DECIMAL} decimal que no cabe en un long,
+ *     como un texto.</li>
+ *     <li>Final: un int -1 en lugar de la longitud de la fila, para poder detectar archivos incompletos.</li>
+ * </ul>
+ */
+class RowExporter implements Closeable {
+
+    /**
+     * Versión del formato binario.
+     */
+    static final byte VERSION = 1;
+
+    /**
+     * Tipos de los valores del formato binario.
+     */
+    static final byte NULL = 0, LONG = 1, DECIMAL = 2, TEXT = 3, DOUBLE = 4, BOOLEAN = 5, BIG_DECIMAL = 6;
+
+    /**
+     * Formato del archivo.
+     */
+    private final ExportFormat format;
+
+    /**
+     * Nombre de cada columna ya codificado como clave JSON ({@code "nombre":}), para el formato JSON Lines.
+     */
+    private final byte[][] jsonKeys;
+
+    /**
+     * Archivo de destino.
+     */
+    private final FileChannel channel;
+
+    /**
+     * Compresor por el que pasan los bloques, o null si el archivo no se comprime.
+     */
+    private final GZIPOutputStream gzip;
+
+    /**
+     * Bytes pendientes de escribir en el archivo.
+     */
+    private final ByteBuffer buffer;
+
+    /**
+     * Fila que se está codificando; crece si una fila no cabe.
+     */
+    private ByteBuffer row = ByteBuffer.allocate(4096);
+
+    /**
+     * Número de filas escritas.
+     */
+    private long rows;
+
+    /**
+     * Crea el archivo, sustituyendo su contenido, y escribe la cabecera del formato binario.
+     *
+     * @param file    Archivo de destino.
+     * @param columns Nombres de las columnas de cada fila.
+     * @param options Opciones de la exportación.
+     * @throws IOException Si no se puede crear el archivo.
+     */
+    RowExporter(Path file, String[] columns, ExportOptions options) throws IOException {
+        this.format = options.getFormat();
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        if (options.isGzip()) {
+            this.gzip = new GZIPOutputStream(Channels.newOutputStream(channel), 64 * 1024);
+            this.buffer = ByteBuffer.allocate(options.getBufferSize());
+        } else {
+            this.gzip = null;
+            this.buffer = ByteBuffer.allocateDirect(options.getBufferSize());
+        }
+
+        this.jsonKeys = new byte[columns.length][];
+        for (int i = 0; i < columns.length; i++) {
+            jsonKeys[i] = (i == 0 ? "{" : ",").concat(quoteJson(columns[i])).concat(":").getBytes(StandardCharsets.UTF_8);
+        }
+
+        if (format == ExportFormat.BINARY) {
+            row.put(new byte[] {'J', 'P', 'A', 'X', VERSION});
+            row.putShort((short) columns.length);
+            for (String column : columns) {
+                byte[] name = column.getBytes(StandardCharsets.UTF_8);
+                reserve(2 + name.length);
+                row.putShort((short) name.length);
+                row.put(name);
+            }
+            emit();
+        }
+    }
+
+    /**
+     * Escribe una fila.
+     *
+     * @param values Valores de la fila, uno por columna.
+     * @throws IOException Si se produce un error al escribir el archivo.
+     */
+    void write(Object[] values) throws IOException {
+        switch (format) {
+            case JSON_LINES:
+                encodeJson(values);
+                break;
+            case BINARY:
+                encodeBinary(values);
+                break;
+            default:
+                encodeCsv(values);
+        }
+        emit();
+        rows++;
+    }
+
+    /**
+     * Obtiene el número de filas escritas.
+     *
+     * @return Las filas escritas.
+     */
+    long getRows() {
+        return rows;
+    }
+
+    /**
+     * Escribe lo que queda en el buffer, termina la compresión y cierra el archivo.
+     *
+     * @throws IOException Si se produce un error al escribir el archivo.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (format == ExportFormat.BINARY) {
+                row.putInt(-1);
+                emit();
+            }
+            drain();
+            if (gzip != null) {
+                gzip.finish();
+            }
+        } finally {
+            if (gzip != null) {
+                gzip.close();
+            } else {
+                channel.close();
+            }
+        }
+    }
+
+    private void encodeCsv(Object[] values) {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                put((byte) ',');
+            }
+            Object value = values[i];
+            if (value instanceof String) {
+                String text = (String) value;
+                boolean quote = needsQuotes(text);
+                reserve(text.length() * 6 + 2);
+                if (quote) {
+                    row.put((byte) '"');
+                }
+                putUtf8(text, quote ? '"' : '\0');
+                if (quote) {
+                    row.put((byte) '"');
+                }
+            } else if (value != null) {
+                putAscii(toText(value));
+            }
+        }
+        put((byte) '\n');
+    }
+
+    private void encodeJson(Object[] values) {
+        for (int i = 0; i < values.length; i++) {
+            reserve(jsonKeys[i].length);
+            row.put(jsonKeys[i]);
+            Object value = values[i];
+            if (value == null || value instanceof Double && !Double.isFinite((Double) value)
+                    || value instanceof Float && !Float.isFinite((Float) value)) {
+                putAscii("null");
+            } else if (value instanceof Number || value instanceof Boolean) {
+                putAscii(toText(value));
+            } else {
+                String text = value.toString();
+                reserve(text.length() * 6 + 2);
+                row.put((byte) '"');
+                putUtf8(text, '\\');
+                row.put((byte) '"');
+            }
+        }
+        putAscii("}\n");
+    }
+
+    private void encodeBinary(Object[] values) {
+        reserve(4);
+        int start = row.position();
+        row.putInt(0);
+        for (Object value : values) {
+            reserve(10);
+            if (value == null) {
+                row.put(NULL);
+            } else if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+                row.put(LONG).putLong(((Number) value).longValue());
+            } else if (value instanceof BigDecimal) {
+                BigDecimal decimal = (BigDecimal) value;
+                if (decimal.unscaledValue().bitLength() < 64 && decimal.scale() >= Byte.MIN_VALUE && decimal.scale() <= Byte.MAX_VALUE) {
+                    row.put(DECIMAL).put((byte) decimal.scale()).putLong(decimal.unscaledValue().longValue());
+                } else {
+                    row.put(BIG_DECIMAL);
+                    putBinaryText(decimal.toString());
+                }
+            } else if (value instanceof Double || value instanceof Float) {
+                row.put(DOUBLE).putDouble(((Number) value).doubleValue());
+            } else if (value instanceof Boolean) {
+                row.put(BOOLEAN).put((byte) ((Boolean) value ? 1 : 0));
+            } else {
+                row.put(TEXT);
+                putBinaryText(value.toString());
+            }
+        }
+        row.putInt(start, row.position() - start - 4);
+    }
+
+    /**
+     * Escribe un texto del formato binario: su longitud en bytes y el texto en UTF-8.
+     */
+    private void putBinaryText(String text) {
+        reserve(4 + text.length() * 3);
+        int start = row.position();
+        row.putInt(0);
+        putUtf8(text, '\0');
+        row.putInt(start, row.position() - start - 4);
+    }
+
+    /**
+     * Devuelve la representación de un valor no textual en CSV y JSON; los decimales se escriben sin ceros finales.
+     */
+    private static String toText(Object value) {
+        if (value instanceof BigDecimal) {
+            BigDecimal decimal = ((BigDecimal) value).stripTrailingZeros();
+            return decimal.scale() < 0 ? decimal.setScale(0).toPlainString() : decimal.toPlainString();
+        }
+        return value.toString();
+    }
+
+    private static boolean needsQuotes(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String quoteJson(String text) {
+        StringBuilder quoted = new StringBuilder("\"");
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') {
+                quoted.append('\\');
+            }
+            quoted.append(c);
+        }
+        return quoted.append('"').toString();
+    }
+
+    /**
+     * Codifica un texto en UTF-8 en la fila, que debe tener sitio para seis bytes por carácter.
+     *
+     * @param escape {@code '"'} para duplicar las comillas como en CSV, {@code '\\'} para escapar el texto
+     *               como en JSON o {@code '\0'} para no escapar nada.
+     */
+    private void putUtf8(String text, char escape) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                if (escape == '"' && c == '"') {
+                    row.put((byte) '"');
+                } else if (escape == '\\' && (c == '"' || c == '\\' || c < 0x20)) {
+                    if (c < 0x20) {
+                        putAscii(String.format("\\u%04x", (int) c));
+                        continue;
+                    }
+                    row.put((byte) '\\');
+                }
+                row.put((byte) c);
+            } else if (c < 0x800) {
+                row.put((byte) (0xC0 | c >> 6)).put((byte) (0x80 | c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < text.length() && Character.isLowSurrogate(text.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, text.charAt(++i));
+                row.put((byte) (0xF0 | codePoint >> 18)).put((byte) (0x80 | codePoint >> 12 & 0x3F))
+                        .put((byte) (0x80 | codePoint >> 6 & 0x3F)).put((byte) (0x80 | codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                row.put((byte) '?');
+            } else {
+                row.put((byte) (0xE0 | c >> 12)).put((byte) (0x80 | c >> 6 & 0x3F)).put((byte) (0x80 | c & 0x3F));
+            }
+        }
+    }
+
+    private void putAscii(String text) {
+        reserve(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            row.put((byte) text.charAt(i));
+        }
+    }
+
+    private void put(byte b) {
+        reserve(1);
+        row.put(b);
+    }
+
+    /**
+     * Agranda la fila si no quedan libres {@code length} bytes.
+     */
+    private void reserve(int length) {
+        if (row.remaining() < length) {
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(row.capacity() * 2, row.position() + length));
+            row.flip();
+            row = larger.put(row);
+        }
+    }
+
+    /**
+     * Pasa la fila codificada al buffer del archivo, escribiendo antes el buffer si no cabe.
+     */
+    private void emit() throws IOException {
+        row.flip();
+        if (row.remaining() > buffer.remaining()) {
+            drain();
+        }
+        if (row.remaining() > buffer.capacity()) {
+            writeOut(row);
+        } else {
+            buffer.put(row);
+        }
+        row.clear();
+    }
+
+    /**
+     * Escribe el contenido del buffer en el archivo.
+     */
+    private void drain() throws IOException {
+        buffer.flip();
+        writeOut(buffer);
+        buffer.clear();
+    }
+
+    private void writeOut(ByteBuffer bytes) throws IOException {
+        if (gzip != null) {
+            gzip.write(bytes.array(), bytes.arrayOffset() + bytes.position(), bytes.remaining());
+            bytes.position(bytes.limit());
+        } else {
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+        }
+    }
+}
@@ -1,9 +1,11 @@
 package controller;
 
 import model.Serie;
+import model.SerieRow;
+import controller.CsvSchema.ColumnType;
+import view.TableRenderer;
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
-import java.util.List;
 
 /**
  * Controlador para la gestión de la entidad Serie.
@@ -12,6 +14,13 @@ import java.util.List;
  */
 public class SerieController extends SuperController {
 
+    /**
+     * Columnas del listado de la tabla de series.
+     */
+    private static final TableRenderer.Column[] COLUMNS = {
+            new TableRenderer.Column("id_serie", 22), new TableRenderer.Column("nombre", 22)
+    };
+
     /**
      * Crea una nueva instancia de SerieController sin inicializar los parámetros.
      */
@@ -52,44 +61,72 @@ public class SerieController extends SuperController {
     /**
      * Método para agregar una Serie a la tabla 'series'.
      *
-     * @param data Arreglo de String con los datos de la Serie a agregar.
+     * @param data Registro CSV con los datos de la Serie a agregar.
+     * @param em   EntityManager con la transacción activa.
+     * @return Siempre `true`.
      */
     @Override
-    void addInTable(String[] data) {
-        EntityManager em = entityManagerFactory.createEntityManager();
-
+    boolean addInTable(CsvRecord data, EntityManager em) {
         Serie serie = new Serie();
-        serie.setIdSerie(Integer.parseInt(data[0]));
-        serie.setNombre(data[1]);
+        serie.setIdSerie(data.getRequiredInt(0));
+        serie.setNombre(data.getText(1));
 
-        em.getTransaction().begin();
         em.persist(serie);
-        em.getTransaction().commit();
-        em.close();
+        return true;
     }
 
     /**
-     * Lista todas las series almacenadas en la base de datos.
+     * Devuelve el tipo de cada columna del archivo CSV de la Serie.
+     *
+     * @return Esquema de las columnas del archivo CSV.
      */
-    public void listSeries() {
-        EntityManager em = entityManagerFactory.createEntityManager();
+    @Override
+    CsvSchema schema() {
+        return new CsvSchema(ColumnType.INT, ColumnType.TEXT);
+    }
 
-        try {
-            List<Serie> result = em.createQuery("FROM Serie", Serie.class)
-                    .getResultList();
+    /**
+     * Devuelve las columnas de la tabla 'series' que se rellenan en la carga masiva.
+     *
+     * @return Nombres de las columnas.
+     */
+    @Override
+    String[] bulkColumns() {
+        return new String[] {"idSerie", "nombre"};
+    }
 
-            System.out.printf("%-22s %-22s%n", "id_serie", "nombre");
+    /**
+     * Convierte un registro del CSV en una fila de la tabla 'series'.
+     *
+     * @param data Registro CSV con los datos de la Serie.
+     * @return Valores de la fila.
+     */
+    @Override
+    Object[] toRow(CsvRecord data) {
+        return new Object[] {data.getRequiredInt(0), data.getText(1)};
+    }
 
-            for (Serie serie : result) {
-                System.out.printf("%-22d %-22s%n", serie.getIdSerie(), serie.getNombre());
-            }
+    /**
+     * Lista todas las series almacenadas en la base de datos.
+     */
+    public void listSeries() {
+        listSeries(new ListOptions());
+    }
 
+    /**
+     * Lista todas las series almacenadas en la base de datos.
+     * La tabla se recorre por orden de id sin cargarla entera en memoria, por páginas o como un flujo
+     * según las opciones (ver {@link EntityLister}), leyendo solo las columnas del listado ({@link SerieRow}).
+     *
+     * @param options Opciones del listado.
+     */
+    public void listSeries(ListOptions options) {
+        try (TableRenderer table = openTable(options, COLUMNS)) {
+            table.header();
+            new EntityLister<>(entityManagerFactory, Serie.class, SerieRow.class, SerieRow.SELECT, SerieRow::idSerie, options)
+                    .forEach(serie -> table.integer(serie.idSerie()).text(serie.nombre()).endRow());
         } catch (Exception e) {
             e.printStackTrace();
-        } finally {
-            if (em != null && em.isOpen()) {
-                em.close();
-            }
         }
     }
 
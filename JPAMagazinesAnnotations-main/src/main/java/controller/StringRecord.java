@@ -0,0 +1,96 @@
+package controller;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+
+/**
+ * Registro CSV formado por los campos de texto que devuelve OpenCSV.
+ * Cada acceso tipado convierte el texto de la columna en el momento.
+ */
+final class StringRecord implements CsvRecord {
+
+    /**
+     * Campos del registro.
+     */
+    private final String[] fields;
+
+    /**
+     * Posición del registro en el archivo, empezando por 1.
+     */
+    private final long recordNumber;
+
+    /**
+     * Crea un registro a partir de sus campos.
+     *
+     * @param fields       Campos del registro.
+     * @param recordNumber Posición del registro en el archivo.
+     */
+    StringRecord(String[] fields, long recordNumber) {
+        this.fields = fields;
+        this.recordNumber = recordNumber;
+    }
+
+    @Override
+    public int size() {
+        return fields.length;
+    }
+
+    @Override
+    public long getRecordNumber() {
+        return recordNumber;
+    }
+
+    @Override
+    public boolean isEmpty(int column) {
+        return fields[column] == null || fields[column].isEmpty();
+    }
+
+    @Override
+    public int getInt(int column) {
+        try {
+            return Integer.parseInt(fields[column]);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    @Override
+    public int getRequiredInt(int column) {
+        return Integer.parseInt(fields[column]);
+    }
+
+    @Override
+    public BigDecimal getDecimal(int column) {
+        String value = fields[column];
+        if (value != null && !value.isEmpty()) {
+            return new BigDecimal(value).setScale(3, RoundingMode.HALF_UP);
+        }
+        return null;
+    }
+
+    @Override
+    public String getText(int column) {
+        return fields[column];
+    }
+
+    @Override
+    public CsvRecord detach() {
+        return this;
+    }
+
+    @Override
+    public String[] toArray() {
+        return fields.clone();
+    }
+
+    /**
+     * Devuelve los campos del registro con el formato de {@link Arrays#toString(Object[])}.
+     *
+     * @return Una cadena con los campos del registro.
+     */
+    @Override
+    public String toString() {
+        return Arrays.toString(fields);
+    }
+}
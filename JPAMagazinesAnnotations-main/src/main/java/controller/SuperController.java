@@ -1,18 +1,33 @@
 package controller;
 
-import com.opencsv.CSVReader;
 import com.opencsv.exceptions.CsvException;
+import com.opencsv.exceptions.CsvValidationException;
+import org.hibernate.Hibernate;
+import org.hibernate.Session;
+import org.hibernate.annotations.QueryHints;
 import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
 import org.hibernate.engine.spi.SessionFactoryImplementor;
+import view.TableRenderer;
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
+import javax.persistence.metamodel.ManagedType;
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.sql.*;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * La clase abstracta `SuperController` proporciona funcionalidades comunes para controladores específicos.
@@ -31,6 +46,16 @@ public abstract class SuperController {
      */
     String tableName;
 
+    /**
+     * Registros rechazados de la carga en curso o de la última carga.
+     */
+    Quarantine quarantine;
+
+    /**
+     * Métricas de la carga en curso o de la última carga.
+     */
+    LoadMetrics metrics;
+
     /**
      * Constructor por defecto de la clase `SuperController`.
      */
@@ -46,39 +71,725 @@ public abstract class SuperController {
     public SuperController(EntityManagerFactory entityManagerFactory, String tableName) {
         this.entityManagerFactory = entityManagerFactory;
         this.tableName = tableName;
+        this.quarantine = new Quarantine(tableName, Paths.get(BatchOptions.DEFAULT_QUARANTINE_DIR));
+        this.metrics = new LoadMetrics(tableName, quarantine);
+    }
+
+    /**
+     * Método abstracto que debe ser implementado por las subclases para agregar datos a una tabla
+     * dentro de un EntityManager con una transacción ya iniciada.
+     * La subclase no debe abrir, confirmar ni cerrar la transacción.
+     *
+     * @param data Registro CSV con los datos a agregar en la tabla.
+     * @param em   EntityManager con la transacción activa.
+     * @return `true` si el registro se ha agregado, `false` si se ha puesto en cuarentena.
+     */
+    abstract boolean addInTable(CsvRecord data, EntityManager em);
+
+    /**
+     * Método abstracto que devuelve el tipo de cada columna del archivo CSV de la tabla,
+     * utilizado por el lector tipado {@link TypedCsvReader}.
+     *
+     * @return Esquema de las columnas del archivo CSV.
+     */
+    abstract CsvSchema schema();
+
+    /**
+     * Método abstracto que devuelve las columnas de la tabla que se rellenan en la carga masiva,
+     * en el mismo orden que los valores devueltos por {@link #toRow(CsvRecord)}.
+     *
+     * @return Nombres de las columnas de la tabla.
+     */
+    abstract String[] bulkColumns();
+
+    /**
+     * Método abstracto que convierte un registro del CSV en los valores de una fila de la tabla
+     * para la carga masiva, aplicando las mismas conversiones que {@link #addInTable(CsvRecord, EntityManager)}.
+     *
+     * @param data Registro CSV.
+     * @return Valores de la fila, o null si el registro no debe cargarse.
+     */
+    abstract Object[] toRow(CsvRecord data);
+
+    /**
+     * Prepara cualquier carga de la tabla antes de leer el primer registro, por ejemplo resolviendo una sola vez
+     * las referencias a otras tablas. Se invoca desde todos los métodos de carga. Por defecto no hace nada.
+     */
+    void prepareLoad() {
+    }
+
+    /**
+     * Avisa de que el contenido de la tabla puede haber cambiado, por ejemplo para descartar lo que se guarda
+     * de ella en memoria. Se invoca al terminar todos los métodos de carga, hayan fallado o no, y al eliminar
+     * la tabla. Por defecto no hace nada.
+     */
+    void tableChanged() {
+    }
+
+    /**
+     * Empieza una carga: crea la cuarentena y las métricas de la carga y prepara la tabla con {@link #prepareLoad()}.
+     *
+     * @param options Opciones de la carga, de las que se toman el directorio de la cuarentena
+     *                y el intervalo de los informes de progreso.
+     */
+    void beginLoad(BatchOptions options) {
+        quarantine = new Quarantine(tableName, options.getQuarantineDir());
+        metrics = new LoadMetrics(tableName, quarantine);
+        metrics.startReporting(options.getReportInterval());
+        prepareLoad();
+    }
+
+    /**
+     * Termina una carga, haya fallado o no: cierra la cuarentena, muestra el resumen de las métricas
+     * y avisa del cambio con {@link #tableChanged()}.
+     */
+    void endLoad() {
+        try {
+            quarantine.close();
+        } finally {
+            metrics.finish();
+            tableChanged();
+        }
+    }
+
+    /**
+     * Obtiene las métricas de la carga en curso o, si no hay ninguna, de la última carga de la tabla.
+     *
+     * @return Las métricas de la carga.
+     */
+    public LoadMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Confirma la transacción activa del EntityManager y anota su duración en las métricas.
+     *
+     * @param em   EntityManager con la transacción activa.
+     * @param rows Filas que se confirman.
+     */
+    void commit(EntityManager em, long rows) {
+        long start = System.nanoTime();
+        em.getTransaction().commit();
+        metrics.recordCommit(System.nanoTime() - start, rows);
+    }
 
+    /**
+     * Lee el siguiente registro válido del origen.
+     * Los registros mal formados se ponen en cuarentena y se saltan sin interrumpir la carga.
+     *
+     * @param source Origen de los registros.
+     * @return El siguiente registro válido, o null si no quedan más.
+     * @throws IOException  Si se produce un error al leer el archivo.
+     * @throws CsvException Si el origen no puede continuar tras un registro no válido.
+     */
+    CsvRecord nextRecord(RecordSource source) throws IOException, CsvException {
+        while (true) {
+            try {
+                CsvRecord record = source.next();
+                if (record != null) {
+                    metrics.recordRead(source.getBytesRead());
+                }
+                return record;
+            } catch (CsvValidationException e) {
+                quarantine.add(null, Quarantine.Reason.MALFORMED_RECORD, e.getMessage());
+            }
+        }
     }
 
     /**
-     * Método abstracto que debe ser implementado por las subclases para agregar datos a una tabla.
+     * Agrega un registro a la tabla con {@link #addInTable(CsvRecord, EntityManager)}.
+     * Si un valor del registro no se puede convertir, el registro se pone en cuarentena y la carga continúa.
      *
-     * @param data Datos a agregar en la tabla.
+     * @param data Registro CSV con los datos a agregar en la tabla.
+     * @param em   EntityManager con la transacción activa.
+     * @return `true` si el registro se ha agregado, `false` si se ha puesto en cuarentena.
      */
-    abstract void addInTable(String[] data);
+    boolean add(CsvRecord data, EntityManager em) {
+        try {
+            return addInTable(data, em);
+        } catch (NumberFormatException e) {
+            quarantine.add(data, Quarantine.Reason.INVALID_NUMBER, e.getMessage());
+        } catch (IndexOutOfBoundsException e) {
+            quarantine.add(data, Quarantine.Reason.MALFORMED_RECORD, "Faltan columnas: " + e.getMessage());
+        }
+        return false;
+    }
+
+    /**
+     * Convierte un registro en una fila con {@link #toRow(CsvRecord)}.
+     * Si un valor del registro no se puede convertir, el registro se pone en cuarentena.
+     *
+     * @param data Registro CSV.
+     * @return Valores de la fila, o null si el registro no debe cargarse.
+     */
+    Object[] convert(CsvRecord data) {
+        try {
+            return toRow(data);
+        } catch (NumberFormatException e) {
+            quarantine.add(data, Quarantine.Reason.INVALID_NUMBER, e.getMessage());
+        } catch (IndexOutOfBoundsException e) {
+            quarantine.add(data, Quarantine.Reason.MALFORMED_RECORD, "Faltan columnas: " + e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * Agrega un único registro a la tabla en su propia transacción.
+     *
+     * @param data Registro CSV con los datos a agregar en la tabla.
+     */
+    void addInTable(CsvRecord data) {
+        EntityManager em = entityManagerFactory.createEntityManager();
+
+        try {
+            em.getTransaction().begin();
+            commit(em, add(data, em) ? 1 : 0);
+        } finally {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            em.close();
+        }
+    }
+
+    /**
+     * Obtiene el texto con el número de registros descartados en la carga actual, para los mensajes
+     * de las cargas que cuentan los registros leídos.
+     *
+     * @return El texto, o una cadena vacía si no se ha descartado ninguno.
+     */
+    private String rejectedSuffix() {
+        long rejected = quarantine.rejected();
+        return rejected == 0 ? "" : ", " + rejected + " descartados";
+    }
 
     /**
      * Lee un archivo CSV y agrega los datos a la tabla.
+     * Los registros se leen de uno en uno a medida que se insertan, por lo que el consumo de memoria
+     * no depende del tamaño del archivo.
      *
-     * @param csvPath Ruta del archivo CSV.
+     * @param csvPath Ruta del archivo CSV, como recurso del classpath o como ruta del sistema de archivos.
      */
     public void readCsv(String csvPath) {
-        InputStream is = getClass().getResourceAsStream(csvPath);
+        BatchOptions options = new BatchOptions();
 
-        try {
-            CSVReader reader = new CSVReader(new InputStreamReader(is));
-            List<String[]> records = reader.readAll();
+        try (RecordSource source = openSource(csvPath, options)) {
+            beginLoad(options);
+            try {
+                CsvRecord record;
+                while ((record = nextRecord(source)) != null) {
+                    addInTable(record);
+                }
+                System.out.println("Tabla '" + tableName + "' completada");
+            } finally {
+                endLoad();
+            }
+        } catch (IOException | CsvException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Lee un archivo CSV y agrega los datos a la tabla por lotes, utilizando un único EntityManager.
+     * Los INSERT se envían agrupados en lotes JDBC de {@link BatchOptions#getBatchSize()} sentencias,
+     * tras cada lote se vacía el contexto de persistencia con flush() y clear() para acotar la memoria,
+     * y cada {@link BatchOptions#getChunkSize()} registros se confirma la transacción.
+     * Con cada bloque se guarda el progreso de la carga en la tabla de control (ver {@link Checkpoint}).
+     * Si se produce un error, se deshace el bloque en curso; los bloques anteriores quedan confirmados
+     * y la carga puede continuar con {@link #resumeCsv(String, BatchOptions)}.
+     *
+     * @param csvPath Ruta del archivo CSV, como recurso del classpath o como ruta del sistema de archivos.
+     * @param options Opciones de la carga por lotes.
+     */
+    public void readCsv(String csvPath, BatchOptions options) {
+        loadInChunks(csvPath, options, false);
+    }
+
+    /**
+     * Reanuda la carga por lotes de un archivo CSV a partir del último bloque confirmado.
+     * Si la última carga de la tabla terminó no se hace nada, y si la tabla nunca se ha cargado por lotes
+     * o está vacía, por ejemplo porque se ha vuelto a crear, se carga el archivo completo.
+     *
+     * @param csvPath Ruta del archivo CSV, como recurso del classpath o como ruta del sistema de archivos.
+     * @param options Opciones de la carga por lotes.
+     * @throws IllegalStateException Si la carga interrumpida era de otro archivo.
+     */
+    public void resumeCsv(String csvPath, BatchOptions options) {
+        loadInChunks(csvPath, options, true);
+    }
+
+    /**
+     * Carga el archivo por bloques guardando el progreso tras cada uno.
+     *
+     * @param csvPath Ruta del archivo CSV.
+     * @param options Opciones de la carga por lotes.
+     * @param resume  `true` para continuar desde el progreso guardado.
+     */
+    private void loadInChunks(String csvPath, BatchOptions options, boolean resume) {
+        EntityManager em = entityManagerFactory.createEntityManager();
+
+        try (RecordSource source = openSource(csvPath, options)) {
+            Checkpoint.createTable(em);
+            Checkpoint checkpoint = resume ? Checkpoint.load(em, tableName) : null;
+            if (checkpoint != null && isEmpty(em)) {
+                System.out.println("Tabla '" + tableName + "' vacía: se descarta la carga guardada y se carga el archivo completo");
+                checkpoint = null;
+            }
+
+            if (checkpoint == null) {
+                checkpoint = new Checkpoint(tableName, csvPath);
+            } else if (!checkpoint.csvPath.equals(csvPath)) {
+                throw new IllegalStateException("La carga interrumpida de la tabla '" + tableName
+                        + "' era del archivo " + checkpoint.csvPath);
+            } else if (checkpoint.completed) {
+                System.out.println("Tabla '" + tableName + "' ya completada (" + checkpoint.records + " registros)");
+                return;
+            } else {
+                source.skip(checkpoint.records, checkpoint.position);
+                System.out.println("Tabla '" + tableName + "' reanudada desde el registro " + (checkpoint.records + 1));
+            }
+
+            beginLoad(options);
+            try {
+                em.unwrap(Session.class).setJdbcBatchSize(options.getBatchSize());
+                em.getTransaction().begin();
+
+                int count = 0;
+                int added = 0;
+                CsvRecord record;
+                while ((record = nextRecord(source)) != null) {
+                    if (add(record, em)) {
+                        added++;
+                    }
+                    count++;
+
+                    if (count % options.getBatchSize() == 0) {
+                        em.flush();
+                        em.clear();
+                    }
+                    if (count % options.getChunkSize() == 0) {
+                        checkpoint.records += options.getChunkSize();
+                        checkpoint.position = source.getPosition();
+                        checkpoint.chunks++;
+                        checkpoint.save(em);
+                        commit(em, added);
+                        quarantine.forgetAll();
+                        added = 0;
+                        em.getTransaction().begin();
+                    }
+                }
+                checkpoint.records += count % options.getChunkSize();
+                checkpoint.position = source.getPosition();
+                checkpoint.chunks++;
+                checkpoint.completed = true;
+                checkpoint.save(em);
+                commit(em, added);
+                System.out.println("Tabla '" + tableName + "' completada (" + checkpoint.records + " registros leídos"
+                        + rejectedSuffix() + ")");
+            } finally {
+                endLoad();
+            }
+        } catch (IOException | CsvException e) {
+            throw new RuntimeException(e);
+        } finally {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            em.close();
+        }
+    }
+
+    /**
+     * Comprueba si la tabla no tiene ninguna fila.
+     */
+    private boolean isEmpty(EntityManager em) {
+        return em.createNativeQuery("SELECT 1 FROM " + tableName).setMaxResults(1).getResultList().isEmpty();
+    }
+
+    /**
+     * Lee un archivo CSV y agrega los datos a la tabla con varios hilos.
+     * El archivo se divide en bloques de {@link BatchOptions#getChunkSize()} registros que se insertan en paralelo
+     * con {@link BatchOptions#getParallelism()} hilos, cada uno con su propio EntityManager y su propia transacción.
+     * Un bloque que falla se deshace entero y se reintenta hasta {@link BatchOptions#getMaxRetries()} veces,
+     * por lo que nunca se duplican filas. Al terminar se muestran los bloques fallidos en el orden del archivo.
+     *
+     * @param csvPath Ruta del archivo CSV, como recurso del classpath o como ruta del sistema de archivos.
+     * @param options Opciones de la carga en paralelo.
+     * @return `true` si todos los bloques se cargaron, `false` si alguno falló.
+     */
+    public boolean readCsvParallel(String csvPath, BatchOptions options) {
+        try (RecordSource source = openSource(csvPath, options)) {
+            beginLoad(options);
+            try {
+                List<ParallelLoader.ChunkResult> results = new ParallelLoader(this, options).load(source);
+                long count = 0;
+                boolean ok = true;
 
-            for (String[] record : records) {
-                addInTable(record);
+                for (ParallelLoader.ChunkResult result : results) {
+                    if (result.failed()) {
+                        ok = false;
+                        System.out.println("Bloque " + result.index + " (registros " + result.firstRecord + "-" +
+                                (result.firstRecord + result.size - 1) + ") no cargado tras " + result.attempts +
+                                " intentos: " + result.error);
+                    } else {
+                        count += result.size;
+                    }
+                }
+                System.out.println("Tabla '" + tableName + "' completada" + (ok ? "" : " con errores") + " (" + count + " registros leídos"
+                        + rejectedSuffix() + ")");
+                return ok;
+            } finally {
+                endLoad();
             }
-            System.out.println("Tabla '" + tableName + "' completada");
         } catch (IOException | CsvException e) {
             throw new RuntimeException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Carga un archivo CSV en la tabla sin pasar por el ORM, leyendo, convirtiendo e insertando a la vez.
+     * La lectura se hace en el hilo que llama y la conversión y la inserción en {@link BatchOptions#getParallelism()}
+     * tareas cada una, comunicadas por colas acotadas (ver {@link PipelineLoader}). Cada tarea de inserción
+     * confirma su transacción cada {@link BatchOptions#getChunkSize()} filas.
+     *
+     * @param csvPath Ruta del archivo CSV, como recurso del classpath o como ruta del sistema de archivos.
+     * @param options Opciones de la carga.
+     */
+    public void pipelineLoad(String csvPath, BatchOptions options) {
+        try (RecordSource source = openSource(csvPath, options)) {
+            beginLoad(options);
+            try {
+                long count = new PipelineLoader(this, options).load(source);
+                System.out.println("Tabla '" + tableName + "' completada (" + count + " registros)");
+            } finally {
+                endLoad();
+            }
+        } catch (IOException | CsvException e) {
+            throw new RuntimeException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Carga un archivo CSV en la tabla sin pasar por el ORM, en una única transacción.
+     * En PostgreSQL las filas se envían con {@code COPY ... FROM STDIN}; en otras bases de datos,
+     * con INSERT agrupados en lotes de {@link BatchOptions#getBatchSize()} sentencias.
+     * Está pensado para recargas completas de la tabla.
+     *
+     * @param csvPath Ruta del archivo CSV, como recurso del classpath o como ruta del sistema de archivos.
+     * @param options Opciones de la carga; se utilizan el tamaño de lote y el lector.
+     */
+    public void bulkLoad(String csvPath, BatchOptions options) {
+        EntityManager em = entityManagerFactory.createEntityManager();
+        BulkLoader loader = new BulkLoader(this, options.getBatchSize());
+
+        try (RecordSource source = openSource(csvPath, options)) {
+            beginLoad(options);
+            try {
+                em.getTransaction().begin();
+                long count = em.unwrap(Session.class).doReturningWork(connection -> {
+                    try {
+                        return loader.load(connection, source);
+                    } catch (IOException | CsvException e) {
+                        throw new RuntimeException(e);
+                    }
+                });
+                commit(em, count);
+                System.out.println("Tabla '" + tableName + "' completada (" + count + " registros)");
+            } finally {
+                endLoad();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            em.close();
+        }
+    }
+
+    /**
+     * Sincroniza la tabla con un archivo CSV sin pasar por el ORM, en una única transacción.
+     * A diferencia de las otras cargas, puede ejecutarse sobre una tabla ya completada: solo se insertan
+     * o actualizan las filas nuevas o modificadas desde la última sincronización, que se detectan
+     * comparando un hash del contenido de cada fila (ver {@link SyncLoader}).
+     *
+     * @param csvPath Ruta del archivo CSV, como recurso del classpath o como ruta del sistema de archivos.
+     * @param options Opciones de la carga; se utilizan el tamaño de lote y el lector.
+     */
+    public void syncCsv(String csvPath, BatchOptions options) {
+        EntityManager em = entityManagerFactory.createEntityManager();
+        SyncLoader loader = new SyncLoader(this, options.getBatchSize());
+
+        try (RecordSource source = openSource(csvPath, options)) {
+            beginLoad(options);
+            try {
+                em.getTransaction().begin();
+                SyncLoader.Result result = em.unwrap(Session.class).doReturningWork(connection -> {
+                    try {
+                        return loader.sync(connection, source);
+                    } catch (IOException | CsvException e) {
+                        throw new RuntimeException(e);
+                    }
+                });
+                commit(em, result.written);
+                System.out.println("Tabla '" + tableName + "' sincronizada (" + result.written + " registros nuevos o modificados, "
+                        + result.unchanged + " sin cambios)");
+            } finally {
+                endLoad();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            em.close();
+        }
+    }
+
+    /**
+     * Exporta la tabla completa a un archivo en el formato de las opciones, sin pasar por el ORM.
+     * Se exportan las columnas de {@link #exportColumns()} en orden de clave primaria, de modo que en CSV el archivo
+     * tiene el mismo formato que el que se carga con {@link #readCsv(String, BatchOptions)}.
+     * Las filas se leen de un cursor y se escriben a medida que llegan, sin tener la tabla entera en memoria.
+     *
+     * @param file    Archivo de destino; se sustituye si ya existe.
+     * @param options Opciones de la exportación.
+     * @return El número de filas exportadas.
+     */
+    public long exportTable(Path file, ExportOptions options) {
+        String[] columns = exportColumns();
+        String sql = "SELECT " + String.join(", ", columns) + " FROM " + tableName + " ORDER BY " + primaryKeyColumn();
+        EntityManager em = entityManagerFactory.createEntityManager();
+        long count;
+
+        try (RowExporter exporter = new RowExporter(file, columns, options)) {
+            // PostgreSQL solo lee con un cursor, de fetchSize filas en fetchSize, si la conexión no está en autocommit.
+            em.getTransaction().begin();
+            em.unwrap(Session.class).doWork(connection -> {
+                try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                    statement.setFetchSize(options.getFetchSize());
+                    try (ResultSet resultSet = statement.executeQuery()) {
+                        Object[] row = new Object[columns.length];
+                        while (resultSet.next()) {
+                            for (int i = 0; i < row.length; i++) {
+                                row[i] = resultSet.getObject(i + 1);
+                            }
+                            exporter.write(row);
+                        }
+                    }
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            count = exporter.getRows();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            em.close();
+        }
+        System.out.println("Tabla '" + tableName + "' exportada (" + count + " filas) en " + file);
+        return count;
+    }
+
+    /**
+     * Exporta el resultado de una consulta JPQL a un archivo en el formato de las opciones.
+     * La consulta debe devolver valores y no entidades, por ejemplo {@code SELECT e.nombre, e.simbolo FROM Elemento e};
+     * los resultados se leen como un flujo sobre un cursor y se escriben a medida que llegan.
+     *
+     * @param jpql    Consulta JPQL.
+     * @param columns Nombre de cada valor del resultado, en el mismo orden.
+     * @param file    Archivo de destino; se sustituye si ya existe.
+     * @param options Opciones de la exportación.
+     * @return El número de filas exportadas.
+     * @throws IllegalArgumentException Si la consulta devuelve entidades o un número de valores distinto del de columnas.
+     */
+    public long exportQuery(String jpql, String[] columns, Path file, ExportOptions options) {
+        EntityManager em = entityManagerFactory.createEntityManager();
+
+        Set<Class<?>> managedTypes = new HashSet<>();
+        for (ManagedType<?> type : em.getMetamodel().getManagedTypes()) {
+            managedTypes.add(type.getJavaType());
+        }
+
+        try (RowExporter exporter = new RowExporter(file, columns, options)) {
+            em.getTransaction().begin();
+            try (Stream<?> results = em.createQuery(jpql)
+                    .setHint(QueryHints.READ_ONLY, true)
+                    .setHint(QueryHints.FETCH_SIZE, options.getFetchSize())
+                    .getResultStream()) {
+                Object[] single = new Object[1];
+                Iterator<?> iterator = results.iterator();
+                while (iterator.hasNext()) {
+                    Object result = iterator.next();
+                    Object[] row = result instanceof Object[] ? (Object[]) result : single;
+                    single[0] = result;
+                    if (row.length != columns.length) {
+                        throw new IllegalArgumentException("La consulta devuelve " + row.length + " valores y se han indicado "
+                                + columns.length + " columnas");
+                    }
+                    for (Object value : row) {
+                        if (value != null && managedTypes.contains(Hibernate.getClass(value))) {
+                            throw new IllegalArgumentException("La consulta debe devolver valores y no entidades: " + jpql);
+                        }
+                    }
+                    exporter.write(row);
+                }
+            }
+            return exporter.getRows();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            em.close();
         }
     }
 
     /**
-     * Elimina la tabla de la base de datos.
+     * Devuelve las columnas que se exportan con {@link #exportTable(Path, ExportOptions)}, que deben coincidir con
+     * las del archivo CSV de la tabla. Por defecto son las de {@link #bulkColumns()}.
+     *
+     * @return Nombres de las columnas.
+     */
+    String[] exportColumns() {
+        return bulkColumns();
+    }
+
+    /**
+     * Devuelve la columna de la clave primaria de la tabla, por la que se ordenan las filas exportadas.
+     * Por defecto es la primera columna de {@link #bulkColumns()}.
+     *
+     * @return Nombre de la columna.
+     */
+    String primaryKeyColumn() {
+        return bulkColumns()[0];
+    }
+
+    /**
+     * Devuelve las posiciones, dentro de {@link #bulkColumns()}, de las columnas que identifican una fila
+     * al sincronizar la tabla. Por defecto es la primera columna.
+     *
+     * @return Posiciones de las columnas clave.
+     */
+    int[] keyColumns() {
+        return new int[] {0};
+    }
+
+    /**
+     * Indica si las columnas de {@link #keyColumns()} forman la clave primaria de la tabla,
+     * de modo que la sincronización puede utilizar {@code INSERT ... ON CONFLICT}.
+     *
+     * @return `true` si son la clave primaria.
+     */
+    boolean keyIsPrimaryKey() {
+        return true;
+    }
+
+    /**
+     * Obtiene los identificadores de todas las filas de una entidad con una única consulta.
+     * Los identificadores se recorren sin cargar las entidades y se guardan en un conjunto de bits.
+     *
+     * @param entity      Clase de la entidad.
+     * @param idAttribute Nombre del atributo identificador de la entidad.
+     * @return Conjunto de identificadores existentes.
+     */
+    BitSet loadIds(Class<?> entity, String idAttribute) {
+        EntityManager em = entityManagerFactory.createEntityManager();
+        BitSet ids = new BitSet();
+
+        try (Stream<Integer> stream = em.createQuery("SELECT e." + idAttribute + " FROM " +
+                em.getMetamodel().entity(entity).getName() + " e", Integer.class).getResultStream()) {
+            stream.filter(id -> id >= 0).forEach(ids::set);
+        } finally {
+            em.close();
+        }
+        return ids;
+    }
+
+    /**
+     * Abre un origen de registros que recorre el archivo CSV registro a registro.
+     * Según las opciones, el archivo se proyecta en memoria con {@link MappedCsvReader}, se lee con el lector
+     * tipado {@link TypedCsvReader} o se lee con OpenCSV; los dos primeros utilizan el esquema de la tabla.
+     *
+     * @param csvPath Ruta del archivo CSV.
+     * @param options Opciones de la carga que indican el lector a utilizar.
+     * @return El origen de registros abierto.
+     * @throws IOException Si el archivo no existe o no se puede abrir.
+     */
+    RecordSource openSource(String csvPath, BatchOptions options) throws IOException {
+        if (options.isMemoryMapped()) {
+            Path file = findFile(csvPath);
+            if (file != null) {
+                return new MappedCsvReader(file, schema());
+            }
+        }
+
+        InputStream is = openStream(csvPath);
+        if (options.isTypedParser() || options.isMemoryMapped()) {
+            return new TypedCsvReader(is, schema());
+        }
+        return new OpenCsvSource(is);
+    }
+
+    /**
+     * Busca un archivo CSV en el sistema de archivos, primero como recurso del classpath y después como ruta.
+     *
+     * @param csvPath Ruta del archivo CSV.
+     * @return La ruta del archivo, o null si no es un archivo del sistema de archivos, por ejemplo dentro de un JAR.
+     */
+    Path findFile(String csvPath) {
+        URL resource = getClass().getResource(csvPath);
+
+        if (resource != null) {
+            if (!"file".equals(resource.getProtocol())) {
+                return null;
+            }
+            try {
+                return Paths.get(resource.toURI());
+            } catch (URISyntaxException e) {
+                return null;
+            }
+        }
+        Path path = Paths.get(csvPath);
+        return Files.isRegularFile(path) ? path : null;
+    }
+
+    /**
+     * Abre el contenido de un archivo CSV.
+     * Primero se busca la ruta como recurso del classpath y, si no existe, como archivo del sistema de archivos.
+     * El contenido se interpreta siempre en UTF-8.
+     *
+     * @param csvPath Ruta del archivo CSV.
+     * @return El flujo de entrada del archivo.
+     * @throws IOException Si el archivo no existe o no se puede abrir.
+     */
+    InputStream openStream(String csvPath) throws IOException {
+        InputStream is = getClass().getResourceAsStream(csvPath);
+
+        if (is == null) {
+            Path path = Paths.get(csvPath);
+            if (!Files.isRegularFile(path)) {
+                throw new FileNotFoundException("No se encuentra el archivo CSV: " + csvPath);
+            }
+            is = Files.newInputStream(path);
+        }
+        return is;
+    }
+
+    /**
+     * Elimina la tabla de la base de datos y el progreso guardado de su carga por lotes.
      */
     public void deleteTable() {
         EntityManager em = entityManagerFactory.createEntityManager();
@@ -88,6 +799,8 @@ public abstract class SuperController {
             String nativeQuery = "DROP TABLE " + tableName +";";
             em.createNativeQuery(nativeQuery).executeUpdate();
             em.getTransaction().commit();
+            Checkpoint.delete(em, tableName);
+            tableChanged();
 
             System.out.println("Tabla " + tableName + " eliminada correctamente");
          }catch (Exception e) {
@@ -96,6 +809,19 @@ public abstract class SuperController {
         em.close();
     }
 
+    /**
+     * Abre la tabla en la que se escribe un listado: el archivo de las opciones o, si no hay ninguno,
+     * la salida estándar.
+     *
+     * @param options Opciones del listado.
+     * @param columns Columnas de la tabla.
+     * @return La tabla, que debe cerrarse al terminar el listado.
+     * @throws IOException Si no se puede crear el archivo.
+     */
+    TableRenderer openTable(ListOptions options, TableRenderer.Column... columns) throws IOException {
+        return options.getOutput() == null ? new TableRenderer(columns) : new TableRenderer(options.getOutput(), columns);
+    }
+
     /**
      * Verifica si una tabla existe en la base de datos.
      *
@@ -121,6 +847,29 @@ public abstract class SuperController {
         }
     }
 
+    /**
+     * Verifica si una tabla tiene una columna, con la conexión del EntityManager.
+     * El nombre de la columna se compara sin distinguir mayúsculas, porque la base de datos guarda en minúsculas
+     * los nombres que se crearon sin comillas.
+     *
+     * @param em         EntityManager cuya conexión se consulta.
+     * @param tableName  Nombre de la tabla.
+     * @param columnName Nombre de la columna a verificar.
+     * @return `true` si la columna existe, `false` si no.
+     */
+    boolean doesColumnExist(EntityManager em, String tableName, String columnName) {
+        return em.unwrap(Session.class).doReturningWork(connection -> {
+            try (ResultSet columns = connection.getMetaData().getColumns(null, null, tableName, null)) {
+                while (columns.next()) {
+                    if (columnName.equalsIgnoreCase(columns.getString("COLUMN_NAME"))) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+        });
+    }
+
     /**
      * Convierte una cadena de texto en un valor entero.
      *
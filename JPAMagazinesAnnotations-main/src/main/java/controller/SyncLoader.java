@@ -0,0 +1,336 @@
+package controller;
+
+import com.opencsv.exceptions.CsvException;
+import org.postgresql.core.BaseConnection;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * La clase SyncLoader sincroniza una tabla con un archivo CSV sin pasar por el ORM, de forma que puede
+ * ejecutarse sobre una base de datos ya completada.
+ * Para cada fila se guarda en la tabla {@value #HASH_TABLE} un hash de su contenido; las filas cuyo hash
+ * no ha cambiado desde la última sincronización y que siguen existiendo en la tabla no se escriben.
+ * El resto se insertan o se actualizan: en PostgreSQL, cuando la clave es la clave primaria, con
+ * {@code INSERT ... ON CONFLICT DO UPDATE}; en otro caso con UPDATE o INSERT según la fila exista o no.
+ * Las filas que ya no aparecen en el archivo no se eliminan.
+ */
+class SyncLoader {
+
+    /**
+     * Nombre de la tabla con el hash de cada fila sincronizada.
+     */
+    static final String HASH_TABLE = "hashFilas";
+
+    /**
+     * Controlador de la tabla que se está sincronizando.
+     */
+    private final SuperController controller;
+
+    /**
+     * Número de sentencias por lote JDBC.
+     */
+    private final int batchSize;
+
+    /**
+     * Crea un sincronizador para la tabla del controlador proporcionado.
+     *
+     * @param controller Controlador de la tabla que se va a sincronizar.
+     * @param batchSize  Número de sentencias por lote JDBC.
+     */
+    SyncLoader(SuperController controller, int batchSize) {
+        this.controller = controller;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Sincroniza la tabla con los registros del origen utilizando la conexión proporcionada.
+     * La conexión debe tener una transacción activa; este método no la confirma.
+     *
+     * @param connection Conexión JDBC a la base de datos.
+     * @param source     Origen de los registros.
+     * @return El número de filas escritas y el de filas sin cambios.
+     * @throws SQLException Si se produce un error en la base de datos.
+     * @throws IOException  Si se produce un error al leer el archivo.
+     * @throws CsvException Si un registro del archivo no es válido.
+     */
+    Result sync(Connection connection, RecordSource source) throws SQLException, IOException, CsvException {
+        String[] columns = controller.bulkColumns();
+        int[] keys = controller.keyColumns();
+        boolean upsert = controller.keyIsPrimaryKey() && connection.isWrapperFor(BaseConnection.class);
+
+        createHashTable(connection);
+        Map<String, Long> hashes = loadHashes(connection);
+        Set<String> existing = loadKeys(connection, columns, keys);
+        Result result = new Result();
+
+        try (PreparedStatement insert = connection.prepareStatement(upsert ? upsertSql(columns, keys) : insertSql(columns));
+             PreparedStatement update = connection.prepareStatement(updateSql(columns, keys));
+             PreparedStatement insertHash = connection.prepareStatement(
+                     "INSERT INTO " + HASH_TABLE + " (tabla, clave, hash) VALUES (?, ?, ?)");
+             PreparedStatement updateHash = connection.prepareStatement(
+                     "UPDATE " + HASH_TABLE + " SET hash = ? WHERE tabla = ? AND clave = ?")) {
+
+            int pending = 0;
+            CsvRecord record;
+            while ((record = controller.nextRecord(source)) != null) {
+                Object[] row = controller.convert(record);
+                if (row == null) {
+                    continue;
+                }
+                String key = key(row, keys);
+                long hash = hash(row);
+                Long previous = hashes.get(key);
+                boolean exists = existing.contains(key);
+
+                if (exists && previous != null && previous == hash) {
+                    result.unchanged++;
+                    continue;
+                }
+
+                if (upsert || !exists) {
+                    setAll(insert, row);
+                    insert.addBatch();
+                } else {
+                    setForUpdate(update, row, keys);
+                    update.addBatch();
+                }
+                if (previous == null) {
+                    setHash(insertHash, key, hash, false);
+                    insertHash.addBatch();
+                } else {
+                    setHash(updateHash, key, hash, true);
+                    updateHash.addBatch();
+                }
+                existing.add(key);
+                hashes.put(key, hash);
+                result.written++;
+
+                if (++pending == batchSize) {
+                    executeBatches(insert, update, insertHash, updateHash);
+                    pending = 0;
+                }
+            }
+            executeBatches(insert, update, insertHash, updateHash);
+        }
+        return result;
+    }
+
+    /**
+     * Crea la tabla de hashes si todavía no existe.
+     */
+    private static void createHashTable(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("CREATE TABLE IF NOT EXISTS " + HASH_TABLE + " (\n" +
+                    "    tabla VARCHAR(64) NOT NULL,\n" +
+                    "    clave VARCHAR(255) NOT NULL,\n" +
+                    "    hash BIGINT NOT NULL,\n" +
+                    "    PRIMARY KEY (tabla, clave)\n" +
+                    ")");
+        }
+    }
+
+    /**
+     * Lee los hashes guardados de las filas de la tabla.
+     */
+    private Map<String, Long> loadHashes(Connection connection) throws SQLException {
+        Map<String, Long> hashes = new HashMap<>();
+
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT clave, hash FROM " + HASH_TABLE + " WHERE tabla = ?")) {
+            statement.setString(1, controller.tableName);
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    hashes.put(rs.getString(1), rs.getLong(2));
+                }
+            }
+        }
+        return hashes;
+    }
+
+    /**
+     * Lee las claves de las filas que existen en la tabla, para volver a escribir las que se hayan borrado
+     * aunque su hash no haya cambiado.
+     */
+    private Set<String> loadKeys(Connection connection, String[] columns, int[] keys) throws SQLException {
+        Set<String> existing = new HashSet<>();
+        List<String> keyColumns = new ArrayList<>();
+        for (int key : keys) {
+            keyColumns.add(columns[key]);
+        }
+
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT " + String.join(", ", keyColumns) + " FROM " + controller.tableName)) {
+            Object[] values = new Object[keys.length];
+            int[] positions = new int[keys.length];
+            for (int i = 0; i < keys.length; i++) {
+                positions[i] = i;
+            }
+            while (rs.next()) {
+                for (int i = 0; i < keys.length; i++) {
+                    values[i] = rs.getObject(i + 1);
+                }
+                existing.add(key(values, positions));
+            }
+        }
+        return existing;
+    }
+
+    /**
+     * Ejecuta los lotes pendientes de las cuatro sentencias.
+     */
+    private static void executeBatches(PreparedStatement... statements) throws SQLException {
+        for (PreparedStatement statement : statements) {
+            statement.executeBatch();
+        }
+    }
+
+    /**
+     * Asigna todos los valores de la fila a los parámetros de la sentencia, en orden.
+     */
+    private static void setAll(PreparedStatement statement, Object[] row) throws SQLException {
+        for (int i = 0; i < row.length; i++) {
+            statement.setObject(i + 1, row[i]);
+        }
+    }
+
+    /**
+     * Asigna los valores de la fila a la sentencia UPDATE: primero las columnas que no son clave y después la clave.
+     */
+    private static void setForUpdate(PreparedStatement statement, Object[] row, int[] keys) throws SQLException {
+        int parameter = 1;
+        for (int i = 0; i < row.length; i++) {
+            if (!isKey(i, keys)) {
+                statement.setObject(parameter++, row[i]);
+            }
+        }
+        for (int key : keys) {
+            statement.setObject(parameter++, row[key]);
+        }
+    }
+
+    /**
+     * Asigna los parámetros de la sentencia INSERT o UPDATE de la tabla de hashes.
+     */
+    private void setHash(PreparedStatement statement, String key, long hash, boolean update) throws SQLException {
+        if (update) {
+            statement.setLong(1, hash);
+            statement.setString(2, controller.tableName);
+            statement.setString(3, key);
+        } else {
+            statement.setString(1, controller.tableName);
+            statement.setString(2, key);
+            statement.setLong(3, hash);
+        }
+    }
+
+    private String insertSql(String[] columns) {
+        return "INSERT INTO " + controller.tableName + " (" + String.join(", ", columns) + ") VALUES ("
+                + "?, ".repeat(columns.length - 1) + "?)";
+    }
+
+    private String upsertSql(String[] columns, int[] keys) {
+        List<String> keyColumns = new ArrayList<>();
+        List<String> assignments = new ArrayList<>();
+        for (int i = 0; i < columns.length; i++) {
+            if (isKey(i, keys)) {
+                keyColumns.add(columns[i]);
+            } else {
+                assignments.add(columns[i] + " = EXCLUDED." + columns[i]);
+            }
+        }
+        return insertSql(columns) + " ON CONFLICT (" + String.join(", ", keyColumns) + ") DO UPDATE SET "
+                + String.join(", ", assignments);
+    }
+
+    private String updateSql(String[] columns, int[] keys) {
+        List<String> assignments = new ArrayList<>();
+        List<String> conditions = new ArrayList<>();
+        for (int i = 0; i < columns.length; i++) {
+            if (!isKey(i, keys)) {
+                assignments.add(columns[i] + " = ?");
+            }
+        }
+        for (int key : keys) {
+            conditions.add(columns[key] + " = ?");
+        }
+        return "UPDATE " + controller.tableName + " SET " + String.join(", ", assignments)
+                + " WHERE " + String.join(" AND ", conditions);
+    }
+
+    private static boolean isKey(int column, int[] keys) {
+        for (int key : keys) {
+            if (key == column) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Obtiene la clave de una fila como texto, uniendo los valores de las columnas clave.
+     */
+    static String key(Object[] row, int[] keys) {
+        if (keys.length == 1) {
+            return String.valueOf(row[keys[0]]);
+        }
+        StringBuilder key = new StringBuilder();
+        for (int i = 0; i < keys.length; i++) {
+            if (i > 0) {
+                key.append('|');
+            }
+            key.append(row[keys[i]]);
+        }
+        return key.toString();
+    }
+
+    /**
+     * Calcula un hash FNV-1a de 64 bits del contenido de una fila.
+     * Los decimales se normalizan con {@link BigDecimal#toPlainString()} y los valores nulos
+     * se distinguen de las cadenas vacías.
+     */
+    static long hash(Object[] row) {
+        long hash = 0xcbf29ce484222325L;
+
+        for (Object value : row) {
+            if (value == null) {
+                hash = (hash ^ 0x00) * 0x100000001b3L;
+            } else {
+                String text = value instanceof BigDecimal ? ((BigDecimal) value).toPlainString() : value.toString();
+                for (int i = 0; i < text.length(); i++) {
+                    char c = text.charAt(i);
+                    hash = (hash ^ (c & 0xff)) * 0x100000001b3L;
+                    hash = (hash ^ (c >>> 8)) * 0x100000001b3L;
+                }
+            }
+            hash = (hash ^ 0x1f) * 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * Resultado de una sincronización.
+     */
+    static class Result {
+        /**
+         * Filas insertadas o actualizadas.
+         */
+        long written;
+
+        /**
+         * Filas que no han cambiado y no se han escrito.
+         */
+        long unchanged;
+    }
+}
@@ -0,0 +1,148 @@
+package controller;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * La clase TrigramIndex es un índice invertido en memoria para buscar subcadenas en textos.
+ * Por cada secuencia de tres caracteres (trigrama) guarda la lista ordenada de los textos que la contienen;
+ * para buscar una subcadena se cruzan las listas de sus trigramas, empezando por la más corta, y solo se
+ * comprueban con {@link String#contains(CharSequence)} los textos que aparecen en todas.
+ * Los textos deben estar ya normalizados (ver {@link NameSearch#normalize(String)}) y el índice no se modifica
+ * una vez creado.
+ */
+class TrigramIndex {
+
+    /**
+     * Identificador de cada texto, en orden creciente.
+     */
+    private final int[] ids;
+
+    /**
+     * Textos indexados, en el mismo orden que {@link #ids}.
+     */
+    private final String[] texts;
+
+    /**
+     * Posiciones en {@link #texts} de los textos que contienen cada trigrama, en orden creciente.
+     */
+    private final Map<Long, int[]> postings;
+
+    /**
+     * Crea el índice de los textos proporcionados.
+     *
+     * @param ids   Identificador de cada texto, en orden creciente.
+     * @param texts Textos normalizados, en el mismo orden.
+     */
+    TrigramIndex(int[] ids, String[] texts) {
+        this.ids = ids;
+        this.texts = texts;
+
+        Map<Long, List<Integer>> lists = new HashMap<>();
+        Set<Long> seen = new HashSet<>();
+        for (int i = 0; i < texts.length; i++) {
+            seen.clear();
+            for (int j = 0; j + 3 <= texts[i].length(); j++) {
+                long trigram = trigram(texts[i], j);
+                if (seen.add(trigram)) {
+                    lists.computeIfAbsent(trigram, k -> new ArrayList<>()).add(i);
+                }
+            }
+        }
+
+        this.postings = new HashMap<>(lists.size() * 2);
+        for (Map.Entry<Long, List<Integer>> entry : lists.entrySet()) {
+            postings.put(entry.getKey(), entry.getValue().stream().mapToInt(Integer::intValue).toArray());
+        }
+    }
+
+    /**
+     * Obtiene el número de textos indexados.
+     *
+     * @return El número de textos.
+     */
+    int size() {
+        return texts.length;
+    }
+
+    /**
+     * Busca los textos que contienen una subcadena.
+     * Las subcadenas de menos de tres caracteres no tienen trigramas y se buscan recorriendo todos los textos.
+     *
+     * @param query Subcadena normalizada.
+     * @param limit Número máximo de resultados.
+     * @return Los identificadores de los textos que la contienen, en orden creciente.
+     */
+    int[] search(String query, int limit) {
+        int[] candidates = query.length() < 3 ? null : candidates(query);
+        int[] found = new int[Math.min(limit, candidates == null ? texts.length : candidates.length)];
+        int count = 0;
+
+        int total = candidates == null ? texts.length : candidates.length;
+        for (int i = 0; i < total && count < found.length; i++) {
+            int position = candidates == null ? i : candidates[i];
+            if (texts[position].contains(query)) {
+                found[count++] = ids[position];
+            }
+        }
+        return Arrays.copyOf(found, count);
+    }
+
+    /**
+     * Cruza las listas de todos los trigramas de la subcadena.
+     */
+    private int[] candidates(String query) {
+        List<int[]> lists = new ArrayList<>();
+        for (int j = 0; j + 3 <= query.length(); j++) {
+            int[] list = postings.get(trigram(query, j));
+            if (list == null) {
+                return new int[0];
+            }
+            lists.add(list);
+        }
+        lists.sort(Comparator.comparingInt(list -> list.length));
+
+        int[] result = lists.get(0);
+        for (int k = 1; k < lists.size() && result.length > 0; k++) {
+            result = intersect(result, lists.get(k));
+        }
+        return result;
+    }
+
+    /**
+     * Devuelve los valores comunes de dos listas ordenadas. Los de la primera, más corta,
+     * se buscan en la segunda con búsqueda binaria a partir de la última posición encontrada.
+     */
+    private static int[] intersect(int[] shorter, int[] longer) {
+        int[] result = new int[shorter.length];
+        int count = 0;
+        int from = 0;
+
+        for (int value : shorter) {
+            int position = Arrays.binarySearch(longer, from, longer.length, value);
+            if (position >= 0) {
+                result[count++] = value;
+                from = position + 1;
+            } else {
+                from = -position - 1;
+            }
+            if (from == longer.length) {
+                break;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Codifica los tres caracteres que empiezan en una posición del texto en un long.
+     */
+    private static long trigram(String text, int start) {
+        return (long) text.charAt(start) << 32 | (long) text.charAt(start + 1) << 16 | text.charAt(start + 2);
+    }
+}
@@ -0,0 +1,228 @@
+package controller;
+
+import com.opencsv.exceptions.CsvException;
+import com.opencsv.exceptions.CsvValidationException;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * La clase TypedCsvReader lee un archivo CSV en UTF-8 directamente como bytes y convierte cada registro
+ * en un {@link TypedRow} según un {@link CsvSchema}.
+ * Los bytes se leen en un buffer que se reutiliza y se amplía solo si un registro no cabe en él;
+ * el mismo {@link TypedRow} se reutiliza para todos los registros, de modo que leer un registro no crea
+ * objetos salvo los textos que se piden. Se admiten campos entre comillas con comas, saltos de línea
+ * y comillas duplicadas, finales de línea {@code \n} y {@code \r\n}, y se ignoran las líneas vacías
+ * y la marca de orden de bytes inicial.
+ */
+public final class TypedCsvReader implements RecordSource {
+
+    /**
+     * Tamaño inicial del buffer de lectura.
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Flujo de entrada del archivo.
+     */
+    private final InputStream in;
+
+    /**
+     * Registro que se reutiliza en cada lectura.
+     */
+    private final TypedRow row;
+
+    /**
+     * Buffer de lectura.
+     */
+    private byte[] buf = new byte[BUFFER_SIZE];
+
+    /**
+     * Inicio del registro actual en el buffer.
+     */
+    private int pos;
+
+    /**
+     * Siguiente byte por examinar en busca del final del registro.
+     */
+    private int scan;
+
+    /**
+     * Fin de los datos válidos del buffer.
+     */
+    private int limit;
+
+    /**
+     * Indica si la posición de {@link #scan} está dentro de un campo entre comillas.
+     */
+    private boolean inQuotes;
+
+    /**
+     * Indica si se ha llegado al final del flujo.
+     */
+    private boolean eof;
+
+    /**
+     * Indica si ya se ha comprobado la marca de orden de bytes.
+     */
+    private boolean started;
+
+    /**
+     * Número de registros leídos.
+     */
+    private long recordNumber;
+
+    /**
+     * Número de bytes consumidos del flujo.
+     */
+    private long bytesRead;
+
+    /**
+     * Crea un lector tipado sobre el flujo proporcionado.
+     *
+     * @param in     Flujo de entrada con el contenido del archivo en UTF-8.
+     * @param schema Esquema de las columnas.
+     */
+    public TypedCsvReader(InputStream in, CsvSchema schema) {
+        this.in = in;
+        this.row = new TypedRow(schema);
+    }
+
+    /**
+     * Lee el siguiente registro.
+     *
+     * @return El registro, que se reutiliza en la siguiente llamada, o null si no quedan más.
+     * @throws IOException            Si se produce un error al leer el flujo.
+     * @throws CsvValidationException Si el registro no se ajusta al esquema.
+     */
+    @Override
+    public TypedRow next() throws IOException, CsvValidationException {
+        while (true) {
+            int newline = findRecordEnd();
+
+            if (newline >= 0 || (eof && pos < limit)) {
+                int from = pos;
+                int to = newline >= 0 ? newline : limit;
+                pos = newline >= 0 ? newline + 1 : limit;
+                scan = pos;
+                inQuotes = false;
+
+                if (to > from && buf[to - 1] == '\r') {
+                    to--;
+                }
+                if (to == from) {
+                    continue;
+                }
+                row.parse(buf, from, to, ++recordNumber);
+                return row;
+            }
+            if (eof) {
+                return null;
+            }
+            fill();
+        }
+    }
+
+    /**
+     * Obtiene la posición en bytes del flujo en la que empieza el siguiente registro.
+     *
+     * @return La posición del siguiente registro.
+     */
+    @Override
+    public long getPosition() {
+        return bytesRead - (limit - pos);
+    }
+
+    /**
+     * Salta los primeros registros del flujo. Si se conoce su posición, se saltan los bytes sin convertirlos.
+     *
+     * @param records  Número de registros que se saltan.
+     * @param position Posición en bytes del primer registro que se quiere leer, o -1 si no se conoce.
+     * @throws IOException  Si se produce un error al leer el flujo.
+     * @throws CsvException Si un registro saltado no es válido.
+     */
+    @Override
+    public void skip(long records, long position) throws IOException, CsvException {
+        if (records == 0) {
+            return;
+        }
+        if (position < 0 || bytesRead > 0) {
+            RecordSource.super.skip(records, position);
+            return;
+        }
+        in.skipNBytes(position);
+        bytesRead = position;
+        recordNumber = records;
+        started = true;
+    }
+
+    /**
+     * Obtiene el número de bytes leídos del flujo hasta el momento.
+     *
+     * @return El número de bytes leídos.
+     */
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    /**
+     * Busca el salto de línea que termina el registro actual, fuera de las comillas.
+     *
+     * @return La posición del salto de línea, o -1 si todavía no está en el buffer.
+     */
+    private int findRecordEnd() {
+        byte[] b = buf;
+        boolean quoted = inQuotes;
+        int i = scan;
+
+        for (; i < limit; i++) {
+            byte c = b[i];
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (c == '\n' && !quoted) {
+                return i;
+            }
+        }
+        scan = i;
+        inQuotes = quoted;
+        return -1;
+    }
+
+    /**
+     * Conserva el registro incompleto al principio del buffer, lo amplía si está lleno y lee más datos.
+     */
+    private void fill() throws IOException {
+        if (pos > 0) {
+            System.arraycopy(buf, pos, buf, 0, limit - pos);
+            scan -= pos;
+            limit -= pos;
+            pos = 0;
+        }
+        if (limit == buf.length) {
+            byte[] larger = new byte[buf.length * 2];
+            System.arraycopy(buf, 0, larger, 0, limit);
+            buf = larger;
+        }
+
+        int n = in.read(buf, limit, buf.length - limit);
+        if (n < 0) {
+            eof = true;
+            return;
+        }
+        bytesRead += n;
+        limit += n;
+
+        if (!started && limit >= 3) {
+            started = true;
+            if (buf[0] == (byte) 0xEF && buf[1] == (byte) 0xBB && buf[2] == (byte) 0xBF) {
+                pos = 3;
+                scan = 3;
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
@@ -0,0 +1,391 @@
+package controller;
+
+import com.opencsv.exceptions.CsvValidationException;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * La clase TypedRow es un registro CSV convertido directamente desde los bytes del archivo según un {@link CsvSchema}.
+ * Las columnas enteras y decimales se guardan como valores {@code long} (los decimales escalados a
+ * {@link CsvSchema#DECIMAL_SCALE} decimales) y los campos vacíos o no válidos se marcan en máscaras de bits,
+ * sin crear un String por campo ni utilizar excepciones. El texto de una columna solo se decodifica
+ * cuando se pide con {@link #getText(int)}.
+ * El lector reutiliza el mismo objeto para cada registro; {@link #detach()} devuelve una copia independiente.
+ */
+public final class TypedRow implements CsvRecord {
+
+    /**
+     * Límite de la parte entera de un decimal para que el valor escalado quepa en un {@code long}.
+     */
+    private static final long DECIMAL_INTEGER_LIMIT = 1_000_000_000_000_000L;
+
+    /**
+     * Esquema del registro.
+     */
+    private final CsvSchema schema;
+
+    /**
+     * Posición inicial de cada columna en {@link #buf}.
+     */
+    private final int[] start;
+
+    /**
+     * Posición final, exclusiva, de cada columna en {@link #buf}.
+     */
+    private final int[] end;
+
+    /**
+     * Valor de cada columna numérica.
+     */
+    private final long[] values;
+
+    /**
+     * Bytes que contienen el registro.
+     */
+    private byte[] buf;
+
+    /**
+     * Columnas vacías.
+     */
+    private long emptyMask;
+
+    /**
+     * Columnas numéricas cuyo texto no es un número válido.
+     */
+    private long invalidMask;
+
+    /**
+     * Columnas decimales que se convierten a partir del texto, por tener exponente o demasiados dígitos.
+     */
+    private long slowMask;
+
+    /**
+     * Columnas entre comillas que contienen comillas duplicadas.
+     */
+    private long escapedMask;
+
+    /**
+     * Posición del registro en el archivo, empezando por 1.
+     */
+    private long recordNumber;
+
+    /**
+     * Crea un registro vacío para el esquema proporcionado.
+     *
+     * @param schema Esquema del registro.
+     */
+    public TypedRow(CsvSchema schema) {
+        this.schema = schema;
+        this.start = new int[schema.size()];
+        this.end = new int[schema.size()];
+        this.values = new long[schema.size()];
+    }
+
+    /**
+     * Convierte los bytes de un registro, sin el salto de línea final, en los valores de sus columnas.
+     * Las columnas sobrantes se ignoran.
+     *
+     * @param buf          Bytes que contienen el registro, en UTF-8.
+     * @param from         Posición inicial del registro.
+     * @param to           Posición final, exclusiva, del registro.
+     * @param recordNumber Posición del registro en el archivo.
+     * @throws CsvValidationException Si el registro tiene menos columnas que el esquema o unas comillas sin cerrar.
+     */
+    void parse(byte[] buf, int from, int to, long recordNumber) throws CsvValidationException {
+        this.buf = buf;
+        this.recordNumber = recordNumber;
+        emptyMask = 0;
+        invalidMask = 0;
+        slowMask = 0;
+        escapedMask = 0;
+
+        int columns = schema.size();
+        int column = 0;
+        int p = from;
+
+        while (column < columns) {
+            int s;
+            int e;
+            if (p < to && buf[p] == '"') {
+                s = ++p;
+                while (true) {
+                    if (p >= to) {
+                        throw new CsvValidationException("Comillas sin cerrar en el registro " + recordNumber);
+                    }
+                    if (buf[p] == '"') {
+                        if (p + 1 < to && buf[p + 1] == '"') {
+                            escapedMask |= 1L << column;
+                            p += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    p++;
+                }
+                e = p++;
+                if (p < to && buf[p] != ',') {
+                    throw new CsvValidationException("Carácter inesperado tras las comillas en el registro " + recordNumber);
+                }
+            } else {
+                s = p;
+                while (p < to && buf[p] != ',') {
+                    p++;
+                }
+                e = p;
+            }
+
+            start[column] = s;
+            end[column] = e;
+            convert(column, s, e);
+            column++;
+
+            if (p >= to) {
+                break;
+            }
+            p++;
+        }
+
+        if (column < columns) {
+            throw new CsvValidationException("El registro " + recordNumber + " tiene " + column +
+                    " columnas, se esperaban " + columns);
+        }
+    }
+
+    /**
+     * Convierte el texto de una columna numérica en su valor.
+     */
+    private void convert(int column, int s, int e) {
+        long bit = 1L << column;
+
+        if (s == e) {
+            emptyMask |= bit;
+            return;
+        }
+        switch (schema.type(column)) {
+            case INT:
+                convertInt(column, bit, s, e);
+                break;
+            case DECIMAL:
+                convertDecimal(column, bit, s, e);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Convierte una columna entera con las mismas reglas que {@link Integer#parseInt(String)}.
+     */
+    private void convertInt(int column, long bit, int s, int e) {
+        int p = s;
+        boolean negative = buf[p] == '-';
+        if (negative || buf[p] == '+') {
+            p++;
+        }
+        if (p == e) {
+            invalidMask |= bit;
+            return;
+        }
+
+        long value = 0;
+        for (; p < e; p++) {
+            int digit = buf[p] - '0';
+            if (digit < 0 || digit > 9) {
+                invalidMask |= bit;
+                return;
+            }
+            value = value * 10 + digit;
+            if (value > (long) Integer.MAX_VALUE + 1) {
+                invalidMask |= bit;
+                return;
+            }
+        }
+        value = negative ? -value : value;
+        if (value > Integer.MAX_VALUE) {
+            invalidMask |= bit;
+            return;
+        }
+        values[column] = value;
+    }
+
+    /**
+     * Convierte una columna decimal al valor escalado a tres decimales, redondeando hacia arriba a partir
+     * de la mitad como {@link BigDecimal#setScale(int, RoundingMode)} con {@link RoundingMode#HALF_UP}.
+     */
+    private void convertDecimal(int column, long bit, int s, int e) {
+        int p = s;
+        boolean negative = buf[p] == '-';
+        if (negative || buf[p] == '+') {
+            p++;
+        }
+
+        long unscaled = 0;
+        int fractionDigits = -1;
+        int roundingDigit = 0;
+        boolean digits = false;
+
+        for (; p < e; p++) {
+            byte b = buf[p];
+            if (b >= '0' && b <= '9') {
+                digits = true;
+                int digit = b - '0';
+                if (fractionDigits < 0) {
+                    unscaled = unscaled * 10 + digit;
+                    if (unscaled >= DECIMAL_INTEGER_LIMIT) {
+                        slowMask |= bit;
+                        return;
+                    }
+                } else if (fractionDigits < CsvSchema.DECIMAL_SCALE) {
+                    unscaled = unscaled * 10 + digit;
+                    fractionDigits++;
+                } else if (fractionDigits == CsvSchema.DECIMAL_SCALE) {
+                    roundingDigit = digit;
+                    fractionDigits++;
+                }
+            } else if (b == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+            } else if (b == 'e' || b == 'E') {
+                slowMask |= bit;
+                return;
+            } else {
+                invalidMask |= bit;
+                return;
+            }
+        }
+        if (!digits) {
+            invalidMask |= bit;
+            return;
+        }
+
+        for (int scale = Math.max(fractionDigits, 0); scale < CsvSchema.DECIMAL_SCALE; scale++) {
+            unscaled *= 10;
+        }
+        if (roundingDigit >= 5) {
+            unscaled++;
+        }
+        values[column] = negative ? -unscaled : unscaled;
+    }
+
+    @Override
+    public int size() {
+        return schema.size();
+    }
+
+    @Override
+    public long getRecordNumber() {
+        return recordNumber;
+    }
+
+    @Override
+    public boolean isEmpty(int column) {
+        return (emptyMask & (1L << column)) != 0;
+    }
+
+    /**
+     * Indica si una columna numérica no contiene un número válido.
+     *
+     * @param column Posición de la columna, empezando por 0.
+     * @return `true` si el número no es válido, `false` si no.
+     */
+    public boolean isInvalid(int column) {
+        return (invalidMask & (1L << column)) != 0;
+    }
+
+    @Override
+    public int getInt(int column) {
+        if (schema.type(column) != CsvSchema.ColumnType.INT) {
+            try {
+                return Integer.parseInt(getText(column));
+            } catch (NumberFormatException e) {
+                return 0;
+            }
+        }
+        long bit = 1L << column;
+        return ((emptyMask | invalidMask) & bit) != 0 ? 0 : (int) values[column];
+    }
+
+    @Override
+    public int getRequiredInt(int column) {
+        if (schema.type(column) != CsvSchema.ColumnType.INT) {
+            return Integer.parseInt(getText(column));
+        }
+        long bit = 1L << column;
+        if (((emptyMask | invalidMask) & bit) != 0) {
+            throw new NumberFormatException("For input string: \"" + getText(column) + "\"");
+        }
+        return (int) values[column];
+    }
+
+    @Override
+    public BigDecimal getDecimal(int column) {
+        long bit = 1L << column;
+        if ((emptyMask & bit) != 0) {
+            return null;
+        }
+        if (schema.type(column) != CsvSchema.ColumnType.DECIMAL || ((invalidMask | slowMask) & bit) != 0) {
+            return new BigDecimal(getText(column)).setScale(CsvSchema.DECIMAL_SCALE, RoundingMode.HALF_UP);
+        }
+        return BigDecimal.valueOf(values[column], CsvSchema.DECIMAL_SCALE);
+    }
+
+    /**
+     * Obtiene el valor de una columna decimal escalado a tres decimales, sin crear un {@link BigDecimal}.
+     *
+     * @param column Posición de la columna, empezando por 0.
+     * @return El valor multiplicado por 1000.
+     * @throws NumberFormatException Si la columna está vacía o no es un número válido.
+     */
+    public long getScaledDecimal(int column) {
+        long bit = 1L << column;
+        if ((emptyMask & bit) != 0) {
+            throw new NumberFormatException("La columna " + column + " del registro " + recordNumber + " está vacía");
+        }
+        if (schema.type(column) != CsvSchema.ColumnType.DECIMAL || ((emptyMask | invalidMask | slowMask) & bit) != 0) {
+            return getDecimal(column).unscaledValue().longValueExact();
+        }
+        return values[column];
+    }
+
+    @Override
+    public String getText(int column) {
+        String text = new String(buf, start[column], end[column] - start[column], StandardCharsets.UTF_8);
+        return (escapedMask & (1L << column)) != 0 ? text.replace("\"\"", "\"") : text;
+    }
+
+    @Override
+    public TypedRow detach() {
+        int from = Integer.MAX_VALUE;
+        int to = 0;
+        for (int i = 0; i < start.length; i++) {
+            from = Math.min(from, start[i]);
+            to = Math.max(to, end[i]);
+        }
+
+        TypedRow copy = new TypedRow(schema);
+        copy.buf = Arrays.copyOfRange(buf, from, to);
+        for (int i = 0; i < start.length; i++) {
+            copy.start[i] = start[i] - from;
+            copy.end[i] = end[i] - from;
+        }
+        System.arraycopy(values, 0, copy.values, 0, values.length);
+        copy.emptyMask = emptyMask;
+        copy.invalidMask = invalidMask;
+        copy.slowMask = slowMask;
+        copy.escapedMask = escapedMask;
+        copy.recordNumber = recordNumber;
+        return copy;
+    }
+
+    /**
+     * Devuelve los campos del registro con el formato de {@link Arrays#toString(Object[])}.
+     *
+     * @return Una cadena con los campos del registro.
+     */
+    @Override
+    public String toString() {
+        return Arrays.toString(toArray());
+    }
+}
@@ -31,6 +31,13 @@ public class Compuesto {
     @Column (name = "formula", length = 255)
     String formula;
 
+    /**
+     * Fórmula química del compuesto en orden de Hill, con la que se buscan los compuestos por fórmula.
+     * Se calcula al cargar el compuesto a partir de {@link #formula}.
+     */
+    @Column (name = "formulaHill", length = 255)
+    String formulaHill;
+
     /**
      * Masa molar del compuesto.
      */
@@ -134,6 +141,24 @@ public class Compuesto {
         this.formula = formula;
     }
 
+    /**
+     * Obtiene la fórmula química del compuesto en orden de Hill.
+     *
+     * @return La fórmula en orden de Hill, o null si no se ha calculado.
+     */
+    public String getFormulaHill() {
+        return formulaHill;
+    }
+
+    /**
+     * Establece la fórmula química del compuesto en orden de Hill.
+     *
+     * @param formulaHill La fórmula en orden de Hill.
+     */
+    public void setFormulaHill(String formulaHill) {
+        this.formulaHill = formulaHill;
+    }
+
 
     /**
      * Obtiene la masa del compuesto.
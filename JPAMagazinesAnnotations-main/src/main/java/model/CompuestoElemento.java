@@ -21,8 +21,9 @@ public class CompuestoElemento {
      * Esta relación representa el compuesto al que pertenece el elemento.
      * Indica que varios registros de la tabla `CompuestoElemento` pueden estar asociados a un solo compuesto,
      * lo que implica que un compuesto puede contener varios elementos.
+     * Se carga al utilizarse; los listados leen solo su id a través de {@link CompuestoElementoRow}.
      */
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "compuesto_id")
     Compuesto idCompuesto;
 
@@ -37,8 +38,9 @@ public class CompuestoElemento {
      * Esta relación representa el elemento que forma parte del compuesto.
      * Indica que varios registros de la tabla `CompuestoElemento` pueden estar asociados a un solo elemento,
      * lo que implica que un elemento puede estar presente en varios compuestos.
+     * Se carga al utilizarse; los listados leen solo su id a través de {@link CompuestoElementoRow}.
      */
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "elemento_id")
     Elemento idElemento;
 
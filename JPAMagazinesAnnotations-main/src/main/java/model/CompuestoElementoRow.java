@@ -0,0 +1,24 @@
+package model;
+
+/**
+ * El registro CompuestoElementoRow contiene las columnas de una relación compuesto-elemento que se muestran
+ * en los listados y las búsquedas, con el compuesto y el elemento por su id.
+ * Se obtiene con la consulta {@link #SELECT}, que lee solo la tabla intermedia: no se crea ningún
+ * {@link CompuestoElemento}, no se añade nada al contexto de persistencia ni se consultan el compuesto o el elemento.
+ *
+ * @param id          Identificador de la relación.
+ * @param idCompuesto Id del compuesto.
+ * @param nombreC     Nombre del compuesto.
+ * @param idElemento  Id del elemento.
+ * @param simbolo     Símbolo del elemento.
+ * @param subindice   Subíndice del elemento en el compuesto.
+ */
+public record CompuestoElementoRow(long id, int idCompuesto, String nombreC, int idElemento, String simbolo, int subindice) {
+
+    /**
+     * Consulta JPQL de las filas, con la relación como {@code x} y sin WHERE ni ORDER BY.
+     * Los ids del compuesto y el elemento se leen de las claves ajenas, sin unir sus tablas.
+     */
+    public static final String SELECT = "SELECT new model.CompuestoElementoRow(x.id, x.idCompuesto.idCompuesto, x.nombreC, "
+            + "x.idElemento.idElemento, x.simbolo, x.subindice) FROM CompuestoElemento x";
+}
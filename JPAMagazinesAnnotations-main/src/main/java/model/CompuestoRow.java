@@ -0,0 +1,21 @@
+package model;
+
+/**
+ * El registro CompuestoRow contiene las columnas de un compuesto que se muestran en los listados y las búsquedas.
+ * Se obtiene con la consulta {@link #SELECT}, que lee solo esas columnas: no se crea ningún {@link Compuesto}
+ * ni se añade nada al contexto de persistencia.
+ *
+ * @param idCompuesto Identificador del compuesto.
+ * @param nombre      Nombre del compuesto.
+ * @param formula     Fórmula química del compuesto.
+ * @param masa        Masa molar del compuesto.
+ * @param DRC         Densidad de rango de concentración del compuesto.
+ */
+public record CompuestoRow(int idCompuesto, String nombre, String formula, String masa, String DRC) {
+
+    /**
+     * Consulta JPQL de las filas, con el compuesto como {@code x} y sin WHERE ni ORDER BY.
+     */
+    public static final String SELECT = "SELECT new model.CompuestoRow(x.idCompuesto, x.nombre, x.formula, x.masa, x.DRC) "
+            + "FROM Compuesto x";
+}
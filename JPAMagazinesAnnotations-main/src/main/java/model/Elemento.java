@@ -12,8 +12,36 @@ import java.util.Set;
 @Entity
 @Access(AccessType.FIELD)
 @Table(name = "elementos")
+@NamedEntityGraph(name = Elemento.GRAPH_SERIE_ESTADO,
+        attributeNodes = {@NamedAttributeNode("idSerie"), @NamedAttributeNode("idEstado")})
 public class Elemento implements Serializable {
 
+    /**
+     * Grafo que carga el elemento junto con su serie y su estado, que por defecto se cargan al utilizarse.
+     */
+    public static final String GRAPH_SERIE_ESTADO = "Elemento.serieYEstado";
+
+    /**
+     * Bits de {@link #nulos} de cada propiedad decimal.
+     */
+    private static final short PESO = 1 << 0;
+    private static final short EN_ = 1 << 1;
+    private static final short FUSION = 1 << 2;
+    private static final short EBULLICION = 1 << 3;
+    private static final short EA_ = 1 << 4;
+    private static final short IONIZACION = 1 << 5;
+    private static final short DUREZA = 1 << 6;
+    private static final short MODULO = 1 << 7;
+    private static final short DENSIDAD = 1 << 8;
+    private static final short COND = 1 << 9;
+    private static final short CALOR = 1 << 10;
+    private static final short ABUNDANCIA = 1 << 11;
+
+    /**
+     * Máscara con todas las propiedades decimales a null.
+     */
+    private static final short TODOS_NULOS = (1 << 12) - 1;
+
     /**
      * Identificador únido del elemento.
      */
@@ -34,17 +62,18 @@ public class Elemento implements Serializable {
     String simbolo;
 
     /**
-     * Peso atómico del elemento.
+     * Peso atómico del elemento, en millonésimas.
      */
-    @Column(name = "peso", precision = 12, scale = 6)
-    BigDecimal peso;
+    @Transient
+    long peso;
 
     /**
      * Serie a la que pertenece el elemento.
      * Esta relación define que muchos elementos pueden pertenecer a la misma serie,
      * pero un elemento solo puede pertenecer a una única serie.
+     * Se carga al utilizarse; las consultas que la necesitan la traen con {@code JOIN FETCH} o con {@link #GRAPH_SERIE_ESTADO}.
      */
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "idSerie", referencedColumnName = "idSerie")
     public Serie idSerie;
 
@@ -52,8 +81,9 @@ public class Elemento implements Serializable {
      * Estado del elemento.
      * Esta relación establece que muchos elementos pueden tener el mismo estado,
      * pero un estado solo puede pertenecer a un único elemento.
+     * Se carga al utilizarse; las consultas que lo necesitan lo traen con {@code JOIN FETCH} o con {@link #GRAPH_SERIE_ESTADO}.
      */
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "idEstado", referencedColumnName = "idEstado")
     public Estado idEstado;
 
@@ -64,34 +94,34 @@ public class Elemento implements Serializable {
     String energia;
 
     /**
-     * Electronegatividad del elemento.
+     * Electronegatividad del elemento, en millonésimas.
      */
-    @Column (name = "en", precision = 12, scale = 6)
-    BigDecimal EN;
+    @Transient
+    long EN;
 
     /**
-     * Punto de fusión del elemento.
+     * Punto de fusión del elemento, en millonésimas.
      */
-    @Column (name = "fusion", precision = 12, scale = 6)
-    BigDecimal fusion;
+    @Transient
+    long fusion;
 
     /**
-     * Punto de ebullición del elemento.
+     * Punto de ebullición del elemento, en millonésimas.
      */
-    @Column (name = "ebullicion", precision = 12, scale = 6)
-    BigDecimal ebullicion;
+    @Transient
+    long ebullicion;
 
     /**
-     * Afinidad electrónica del elemento.
+     * Afinidad electrónica del elemento, en millonésimas.
      */
-    @Column (name = "ea", precision = 12, scale = 6)
-    BigDecimal EA;
+    @Transient
+    long EA;
 
     /**
-     * Energía de ionización del elemento.
+     * Energía de ionización del elemento, en millonésimas.
      */
-    @Column (name = "ionizacion", precision = 12, scale = 6)
-    BigDecimal ionizacion;
+    @Transient
+    long ionizacion;
 
     /**
      * Radio atómico del elemento.
@@ -100,40 +130,48 @@ public class Elemento implements Serializable {
     int radio;
 
     /**
-     * Dureza del elemento.
+     * Dureza del elemento, en millonésimas.
+     */
+    @Transient
+    long dureza;
+
+    /**
+     * Módulo del elemento, en millonésimas.
      */
-    @Column (name = "dureza", precision = 12, scale = 6)
-    BigDecimal dureza;
+    @Transient
+    long modulo;
 
     /**
-     * Módulo del elemento.
+     * Densidad del elemento, en millonésimas.
      */
-    @Column (name = "modulo", precision = 12, scale = 6)
-    BigDecimal modulo;
+    @Transient
+    long densidad;
 
     /**
-     * Densidad del elemento.
+     * Conductividad del elemento, en millonésimas.
      */
-    @Column (name = "densidad", precision = 12, scale = 6)
-    BigDecimal densidad;
+    @Transient
+    long Cond;
 
     /**
-     * Conductividad del elemento.
+     * Calor específico del elemento, en millonésimas.
      */
-    @Column (name = "cond", precision = 12, scale = 6)
-    BigDecimal Cond;
+    @Transient
+    long calor;
 
     /**
-     * Calor específico del elemento.
+     * Abundancia del elemento, en millonésimas.
      */
-    @Column (name = "calor", precision = 12, scale = 6)
-    BigDecimal calor;
+    @Transient
+    long abundancia;
 
     /**
-     * Abundancia del elemento.
+     * Máscara con un bit por cada propiedad decimal que es null. Las propiedades decimales se guardan como
+     * millonésimas en un {@code long} en lugar de como {@link BigDecimal} para que un elemento ocupe menos memoria;
+     * las columnas siguen siendo DECIMAL(12, 6) y se leen y escriben a través de sus getters y setters.
      */
-    @Column (name = "abundancia", precision = 12, scale = 6)
-    BigDecimal abundancia;
+    @Transient
+    short nulos = TODOS_NULOS;
 
     /**
      * Descubrimiento del elemento.
@@ -181,22 +219,22 @@ public class Elemento implements Serializable {
         this.idElemento = elementoId;
         this.nombre = nombre;
         this.simbolo = simbolo;
-        this.peso = peso;
+        setPeso(peso);
         this.idSerie = idSerie;
         this.idEstado = idEstado;
         this.energia = energia;
-        this.EN = EN;
-        this.fusion = fusion;
-        this.ebullicion = ebullicion;
-        this.EA = EA;
-        this.ionizacion = ionizacion;
+        setEN(EN);
+        setFusion(fusion);
+        setEbullicion(ebullicion);
+        setEA(EA);
+        setIonizacion(ionizacion);
         this.radio = radio;
-        this.dureza = dureza;
-        this.modulo = modulo;
-        this.densidad = densidad;
-        this.Cond = cond;
-        this.calor = calor;
-        this.abundancia = abundancia;
+        setDureza(dureza);
+        setModulo(modulo);
+        setDensidad(densidad);
+        setCond(cond);
+        setCalor(calor);
+        setAbundancia(abundancia);
         this.dto = dto;
     }
 
@@ -266,8 +304,10 @@ public class Elemento implements Serializable {
      *
      * @return El peso del elemento.
      */
+    @Access(AccessType.PROPERTY)
+    @Column(name = "peso", precision = 12, scale = 6)
     public BigDecimal getPeso() {
-        return peso;
+        return decimal(peso, PESO);
     }
 
     /**
@@ -276,7 +316,7 @@ public class Elemento implements Serializable {
      * @param peso El nuevo peso del elemento.
      */
     public void setPeso(BigDecimal peso) {
-        this.peso = peso;
+        this.peso = scaled(peso, PESO);
     }
 
     /**
@@ -335,8 +375,10 @@ public class Elemento implements Serializable {
      * Obtienen la electronegatividad del elemento.
      * @return La electronegatividad del elemento.
      */
+    @Access(AccessType.PROPERTY)
+    @Column(name = "en", precision = 12, scale = 6)
     public BigDecimal getEN() {
-        return EN;
+        return decimal(EN, EN_);
     }
 
     /**
@@ -344,15 +386,17 @@ public class Elemento implements Serializable {
      * @param EN La nueva electronegatividad del elemento.
      */
     public void setEN(BigDecimal EN) {
-        this.EN = EN;
+        this.EN = scaled(EN, EN_);
     }
 
     /**
      * Obtienen la fusión del elemento.
      * @return La fusión del elemento.
      */
+    @Access(AccessType.PROPERTY)
+    @Column(name = "fusion", precision = 12, scale = 6)
     public BigDecimal getFusion() {
-        return fusion;
+        return decimal(fusion, FUSION);
     }
 
     /**
@@ -360,15 +404,17 @@ public class Elemento implements Serializable {
      * @param fusion La nueva fusión del elemento.
      */
     public void setFusion(BigDecimal fusion) {
-        this.fusion = fusion;
+        this.fusion = scaled(fusion, FUSION);
     }
 
     /**
      * Obtienen la ebullición del elemento.
      * @return La ebullición del elemento.
      */
+    @Access(AccessType.PROPERTY)
+    @Column(name = "ebullicion", precision = 12, scale = 6)
     public BigDecimal getEbullicion() {
-        return ebullicion;
+        return decimal(ebullicion, EBULLICION);
     }
 
     /**
@@ -376,15 +422,17 @@ public class Elemento implements Serializable {
      * @param ebullicion La nueva ebullición del elemento.
      */
     public void setEbullicion(BigDecimal ebullicion) {
-        this.ebullicion = ebullicion;
+        this.ebullicion = scaled(ebullicion, EBULLICION);
     }
 
     /**
      * Obtienen la afinidad electrónica del elemento.
      * @return La afinidad electrónica del elemento.
      */
+    @Access(AccessType.PROPERTY)
+    @Column(name = "ea", precision = 12, scale = 6)
     public BigDecimal getEA() {
-        return EA;
+        return decimal(EA, EA_);
     }
 
     /**
@@ -392,15 +440,17 @@ public class Elemento implements Serializable {
      * @param EA La nueva afinidad electrónica del elemento.
      */
     public void setEA(BigDecimal EA) {
-        this.EA = EA;
+        this.EA = scaled(EA, EA_);
     }
 
     /**
      * Obtienen la ionización del elemento.
      * @return La ionización del elemento.
      */
+    @Access(AccessType.PROPERTY)
+    @Column(name = "ionizacion", precision = 12, scale = 6)
     public BigDecimal getIonizacion() {
-        return ionizacion;
+        return decimal(ionizacion, IONIZACION);
     }
 
     /**
@@ -408,7 +458,7 @@ public class Elemento implements Serializable {
      * @param ionizacion La nueva ionización del elemento.
      */
     public void setIonizacion(BigDecimal ionizacion) {
-        this.ionizacion = ionizacion;
+        this.ionizacion = scaled(ionizacion, IONIZACION);
     }
 
     /**
@@ -431,8 +481,10 @@ public class Elemento implements Serializable {
      * Obtienen la dureza del elemento.
      * @return La dureza del elemento.
      */
+    @Access(AccessType.PROPERTY)
+    @Column(name = "dureza", precision = 12, scale = 6)
     public BigDecimal getDureza() {
-        return dureza;
+        return decimal(dureza, DUREZA);
     }
 
     /**
@@ -440,15 +492,17 @@ public class Elemento implements Serializable {
      * @param dureza La nueva dureza del elemento.
      */
     public void setDureza(BigDecimal dureza) {
-        this.dureza = dureza;
+        this.dureza = scaled(dureza, DUREZA);
     }
 
     /**
      * Obtienen el módulo del elemento.
      * @return El módulo del elemento.
      */
+    @Access(AccessType.PROPERTY)
+    @Column(name = "modulo", precision = 12, scale = 6)
     public BigDecimal getModulo() {
-        return modulo;
+        return decimal(modulo, MODULO);
     }
 
     /**
@@ -456,15 +510,17 @@ public class Elemento implements Serializable {
      * @param modulo El nuevo módulo del elemento.
      */
     public void setModulo(BigDecimal modulo) {
-        this.modulo = modulo;
+        this.modulo = scaled(modulo, MODULO);
     }
 
     /**
      * Obtienen la densidad del elemento.
      * @return La densidad del elemento.
      */
+    @Access(AccessType.PROPERTY)
+    @Column(name = "densidad", precision = 12, scale = 6)
     public BigDecimal getDensidad() {
-        return densidad;
+        return decimal(densidad, DENSIDAD);
     }
 
     /**
@@ -472,15 +528,17 @@ public class Elemento implements Serializable {
      * @param densidad La nueva densidad del elemento.
      */
     public void setDensidad(BigDecimal densidad) {
-        this.densidad = densidad;
+        this.densidad = scaled(densidad, DENSIDAD);
     }
 
     /**
      * Obtienen la conductividad del elemento.
      * @return La conductividad del elemento.
      */
+    @Access(AccessType.PROPERTY)
+    @Column(name = "cond", precision = 12, scale = 6)
     public BigDecimal getCond() {
-        return Cond;
+        return decimal(Cond, COND);
     }
 
     /**
@@ -488,15 +546,17 @@ public class Elemento implements Serializable {
      * @param cond La nueva conductividad del elemento.
      */
     public void setCond(BigDecimal cond) {
-        Cond = cond;
+        this.Cond = scaled(cond, COND);
     }
 
     /**
      * Obtienen el calor del elemento.
      * @return El calor del elemento.
      */
+    @Access(AccessType.PROPERTY)
+    @Column(name = "calor", precision = 12, scale = 6)
     public BigDecimal getCalor() {
-        return calor;
+        return decimal(calor, CALOR);
     }
 
     /**
@@ -504,15 +564,17 @@ public class Elemento implements Serializable {
      * @param calor El nuevo calor del elemento.
      */
     public void setCalor(BigDecimal calor) {
-        this.calor = calor;
+        this.calor = scaled(calor, CALOR);
     }
 
     /**
      * Obtienen la abundancia del elemento.
      * @return La abundancia del elemento.
      */
+    @Access(AccessType.PROPERTY)
+    @Column(name = "abundancia", precision = 12, scale = 6)
     public BigDecimal getAbundancia() {
-        return abundancia;
+        return decimal(abundancia, ABUNDANCIA);
     }
 
     /**
@@ -520,7 +582,7 @@ public class Elemento implements Serializable {
      * @param abundancia La nueva abundancia del elemento.
      */
     public void setAbundancia(BigDecimal abundancia) {
-        this.abundancia = abundancia;
+        this.abundancia = scaled(abundancia, ABUNDANCIA);
     }
 
     /**
@@ -539,16 +601,35 @@ public class Elemento implements Serializable {
         this.dto = dto;
     }
 
+    /**
+     * Obtiene el valor de una propiedad decimal a partir de sus millonésimas.
+     */
+    private BigDecimal decimal(long value, short bit) {
+        return (nulos & bit) != 0 ? null : ScaledDecimal.toDecimal(value);
+    }
+
+    /**
+     * Convierte el valor de una propiedad decimal en millonésimas y actualiza su bit de {@link #nulos}.
+     */
+    private long scaled(BigDecimal value, short bit) {
+        if (value == null) {
+            nulos |= bit;
+            return 0;
+        }
+        nulos &= ~bit;
+        return ScaledDecimal.toScaled(value);
+    }
+
     /**
      * Método para obtener una representación en forma de cadena del objeto Elemento.
      * @return Una cadena que representa el objeto Elemento.
      */
     @Override
     public String toString() {
-        return  "Elemento [ idElemento: " +idElemento+ " , nombre: " +nombre+ ", simbolo: " +simbolo+ ", peso: " +peso+
-                " , idSerie: " +idSerie+ ", idEstado: " +idEstado+ ", energía: " +energia+ ", EN: " +EN+ ", fusión: " +fusion+
-                ", ebullición: " +ebullicion+ ", EA: " +EA+ ", ionización: " +ionizacion+ ", radi: " +radio+ ", dureza: " +dureza+
-                ", modúlo: " +modulo+ ", densidad: " +densidad+ ", cond: " +Cond+ ", calor: " +calor+ ", abundancia: " +abundancia+
-                ", descubrimiento: " +dureza+ " ]";
+        return  "Elemento [ idElemento: " +idElemento+ " , nombre: " +nombre+ ", simbolo: " +simbolo+ ", peso: " + getPeso() +
+                " , idSerie: " +idSerie+ ", idEstado: " +idEstado+ ", energía: " +energia+ ", EN: " + getEN() + ", fusión: " + getFusion() +
+                ", ebullición: " + getEbullicion() + ", EA: " + getEA() + ", ionización: " + getIonizacion() + ", radi: " +radio+ ", dureza: " + getDureza() +
+                ", modúlo: " + getModulo() + ", densidad: " + getDensidad() + ", cond: " + getCond() + ", calor: " + getCalor() + ", abundancia: " + getAbundancia() +
+                ", descubrimiento: " + dto + " ]";
     }
 }
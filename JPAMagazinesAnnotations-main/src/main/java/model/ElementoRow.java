@@ -0,0 +1,58 @@
+package model;
+
+import java.math.BigDecimal;
+
+/**
+ * El registro ElementoRow contiene las columnas de un elemento que se muestran en los listados y las búsquedas,
+ * con la serie y el estado por su id.
+ * Se obtiene con la consulta {@link #SELECT}, que lee solo esas columnas: no se crea ningún {@link Elemento},
+ * no se añade nada al contexto de persistencia ni se consultan la serie, el estado o los compuestos del elemento.
+ *
+ * @param idElemento Identificador del elemento.
+ * @param nombre     Nombre del elemento.
+ * @param simbolo    Símbolo del elemento.
+ * @param peso       Peso atómico del elemento.
+ * @param idSerie    Id de la serie del elemento.
+ * @param idEstado   Id del estado del elemento.
+ * @param energia    Energía del elemento.
+ * @param EN         Electronegatividad del elemento.
+ * @param fusion     Punto de fusión del elemento.
+ * @param ebullicion Punto de ebullición del elemento.
+ * @param EA         Afinidad electrónica del elemento.
+ * @param ionizacion Energía de ionización del elemento.
+ * @param radio      Radio atómico del elemento.
+ * @param dureza     Dureza del elemento.
+ * @param modulo     Módulo del elemento.
+ * @param densidad   Densidad del elemento.
+ * @param cond       Conductividad del elemento.
+ * @param calor      Calor específico del elemento.
+ * @param abundancia Abundancia del elemento.
+ * @param dto        Descubrimiento del elemento.
+ */
+public record ElementoRow(int idElemento, String nombre, String simbolo, BigDecimal peso, int idSerie, int idEstado,
+                          String energia, BigDecimal EN, BigDecimal fusion, BigDecimal ebullicion, BigDecimal EA,
+                          BigDecimal ionizacion, int radio, BigDecimal dureza, BigDecimal modulo, BigDecimal densidad,
+                          BigDecimal cond, BigDecimal calor, BigDecimal abundancia, int dto) {
+
+    /**
+     * Consulta JPQL de las filas, con el elemento como {@code x} y sin WHERE ni ORDER BY.
+     * Los ids de la serie y el estado se leen de las claves ajenas, sin unir sus tablas.
+     */
+    public static final String SELECT = "SELECT new model.ElementoRow(x.idElemento, x.nombre, x.simbolo, x.peso, "
+            + "x.idSerie.idSerie, x.idEstado.idEstado, x.energia, x.EN, x.fusion, x.ebullicion, x.EA, x.ionizacion, "
+            + "x.radio, x.dureza, x.modulo, x.densidad, x.cond, x.calor, x.abundancia, x.dto) FROM Elemento x";
+
+    /**
+     * Crea la fila de un elemento ya cargado, que debe tener su serie y su estado.
+     *
+     * @param elemento Elemento.
+     */
+    public ElementoRow(Elemento elemento) {
+        this((int) elemento.getIdElemento(), elemento.getNombre(), elemento.getSimbolo(), elemento.getPeso(),
+                (int) elemento.getIdSerie().getIdSerie(), (int) elemento.getIdEstado().getIdEstado(),
+                elemento.getEnergia(), elemento.getEN(), elemento.getFusion(), elemento.getEbullicion(),
+                elemento.getEA(), elemento.getIonizacion(), elemento.getRadio(), elemento.getDureza(),
+                elemento.getModulo(), elemento.getDensidad(), elemento.getCond(), elemento.getCalor(),
+                elemento.getAbundancia(), elemento.getDto());
+    }
+}
@@ -0,0 +1,16 @@
+package model;
+
+/**
+ * El registro EstadoRow contiene las columnas de un estado que se muestran en los listados.
+ * Se obtiene con la consulta {@link #SELECT}, sin crear ningún {@link Estado} ni añadir nada al contexto de persistencia.
+ *
+ * @param idEstado Identificador del estado.
+ * @param nombre   Nombre del estado.
+ */
+public record EstadoRow(int idEstado, String nombre) {
+
+    /**
+     * Consulta JPQL de las filas, con el estado como {@code x} y sin WHERE ni ORDER BY.
+     */
+    public static final String SELECT = "SELECT new model.EstadoRow(x.idEstado, x.nombre) FROM Estado x";
+}
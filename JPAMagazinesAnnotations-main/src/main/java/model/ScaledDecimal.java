@@ -0,0 +1,42 @@
+package model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * La clase ScaledDecimal convierte los valores de las columnas DECIMAL(12, 6) en un {@code long} con el valor
+ * multiplicado por un millón y al revés. Como la columna tiene seis decimales, la conversión no pierde
+ * precisión para ningún valor que quepa en ella, y un {@code long} ocupa mucha menos memoria que un {@link BigDecimal}.
+ */
+public final class ScaledDecimal {
+
+    /**
+     * Número de decimales de las columnas, igual que su {@code scale}.
+     */
+    public static final int SCALE = 6;
+
+    private ScaledDecimal() {
+    }
+
+    /**
+     * Convierte un valor decimal en millonésimas, redondeando igual que la base de datos
+     * los valores con más de {@value #SCALE} decimales.
+     *
+     * @param value Valor decimal.
+     * @return El valor multiplicado por un millón.
+     * @throws ArithmeticException Si el valor no cabe en un {@code long}.
+     */
+    public static long toScaled(BigDecimal value) {
+        return value.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Convierte millonésimas en un valor decimal con {@value #SCALE} decimales, como los que devuelve la base de datos.
+     *
+     * @param scaled Valor multiplicado por un millón.
+     * @return El valor decimal.
+     */
+    public static BigDecimal toDecimal(long scaled) {
+        return BigDecimal.valueOf(scaled, SCALE);
+    }
+}
@@ -0,0 +1,16 @@
+package model;
+
+/**
+ * El registro SerieRow contiene las columnas de una serie que se muestran en los listados.
+ * Se obtiene con la consulta {@link #SELECT}, sin crear ninguna {@link Serie} ni añadir nada al contexto de persistencia.
+ *
+ * @param idSerie Identificador de la serie.
+ * @param nombre  Nombre de la serie.
+ */
+public record SerieRow(int idSerie, String nombre) {
+
+    /**
+     * Consulta JPQL de las filas, con la serie como {@code x} y sin WHERE ni ORDER BY.
+     */
+    public static final String SELECT = "SELECT new model.SerieRow(x.idSerie, x.nombre) FROM Serie x";
+}
@@ -50,7 +50,8 @@ public class Menu {
             System.out.println("Select tablas:");
             System.out.println("13. Seleccionar nombre elemento por texto");
             System.out.println("14. Seleccionar compuesto por id_elemento");
-            System.out.println("15. Seleccionar compuesto por fórmula\n");
+            System.out.println("15. Seleccionar compuesto por fórmula");
+            System.out.println("27. Seleccionar compuestos por los elementos que contienen\n");
 
             System.out.println("Modificar tablas:");
             System.out.println("16. Modificar nombre de los estados");
@@ -60,6 +61,16 @@ public class Menu {
             System.out.println("18. Eliminar compuestos por ID");
             System.out.println("19. Eliminar elementos por idEstado\n");
 
+            System.out.println("Carga de todas las tablas:");
+            System.out.println("21. Completar todas las tablas en paralelo");
+            System.out.println("22. Completar todas las tablas en paralelo (carga masiva)");
+            System.out.println("23. Sincronizar todas las tablas con los archivos CSV");
+            System.out.println("24. Reanudar la carga interrumpida de todas las tablas");
+            System.out.println("25. Completar todas las tablas con la carga por etapas\n");
+
+            System.out.println("Exportar tablas:");
+            System.out.println("26. Exportar todas las tablas a CSV en el directorio 'exportacion'\n");
+
 
             System.out.println("20. Salir. \n");
 
@@ -70,7 +81,7 @@ public class Menu {
                 System.out.println("Valor no válido");
                 e.printStackTrace();
             }
-        } while (option < 1 || option > 20);
+        } while (option < 1 || option > 27);
 
         return option;
     }
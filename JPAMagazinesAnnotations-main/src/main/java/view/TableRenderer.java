@@ -0,0 +1,385 @@
+package view;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.DecimalFormatSymbols;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * La clase TableRenderer escribe tablas de texto con columnas de ancho fijo, igual que {@code printf} con
+ * formatos como {@code %-22s}, {@code %-22d} y {@code %-22.4f}, pero sin volver a analizar el formato en cada fila.
+ * Las columnas se definen una sola vez, los números se escriben directamente como caracteres y todo se acumula en un
+ * buffer que se envía a la salida en bloques de {@link #DEFAULT_BUFFER_SIZE} caracteres, de modo que listar millones
+ * de filas depende de la velocidad de la salida y no del formateo.
+ * Cada fila se escribe con una llamada por columna, en orden, terminada con {@link #endRow()}.
+ * La salida puede ser la estándar o un archivo; en ambos casos debe cerrarse con {@link #close()} para vaciar el buffer.
+ */
+public class TableRenderer implements Closeable, Flushable {
+
+    /**
+     * Número de caracteres del buffer por defecto.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Potencias de diez que caben en un {@code long}.
+     */
+    private static final long[] POWERS_OF_TEN = new long[19];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    /**
+     * Columnas de la tabla.
+     */
+    private final Column[] columns;
+
+    /**
+     * Destino de la tabla.
+     */
+    private final Writer out;
+
+    /**
+     * Indica si al cerrar se cierra también el destino; no se hace con la salida estándar.
+     */
+    private final boolean closeOut;
+
+    /**
+     * Separador decimal de la configuración regional, el mismo que utiliza {@code printf}.
+     */
+    private final char decimalSeparator;
+
+    /**
+     * Separador de línea del sistema, el mismo que {@code %n}.
+     */
+    private final String lineSeparator = System.lineSeparator();
+
+    /**
+     * Caracteres pendientes de escribir.
+     */
+    private final char[] buffer = new char[DEFAULT_BUFFER_SIZE];
+
+    /**
+     * Número de caracteres ocupados del buffer.
+     */
+    private int position;
+
+    /**
+     * Columna que se escribe a continuación en la fila actual.
+     */
+    private int column;
+
+    /**
+     * Crea una tabla que se escribe en la salida estándar.
+     *
+     * @param columns Columnas de la tabla.
+     */
+    public TableRenderer(Column... columns) {
+        this(System.out, Charset.defaultCharset(), false, columns);
+    }
+
+    /**
+     * Crea una tabla que se escribe en un archivo en UTF-8, sustituyendo su contenido.
+     *
+     * @param file    Archivo de destino.
+     * @param columns Columnas de la tabla.
+     * @throws IOException Si no se puede crear el archivo.
+     */
+    public TableRenderer(Path file, Column... columns) throws IOException {
+        this(Files.newOutputStream(file), StandardCharsets.UTF_8, true, columns);
+    }
+
+    private TableRenderer(OutputStream out, Charset charset, boolean closeOut, Column[] columns) {
+        if (columns.length == 0) {
+            throw new IllegalArgumentException("La tabla debe tener al menos una columna");
+        }
+        this.out = new OutputStreamWriter(out, charset);
+        this.closeOut = closeOut;
+        this.columns = columns.clone();
+        this.decimalSeparator = DecimalFormatSymbols.getInstance(Locale.getDefault(Locale.Category.FORMAT)).getDecimalSeparator();
+    }
+
+    /**
+     * Escribe una fila con el título de cada columna.
+     */
+    public void header() {
+        for (Column c : columns) {
+            text(c.title);
+        }
+        endRow();
+    }
+
+    /**
+     * Escribe un texto en la siguiente columna de la fila; null se escribe como {@code "null"}, igual que {@code %s}.
+     *
+     * @param value Valor de la celda.
+     * @return Esta tabla, para encadenar las celdas de la fila.
+     */
+    public TableRenderer text(Object value) {
+        String text = String.valueOf(value);
+        Column c = nextColumn();
+        append(text);
+        pad(c.width - text.length());
+        return this;
+    }
+
+    /**
+     * Escribe un número entero en la siguiente columna de la fila.
+     *
+     * @param value Valor de la celda.
+     * @return Esta tabla, para encadenar las celdas de la fila.
+     */
+    public TableRenderer integer(long value) {
+        Column c = nextColumn();
+        pad(c.width - appendFixed(value, 0));
+        return this;
+    }
+
+    /**
+     * Escribe un número decimal en la siguiente columna de la fila, redondeado a los decimales de la columna
+     * igual que {@code %.Nf}; null se escribe como {@code "null"}.
+     *
+     * @param value Valor de la celda.
+     * @return Esta tabla, para encadenar las celdas de la fila.
+     */
+    public TableRenderer decimal(BigDecimal value) {
+        if (value == null) {
+            return text(null);
+        }
+        Column c = nextColumn();
+        BigDecimal rounded = value.setScale(c.decimals, RoundingMode.HALF_UP);
+        int length;
+        if (rounded.precision() < POWERS_OF_TEN.length) {
+            length = appendFixed(rounded.scaleByPowerOfTen(c.decimals).longValue(), c.decimals);
+        } else {
+            String text = rounded.toPlainString().replace('.', decimalSeparator);
+            append(text);
+            length = text.length();
+        }
+        pad(c.width - length);
+        return this;
+    }
+
+    /**
+     * Termina la fila actual.
+     *
+     * @throws IllegalStateException Si no se han escrito todas las columnas de la fila.
+     */
+    public void endRow() {
+        if (column != columns.length) {
+            throw new IllegalStateException("Faltan columnas en la fila: " + column + " de " + columns.length);
+        }
+        append(lineSeparator);
+        column = 0;
+    }
+
+    /**
+     * Envía a la salida lo acumulado en el buffer.
+     */
+    @Override
+    public void flush() {
+        try {
+            writeBuffer();
+            out.flush();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Envía a la salida lo acumulado en el buffer y cierra el archivo de destino, si lo hay.
+     */
+    @Override
+    public void close() {
+        try {
+            flush();
+        } finally {
+            if (closeOut) {
+                try {
+                    out.close();
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Pasa a la siguiente columna de la fila, escribiendo el separador de la anterior.
+     */
+    private Column nextColumn() {
+        if (column == columns.length) {
+            throw new IllegalStateException("La fila ya tiene " + columns.length + " columnas");
+        }
+        if (column > 0) {
+            append(' ');
+        }
+        return columns[column++];
+    }
+
+    /**
+     * Escribe un número entero con un número fijo de decimales: {@code unscaled} es el valor multiplicado
+     * por 10^{@code decimals}.
+     *
+     * @return El número de caracteres escritos.
+     */
+    private int appendFixed(long unscaled, int decimals) {
+        if (unscaled == Long.MIN_VALUE) {
+            String text = BigDecimal.valueOf(unscaled, decimals).toPlainString().replace('.', decimalSeparator);
+            append(text);
+            return text.length();
+        }
+        boolean negative = unscaled < 0;
+        long abs = Math.abs(unscaled);
+        long integerPart = abs / POWERS_OF_TEN[decimals];
+        long fraction = abs % POWERS_OF_TEN[decimals];
+        int length = (negative ? 1 : 0) + digits(integerPart) + (decimals > 0 ? decimals + 1 : 0);
+
+        reserve(length);
+        int end = position + length;
+        int p = end;
+        for (int i = 0; i < decimals; i++) {
+            buffer[--p] = (char) ('0' + fraction % 10);
+            fraction /= 10;
+        }
+        if (decimals > 0) {
+            buffer[--p] = decimalSeparator;
+        }
+        do {
+            buffer[--p] = (char) ('0' + integerPart % 10);
+            integerPart /= 10;
+        } while (integerPart != 0);
+        if (negative) {
+            buffer[--p] = '-';
+        }
+        position = end;
+        return length;
+    }
+
+    /**
+     * Devuelve el número de cifras de un entero no negativo.
+     */
+    private static int digits(long value) {
+        int digits = 1;
+        while (digits < POWERS_OF_TEN.length && value >= POWERS_OF_TEN[digits]) {
+            digits++;
+        }
+        return digits;
+    }
+
+    /**
+     * Añade espacios hasta completar el ancho de la celda, si falta alguno.
+     */
+    private void pad(int count) {
+        while (count > 0) {
+            reserve(1);
+            int n = Math.min(count, buffer.length - position);
+            Arrays.fill(buffer, position, position + n, ' ');
+            position += n;
+            count -= n;
+        }
+    }
+
+    private void append(char c) {
+        reserve(1);
+        buffer[position++] = c;
+    }
+
+    private void append(String text) {
+        int offset = 0;
+        while (offset < text.length()) {
+            reserve(1);
+            int n = Math.min(text.length() - offset, buffer.length - position);
+            text.getChars(offset, offset + n, buffer, position);
+            position += n;
+            offset += n;
+        }
+    }
+
+    /**
+     * Vacía el buffer si no quedan libres {@code length} caracteres.
+     */
+    private void reserve(int length) {
+        if (position + length > buffer.length) {
+            try {
+                writeBuffer();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    private void writeBuffer() throws IOException {
+        if (position > 0) {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+    }
+
+    /**
+     * La clase Column describe una columna de la tabla: su título, su ancho mínimo y, para las columnas decimales,
+     * el número de decimales. Las celdas se alinean a la izquierda y los valores más largos que el ancho no se cortan.
+     */
+    public static final class Column {
+
+        /**
+         * Título de la columna.
+         */
+        private final String title;
+
+        /**
+         * Ancho mínimo de la columna en caracteres.
+         */
+        private final int width;
+
+        /**
+         * Número de decimales con que se escriben los valores decimales.
+         */
+        private final int decimals;
+
+        /**
+         * Crea una columna de texto o de números enteros.
+         *
+         * @param title Título de la columna.
+         * @param width Ancho mínimo de la columna.
+         */
+        public Column(String title, int width) {
+            this(title, width, 0);
+        }
+
+        /**
+         * Crea una columna de números decimales.
+         *
+         * @param title    Título de la columna.
+         * @param width    Ancho mínimo de la columna.
+         * @param decimals Número de decimales de los valores.
+         * @throws IllegalArgumentException Si el ancho es negativo o los decimales no están entre 0 y 18.
+         */
+        public Column(String title, int width, int decimals) {
+            if (width < 0) {
+                throw new IllegalArgumentException("El ancho de la columna no puede ser negativo: " + width);
+            }
+            if (decimals < 0 || decimals >= POWERS_OF_TEN.length) {
+                throw new IllegalArgumentException("Número de decimales no válido: " + decimals);
+            }
+            this.title = title;
+            this.width = width;
+            this.decimals = decimals;
+        }
+    }
+}
@@ -16,9 +16,12 @@ CREATE TABLE compuestos (
     nombre VARCHAR(255),
     formula VARCHAR(255),
     masa VARCHAR(255),
-    drc VARCHAR(255)
+    drc VARCHAR(255),
+    formulaHill VARCHAR(255)
 );
 
+CREATE INDEX compuestos_formulaHill ON compuestos (formulaHill);
+
 CREATE TABLE CompuestoElemento (
     id SERIAL PRIMARY KEY,
     compuesto_id INT,
@@ -55,5 +58,19 @@ CREATE TABLE elementos (
     FOREIGN KEY (idEstado) REFERENCES estados(idEstado)
 );
 
+-- búsqueda de elementos por nombre sin distinguir mayúsculas ni acentos (solo PostgreSQL)
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
 
+CREATE OR REPLACE FUNCTION normalizar_texto(texto text) RETURNS text AS
+    $$ SELECT translate(lower(texto), 'áàâäãåéèêëíìîïóòôöõúùûüýÿçñ', 'aaaaaaeeeeiiiiooooouuuuyycn') $$
+    LANGUAGE sql IMMUTABLE STRICT PARALLEL SAFE;
 
+CREATE INDEX IF NOT EXISTS elementos_nombre_trgm ON elementos USING gin (normalizar_texto(nombre) gin_trgm_ops);
+
+CREATE TABLE hashFilas (
+    tabla VARCHAR(64) NOT NULL,
+    clave VARCHAR(255) NOT NULL,
+    hash BIGINT NOT NULL,
+    PRIMARY KEY (tabla, clave)
+);
@@ -0,0 +1,168 @@
+package controller;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Comprueba las búsquedas por composición de {@link CompositionIndex} con elementos obligatorios, excluidos
+ * y subíndices mínimos, incluidos los compuestos sin filas en la tabla intermedia y los elementos
+ * con id mayor que 63, que están en la segunda palabra del conjunto de bits.
+ * Los elementos se cargan con los archivos del proyecto y los compuestos se insertan a mano en una base
+ * de datos H2 en memoria.
+ */
+class CompositionIndexTest {
+
+    private static final int H = 1;
+    private static final int HE = 2;
+    private static final int C = 6;
+    private static final int O = 8;
+    private static final int NA = 11;
+    private static final int CL = 17;
+    private static final int AU = 79;
+
+    private static EntityManagerFactory entityManagerFactory;
+    private static CompositionIndex index;
+
+    @TempDir
+    static Path tempDir;
+
+    @BeforeAll
+    static void load() {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("javax.persistence.jdbc.url",
+                "jdbc:h2:mem:composicion;DB_CLOSE_DELAY=-1;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE");
+        properties.put("javax.persistence.jdbc.driver", "org.h2.Driver");
+        properties.put("javax.persistence.jdbc.user", "sa");
+        properties.put("javax.persistence.jdbc.password", "");
+        properties.put("hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+        entityManagerFactory = Persistence.createEntityManagerFactory("JPAElementos", properties);
+
+        SerieController series = new SerieController(entityManagerFactory);
+        EstadoController estados = new EstadoController(entityManagerFactory);
+        ElementoController elementos = new ElementoController(entityManagerFactory);
+        series.createSeries();
+        estados.createEstado();
+        new CompuestoController(entityManagerFactory).createCompuestos();
+        elementos.createElementos();
+        new CompuestoElementoController(entityManagerFactory).createCompuestoElemento();
+
+        BatchOptions options = new BatchOptions();
+        options.setQuarantineDir(tempDir.resolve("rechazos"));
+        estados.readCsv("/estadosDeElementos.csv", options);
+        series.readCsv("/seriesDeElementos.csv", options);
+        elementos.readCsv("/elementosQuimicos.csv", options);
+
+        compound(1, "Aigua", H, 2, O, 1);
+        compound(2, "Diòxid de carboni", C, 1, O, 2);
+        compound(3, "Metà", C, 1, H, 4);
+        compound(4, "Clorur de sodi", NA, 1, CL, 1);
+        compound(5, "Compost sense composició");
+        compound(6, "Peròxid d'hidrogen", H, 2, O, 2);
+        compound(7, "Clorur d'or", AU, 1, CL, 3);
+        // El carbono y el hidrógeno aparecen en dos filas, como en CH3COOH.
+        compound(8, "Àcid acètic", C, 1, H, 3, C, 1, O, 2, H, 1);
+
+        index = new CompositionIndex(entityManagerFactory, "CompuestoElemento");
+    }
+
+    @AfterAll
+    static void close() {
+        entityManagerFactory.close();
+    }
+
+    /**
+     * Los compuestos deben contener todos los elementos obligatorios.
+     */
+    @Test
+    void findsRequiredElements() {
+        assertArrayEquals(new int[] {1, 2, 6, 8}, index.find(new CompositionQuery().contains(O)));
+        assertArrayEquals(new int[] {1, 6, 8}, index.find(new CompositionQuery().contains(H, O)));
+        assertArrayEquals(new int[] {7}, index.find(new CompositionQuery().contains(AU)));
+        assertArrayEquals(new int[] {4, 7}, index.find(new CompositionQuery().contains(CL)));
+        assertArrayEquals(new int[0], index.find(new CompositionQuery().contains(HE)));
+        assertArrayEquals(new int[0], index.find(new CompositionQuery().contains(500)));
+    }
+
+    /**
+     * Las búsquedas sin elementos obligatorios recorren todos los compuestos, también los que no tienen
+     * filas en la tabla intermedia, que no contienen ningún elemento excluido.
+     */
+    @Test
+    void exclusionsIncludeCompoundsWithoutRows() {
+        assertEquals(8, index.size());
+        assertArrayEquals(new int[] {1, 2, 3, 4, 5, 6, 7, 8}, index.find(new CompositionQuery()));
+        assertArrayEquals(new int[] {3, 4, 5, 7}, index.find(new CompositionQuery().excludes(O)));
+        assertArrayEquals(new int[] {4, 5, 7}, index.find(new CompositionQuery().excludes(H, C)));
+        assertArrayEquals(new int[] {1, 2, 3, 4, 5, 6, 8}, index.find(new CompositionQuery().excludes(AU)));
+        assertArrayEquals(new int[] {1, 2, 3, 4, 5, 6, 7, 8}, index.find(new CompositionQuery().excludes(HE, 500)));
+        assertArrayEquals(new int[] {2}, index.find(new CompositionQuery().contains(C).excludes(H)));
+        assertEquals("Compost sense composició", index.name(5));
+    }
+
+    /**
+     * Los subíndices mínimos suman las filas del mismo elemento y hacen obligatorio el elemento.
+     */
+    @Test
+    void findsMinimumCounts() {
+        assertArrayEquals(new int[] {2, 6, 8}, index.find(new CompositionQuery().atLeast(O, 2)));
+        assertArrayEquals(new int[] {6, 8}, index.find(new CompositionQuery().atLeast(O, 2).atLeast(H, 2)));
+        assertArrayEquals(new int[] {6}, index.find(new CompositionQuery().atLeast(O, 2).atLeast(H, 2).excludes(C)));
+        assertArrayEquals(new int[] {3, 8}, index.find(new CompositionQuery().atLeast(H, 4)));
+        assertArrayEquals(new int[] {8}, index.find(new CompositionQuery().atLeast(C, 2)));
+        assertArrayEquals(new int[] {7}, index.find(new CompositionQuery().atLeast(CL, 2)));
+        assertArrayEquals(new int[0], index.find(new CompositionQuery().atLeast(O, 3)));
+        assertArrayEquals(new int[] {3}, index.find(new CompositionQuery().atLeast(H, 4).excludes(O)));
+    }
+
+    /**
+     * El límite corta el resultado por los ids más bajos.
+     */
+    @Test
+    void stopsAtLimit() {
+        CompositionQuery query = new CompositionQuery().contains(O);
+        query.setLimit(2);
+        assertArrayEquals(new int[] {1, 2}, index.find(query));
+
+        query = new CompositionQuery().excludes(O);
+        query.setLimit(3);
+        assertArrayEquals(new int[] {3, 4, 5}, index.find(query));
+    }
+
+    /**
+     * Inserta un compuesto y sus filas en la tabla intermedia, dadas como pares de id de elemento y subíndice.
+     */
+    private static void compound(int idCompuesto, String nombre, int... elementos) {
+        EntityManager em = entityManagerFactory.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            em.createNativeQuery("INSERT INTO compuestos (idCompuesto, nombre) VALUES (?1, ?2)")
+                    .setParameter(1, idCompuesto)
+                    .setParameter(2, nombre)
+                    .executeUpdate();
+            for (int i = 0; i < elementos.length; i += 2) {
+                em.createNativeQuery("INSERT INTO CompuestoElemento (compuesto_id, nombreCompuesto, elemento_id, subindice) "
+                                + "VALUES (?1, ?2, ?3, ?4)")
+                        .setParameter(1, idCompuesto)
+                        .setParameter(2, nombre)
+                        .setParameter(3, elementos[i])
+                        .setParameter(4, elementos[i + 1])
+                        .executeUpdate();
+            }
+            em.getTransaction().commit();
+        } finally {
+            em.close();
+        }
+    }
+}
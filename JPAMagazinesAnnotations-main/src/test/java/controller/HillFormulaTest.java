@@ -0,0 +1,63 @@
+package controller;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Comprueba la forma canónica de {@link HillFormula}: el carbono y el hidrógeno primero si hay carbono,
+ * el resto por orden alfabético, con los hidratos, los paréntesis y los corchetes desarrollados.
+ */
+class HillFormulaTest {
+
+    /**
+     * Las fórmulas con la misma composición tienen la misma clave, escritas en cualquier orden.
+     */
+    @Test
+    void ordersCarbonHydrogenThenAlphabetical() {
+        assertEquals("H2O", HillFormula.canonical("H2O"));
+        assertEquals("H2O", HillFormula.canonical("OH2"));
+        assertEquals("H2O", HillFormula.canonical(" H2 O "));
+        assertEquals("C2H4O2", HillFormula.canonical("CH3COOH"));
+        assertEquals("CH4", HillFormula.canonical("H4C"));
+        assertEquals("CClF3", HillFormula.canonical("CF3Cl"));
+        assertEquals("ClNa", HillFormula.canonical("NaCl"));
+    }
+
+    /**
+     * Las partes de un hidrato se suman con su coeficiente, con cualquiera de los separadores admitidos.
+     */
+    @Test
+    void expandsHydrates() {
+        assertEquals("CuH10O9S", HillFormula.canonical("CuSO4·5H2O"));
+        assertEquals("CuH10O9S", HillFormula.canonical("CuSO4*5H2O"));
+        assertEquals("CuH10O9S", HillFormula.canonical("CuSO4+5H2O"));
+        assertEquals("CaH4O6S", HillFormula.canonical("CaSO4·2H2O"));
+        assertEquals("H4O2", HillFormula.canonical("2H2O"));
+    }
+
+    /**
+     * Los grupos entre paréntesis o corchetes, también anidados, se multiplican por su subíndice.
+     */
+    @Test
+    void expandsNestedBrackets() {
+        assertEquals("Ca3O8P2", HillFormula.canonical("Ca3(PO4)2"));
+        assertEquals("C6FeK4N6", HillFormula.canonical("K4[Fe(CN)6]"));
+        assertEquals("Cl3CoH18N6", HillFormula.canonical("[Co(NH3)6]Cl3"));
+        assertEquals("AlH6O6", HillFormula.canonical("Al((OH)2)3"));
+        assertEquals("C12H24Fe2KN6O6", HillFormula.canonical("K[Fe(CN)3(CH3)3(OH)3]2"));
+    }
+
+    /**
+     * Las fórmulas vacías, mal cerradas o con caracteres que no son de una fórmula no tienen clave.
+     */
+    @Test
+    void rejectsInvalidFormulas() {
+        for (String formula : new String[] {"", "   ", "h2o", "H2O)", "(H2O", "[Fe(CN)6)", "Fe(CN]6", "H2O+",
+                "+H2O", "H2O··H2O", "H2-O", "99999999999999999999H", "()"}) {
+            assertNull(HillFormula.canonical(formula), formula);
+        }
+        assertNull(HillFormula.canonical(null));
+    }
+}
@@ -0,0 +1,107 @@
+package controller;
+
+import com.opencsv.exceptions.CsvException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Comprueba que {@link MappedCsvReader} lee los mismos registros que {@link TypedCsvReader} con cualquier tamaño
+ * de ventana, incluidos los registros que quedan partidos entre dos ventanas o que son mayores que una ventana.
+ */
+class MappedCsvReaderTest {
+
+    private static final CsvSchema SCHEMA = new CsvSchema(
+            CsvSchema.ColumnType.INT, CsvSchema.ColumnType.TEXT, CsvSchema.ColumnType.DECIMAL);
+
+    /**
+     * Registros con comillas, comillas duplicadas, saltos de línea dentro de las comillas, finales de línea
+     * de Windows, una línea vacía y un último registro sin salto de línea.
+     */
+    private static final String CONTENT = "﻿1,Hidrógeno,1.008\n"
+            + "2,\"Helio, gas noble\",4.0026\r\n"
+            + "3,\"Litio\nmetal\",6.94\n"
+            + "\n"
+            + "4,\"Berilio \"\"Be\"\"\",9.0122\r\n"
+            + "5,,\n"
+            + "6,Carbono con un nombre bastante más largo que los demás registros del archivo,12.011\n"
+            + "7,Nitrógeno,14.007";
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Todos los tamaños de ventana, desde un byte hasta el archivo completo, dan los mismos registros.
+     */
+    @Test
+    void everyWindowSizeReadsTheSameRecords() throws IOException, CsvException {
+        Path file = write(CONTENT);
+        List<String> expected = readTyped(CONTENT);
+        assertEquals(7, expected.size());
+
+        long size = Files.size(file);
+        for (long windowSize = 1; windowSize <= size + 1; windowSize++) {
+            try (MappedCsvReader reader = new MappedCsvReader(file, SCHEMA, windowSize)) {
+                assertEquals(expected, read(reader), "ventana de " + windowSize + " bytes");
+            }
+        }
+    }
+
+    /**
+     * Al reanudar desde la posición de un registro se proyecta una ventana que empieza en él y se leen
+     * los registros siguientes, con su número de registro.
+     */
+    @Test
+    void skipToPositionStartsAtThatRecord() throws IOException, CsvException {
+        Path file = write(CONTENT);
+        List<String> expected = readTyped(CONTENT);
+
+        List<Long> positions = new ArrayList<>();
+        try (MappedCsvReader reader = new MappedCsvReader(file, SCHEMA, 16)) {
+            positions.add(reader.getPosition());
+            while (reader.next() != null) {
+                positions.add(reader.getPosition());
+            }
+        }
+
+        for (int records = 1; records < expected.size(); records++) {
+            try (MappedCsvReader reader = new MappedCsvReader(file, SCHEMA, 16)) {
+                reader.skip(records, positions.get(records));
+                TypedRow row = reader.next();
+                assertEquals(expected.get(records), row.toString(), "saltando " + records);
+                assertEquals(records + 1, row.getRecordNumber());
+                assertEquals(expected.subList(records + 1, expected.size()), read(reader));
+            }
+        }
+    }
+
+    private Path write(String content) throws IOException {
+        Path file = tempDir.resolve("registros.csv");
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private static List<String> readTyped(String content) throws IOException, CsvException {
+        try (TypedCsvReader reader = new TypedCsvReader(
+                new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), SCHEMA)) {
+            return read(reader);
+        }
+    }
+
+    private static List<String> read(RecordSource source) throws IOException, CsvException {
+        List<String> records = new ArrayList<>();
+        for (CsvRecord row = source.next(); row != null; row = source.next()) {
+            records.add(row.toString());
+        }
+        return records;
+    }
+}
@@ -0,0 +1,143 @@
+package controller;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Comprueba con las estadísticas de Hibernate que las lecturas hacen un número fijo de sentencias SQL,
+ * sin una consulta más por cada fila para cargar sus relaciones (N+1).
+ * Las tablas se crean y se cargan con los archivos del proyecto en una base de datos H2 en memoria.
+ */
+class StatementCountTest {
+
+    private static EntityManagerFactory entityManagerFactory;
+    private static Statistics statistics;
+
+    @TempDir
+    static Path tempDir;
+
+    @BeforeAll
+    static void load() {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("javax.persistence.jdbc.url",
+                "jdbc:h2:mem:recuentos;DB_CLOSE_DELAY=-1;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE");
+        properties.put("javax.persistence.jdbc.driver", "org.h2.Driver");
+        properties.put("javax.persistence.jdbc.user", "sa");
+        properties.put("javax.persistence.jdbc.password", "");
+        properties.put("hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+        properties.put("hibernate.generate_statistics", "true");
+        properties.put("hibernate.session.events.log", "false");
+        entityManagerFactory = Persistence.createEntityManagerFactory("JPAElementos", properties);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        SerieController series = new SerieController(entityManagerFactory);
+        EstadoController estados = new EstadoController(entityManagerFactory);
+        CompuestoController compuestos = new CompuestoController(entityManagerFactory);
+        ElementoController elementos = new ElementoController(entityManagerFactory);
+        CompuestoElementoController relaciones = new CompuestoElementoController(entityManagerFactory);
+        series.createSeries();
+        estados.createEstado();
+        compuestos.createCompuestos();
+        elementos.createElementos();
+        relaciones.createCompuestoElemento();
+
+        BatchOptions options = new BatchOptions();
+        options.setQuarantineDir(tempDir.resolve("rechazos"));
+        estados.readCsv("/estadosDeElementos.csv", options);
+        series.readCsv("/seriesDeElementos.csv", options);
+        elementos.readCsv("/elementosQuimicos.csv", options);
+        compuestos.readCsv("/compuestosQuimicos.csv", options);
+        relaciones.readCsv("/compuestosPorElementos.csv", options);
+    }
+
+    @AfterAll
+    static void close() {
+        entityManagerFactory.close();
+    }
+
+    /**
+     * El listado hace una consulta por página, o una sola con el cursor, que lee las filas de
+     * {@link model.CompuestoElementoRow} con los ids del compuesto y el elemento de sus claves ajenas,
+     * sin ninguna consulta más por fila.
+     */
+    @Test
+    void listCompuestoElementoQueriesOncePerPage() {
+        CompuestoElementoController controller = new CompuestoElementoController(entityManagerFactory);
+        ListOptions options = new ListOptions();
+        options.setPageSize(100);
+        options.setOutput(tempDir.resolve("listado.txt"));
+
+        statistics.clear();
+        controller.listCompuestoElemento(options);
+        // 291 filas: páginas de 100, 100 y 91.
+        assertEquals(3, statistics.getPrepareStatementCount());
+
+        options.setStreaming(true);
+        statistics.clear();
+        controller.listCompuestoElemento(options);
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    /**
+     * Las relaciones de un elemento se leen con una sola consulta, sea cual sea su número.
+     */
+    @Test
+    void selectPorElementoQueriesOnce() {
+        ElementoController elementos = withInput("", () -> new ElementoController(entityManagerFactory));
+        for (String idElemento : new String[] {"8", "1", "26"}) {
+            CompuestoElementoController controller =
+                    withInput(idElemento + "\n", () -> new CompuestoElementoController(entityManagerFactory));
+            controller.setElementoIndex(elementos.getIndex());
+            elementos.getIndex().size();
+
+            statistics.clear();
+            controller.selectPorElemento();
+            assertEquals(1, statistics.getPrepareStatementCount(), "elemento " + idElemento);
+        }
+    }
+
+    /**
+     * La modificación de la serie hace el mismo número de sentencias sea cual sea el número de elementos modificados:
+     * los años, la serie, los elementos del año, la actualización por lotes y el listado de los elementos modificados.
+     */
+    @Test
+    void updateIdSerieRunsFixedStatements() {
+        for (String year : new String[] {"1898", "1774", "1500"}) {
+            ElementoController controller =
+                    withInput(year + "\n3\n", () -> new ElementoController(entityManagerFactory));
+
+            statistics.clear();
+            controller.updateIdSerie();
+            assertEquals(5, statistics.getPrepareStatementCount(), "año " + year);
+        }
+    }
+
+    /**
+     * Crea un controlador que lee de la entrada estándar el texto proporcionado.
+     */
+    private static <T> T withInput(String input, Supplier<T> controller) {
+        InputStream in = System.in;
+        System.setIn(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)));
+        try {
+            return controller.get();
+        } finally {
+            System.setIn(in);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package controller;
+
+import com.opencsv.exceptions.CsvException;
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Comprueba que {@link SyncLoader} solo escribe las filas nuevas, las modificadas y las que ya no están
+ * en la tabla, y que deja sin escribir las que tienen el mismo hash que en la sincronización anterior.
+ * Se sincroniza la tabla de series en una base de datos H2 en memoria.
+ */
+class SyncLoaderTest {
+
+    private static EntityManagerFactory entityManagerFactory;
+    private static SerieController series;
+
+    @TempDir
+    static Path tempDir;
+
+    @BeforeAll
+    static void create() {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("javax.persistence.jdbc.url",
+                "jdbc:h2:mem:sincronizacion;DB_CLOSE_DELAY=-1;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE");
+        properties.put("javax.persistence.jdbc.driver", "org.h2.Driver");
+        properties.put("javax.persistence.jdbc.user", "sa");
+        properties.put("javax.persistence.jdbc.password", "");
+        properties.put("hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+        entityManagerFactory = Persistence.createEntityManagerFactory("JPAElementos", properties);
+
+        series = new SerieController(entityManagerFactory);
+        series.createSeries();
+    }
+
+    @AfterAll
+    static void close() {
+        entityManagerFactory.close();
+    }
+
+    /**
+     * La segunda sincronización con el mismo archivo no escribe nada; después solo se escriben la fila
+     * modificada, la nueva y la que se ha borrado de la tabla aunque su hash no haya cambiado.
+     */
+    @Test
+    void skipsRowsWithUnchangedHash() throws IOException {
+        SyncLoader.Result first = sync("1,Metall alcalí", "2,Alcalinoterri", "3,Lantanoide");
+        assertEquals(3, first.written);
+        assertEquals(0, first.unchanged);
+
+        SyncLoader.Result second = sync("1,Metall alcalí", "2,Alcalinoterri", "3,Lantanoide");
+        assertEquals(0, second.written);
+        assertEquals(3, second.unchanged);
+
+        execute("DELETE FROM series WHERE idSerie = 3");
+        SyncLoader.Result third = sync("1,Metall alcalí", "2,Alcalinoterreo", "3,Lantanoide", "4,Actínid");
+        assertEquals(3, third.written);
+        assertEquals(1, third.unchanged);
+        assertEquals(List.of("Metall alcalí", "Alcalinoterreo", "Lantanoide", "Actínid"),
+                query("SELECT nombre FROM series ORDER BY idSerie"));
+
+        SyncLoader.Result fourth = sync("1,Metall alcalí", "2,Alcalinoterreo", "3,Lantanoide", "4,Actínid");
+        assertEquals(0, fourth.written);
+        assertEquals(4, fourth.unchanged);
+    }
+
+    /**
+     * Sincroniza la tabla de series con un archivo que contiene las líneas proporcionadas.
+     */
+    private static SyncLoader.Result sync(String... lines) throws IOException {
+        Path file = tempDir.resolve("series.csv");
+        Files.write(file, List.of(lines), StandardCharsets.UTF_8);
+        BatchOptions options = new BatchOptions();
+        options.setQuarantineDir(tempDir.resolve("rechazos"));
+        SyncLoader loader = new SyncLoader(series, options.getBatchSize());
+
+        EntityManager em = entityManagerFactory.createEntityManager();
+        try (RecordSource source = series.openSource(file.toString(), options)) {
+            series.beginLoad(options);
+            try {
+                em.getTransaction().begin();
+                SyncLoader.Result result = em.unwrap(Session.class).doReturningWork(connection -> {
+                    try {
+                        return loader.sync(connection, source);
+                    } catch (IOException | CsvException e) {
+                        throw new RuntimeException(e);
+                    }
+                });
+                em.getTransaction().commit();
+                return result;
+            } finally {
+                series.endLoad();
+            }
+        } finally {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            em.close();
+        }
+    }
+
+    private static void execute(String sql) {
+        EntityManager em = entityManagerFactory.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            em.createNativeQuery(sql).executeUpdate();
+            em.getTransaction().commit();
+        } finally {
+            em.close();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Object> query(String sql) {
+        EntityManager em = entityManagerFactory.createEntityManager();
+        try {
+            return em.createNativeQuery(sql).getResultList();
+        } finally {
+            em.close();
+        }
+    }
+}
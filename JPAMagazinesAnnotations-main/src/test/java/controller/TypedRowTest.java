@@ -0,0 +1,97 @@
+package controller;
+
+import com.opencsv.exceptions.CsvValidationException;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Comprueba que {@link TypedRow} convierte los números desde los bytes del registro con el mismo resultado
+ * que {@link Integer#parseInt(String)} y que {@link BigDecimal#setScale(int, RoundingMode)} con
+ * {@link RoundingMode#HALF_UP}, también cuando el valor no cabe en el camino rápido.
+ */
+class TypedRowTest {
+
+    private static final CsvSchema DECIMAL = new CsvSchema(CsvSchema.ColumnType.DECIMAL);
+    private static final CsvSchema INT = new CsvSchema(CsvSchema.ColumnType.INT);
+
+    /**
+     * Los decimales se redondean a tres cifras alejándose del cero a partir de la mitad, como HALF_UP.
+     */
+    @Test
+    void decimalRoundsHalfUp() throws CsvValidationException {
+        for (String text : new String[] {"1.2345", "1.23449", "1.23450", "-1.2345", "-1.23449", "0.0005",
+                "-0.0005", "0.0004", "2.9995", "12", "12.5", ".75", "+3.1", "-0"}) {
+            TypedRow row = parse(DECIMAL, text);
+            BigDecimal expected = new BigDecimal(text).setScale(CsvSchema.DECIMAL_SCALE, RoundingMode.HALF_UP);
+            assertEquals(expected, row.getDecimal(0), text);
+            assertEquals(expected.unscaledValue().longValueExact(), row.getScaledDecimal(0), text);
+        }
+    }
+
+    /**
+     * Los decimales con exponente o con una parte entera que no cabe en un long escalado se convierten
+     * a partir del texto, con el mismo resultado.
+     */
+    @Test
+    void decimalOutsideFastPathMatchesBigDecimal() throws CsvValidationException {
+        for (String text : new String[] {"1.5e3", "2.0005E-1", "999999999999999999.9995",
+                "123456789012345678901.5"}) {
+            TypedRow row = parse(DECIMAL, text);
+            assertFalse(row.isInvalid(0), text);
+            assertEquals(new BigDecimal(text).setScale(CsvSchema.DECIMAL_SCALE, RoundingMode.HALF_UP),
+                    row.getDecimal(0), text);
+        }
+        assertEquals(1_500_000L, parse(DECIMAL, "1.5e3").getScaledDecimal(0));
+        assertThrows(ArithmeticException.class, () -> parse(DECIMAL, "123456789012345678901.5").getScaledDecimal(0));
+    }
+
+    /**
+     * El texto que no es un número se marca como no válido y el campo vacío como vacío.
+     */
+    @Test
+    void decimalInvalidAndEmpty() throws CsvValidationException {
+        for (String text : new String[] {"abc", "1.2.3", "-", "1.5x"}) {
+            TypedRow row = parse(DECIMAL, text);
+            assertTrue(row.isInvalid(0), text);
+            assertThrows(NumberFormatException.class, () -> row.getDecimal(0), text);
+        }
+        TypedRow empty = parse(new CsvSchema(CsvSchema.ColumnType.DECIMAL, CsvSchema.ColumnType.TEXT), ",x");
+        assertTrue(empty.isEmpty(0));
+        assertNull(empty.getDecimal(0));
+        assertThrows(NumberFormatException.class, () -> empty.getScaledDecimal(0));
+    }
+
+    /**
+     * Los enteros aceptan todo el rango de int y marcan como no válidos los que se salen de él.
+     */
+    @Test
+    void intOverflow() throws CsvValidationException {
+        assertEquals(Integer.MAX_VALUE, parse(INT, "2147483647").getRequiredInt(0));
+        assertEquals(Integer.MIN_VALUE, parse(INT, "-2147483648").getRequiredInt(0));
+        assertEquals(7, parse(INT, "+7").getRequiredInt(0));
+
+        for (String text : new String[] {"2147483648", "-2147483649", "99999999999999999999", "+", "-", "1.0", "x1"}) {
+            TypedRow row = parse(INT, text);
+            assertTrue(row.isInvalid(0), text);
+            assertEquals(0, row.getInt(0), text);
+            assertThrows(NumberFormatException.class, () -> row.getRequiredInt(0), text);
+            assertThrows(NumberFormatException.class, () -> Integer.parseInt(text), text);
+        }
+    }
+
+    private static TypedRow parse(CsvSchema schema, String line) throws CsvValidationException {
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        TypedRow row = new TypedRow(schema);
+        row.parse(bytes, 0, bytes.length, 1);
+        return row;
+    }
+}